@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.productservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -24,6 +25,31 @@ public class AsyncConfig {
         return executor;
     }
 
+    // Kept apart from customTaskExecutor so long batch jobs cannot starve request-scoped async work
+    @Bean(name = "jobExecutor")
+    public Executor jobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("JobExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    // The intake only hands over as many checkouts as there are idle workers; the queue just absorbs
+    // the moment between a worker finishing a checkout and its thread going back to the pool
+    @Bean(name = "intakeExecutor")
+    public Executor intakeExecutor(@Value("${checkout.intake.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("IntakeExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
     @Bean
     public Executor securityExecutor() {
         return new DelegatingSecurityContextExecutorService(Executors.newCachedThreadPool());
@@ -0,0 +1,30 @@
+package id.ac.ui.cs.advprog.productservice.config;
+
+import id.ac.ui.cs.advprog.productservice.model.encoding.EncodedColumnMigration;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs {@link EncodedColumnMigration} before the entity manager factory starts, so that
+ * {@code ddl-auto=update} finds the encoded columns already in place, and loads the dictionaries the
+ * converters read.
+ */
+@Configuration
+public class EncodedColumnConfig {
+
+    @Bean
+    public EncodedColumnMigration encodedColumnMigration(DataSource dataSource) {
+        EncodedColumnMigration migration = new EncodedColumnMigration(dataSource);
+        migration.migrate();
+        migration.preloadDictionaries();
+        return migration;
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnMigration() {
+        return new EntityManagerFactoryDependsOnPostProcessor("encodedColumnMigration");
+    }
+}
@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.productservice.config;
+
+import id.ac.ui.cs.advprog.productservice.model.id.IdGenerator;
+import id.ac.ui.cs.advprog.productservice.model.id.Ids;
+import id.ac.ui.cs.advprog.productservice.model.id.RandomUuidGenerator;
+import id.ac.ui.cs.advprog.productservice.model.id.UuidV7Generator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the id generator entities use: {@code ids.generator=v7} (default, time-ordered) or
+ * {@code random} (version 4, the previous behaviour).
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    public IdGeneratorConfig(@Value("${ids.generator:v7}") String generator) {
+        Ids.use(forName(generator));
+    }
+
+    static IdGenerator forName(String generator) {
+        return switch (generator.toLowerCase()) {
+            case "v7" -> new UuidV7Generator();
+            case "random" -> new RandomUuidGenerator();
+            default -> throw new IllegalArgumentException("Unknown id generator: " + generator);
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.productservice.dto.BulkTransactionResponseDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.service.BulkTransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transactions/bulk")
+public class BulkTransactionController {
+
+    private final BulkTransactionService bulkTransactionService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BulkTransactionController(BulkTransactionService bulkTransactionService, ObjectMapper objectMapper) {
+        this.bulkTransactionService = bulkTransactionService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkTransactionResponseDTO> ingest(@RequestBody List<TransactionRequestDTO> requests) {
+        return ResponseEntity.ok(bulkTransactionService.ingest(requests));
+    }
+
+    // One TransactionRequestDTO per line; a line that does not parse fails as its own record.
+    // An oversized body is rejected at the first record past the limit, without reading the rest.
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkTransactionResponseDTO> ingestNdjson(InputStream body) throws IOException {
+        List<TransactionRequestDTO> requests = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                bulkTransactionService.requireWithinLimit(requests.size() + 1);
+                try {
+                    requests.add(objectMapper.readValue(line, TransactionRequestDTO.class));
+                } catch (JsonProcessingException e) {
+                    requests.add(null);
+                }
+            }
+        }
+        return ResponseEntity.ok(bulkTransactionService.ingest(requests));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
@@ -0,0 +1,55 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import id.ac.ui.cs.advprog.productservice.dto.CheckoutStatusDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.service.CheckoutIntakeService;
+import id.ac.ui.cs.advprog.productservice.service.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/checkouts")
+public class CheckoutController {
+
+    private final CheckoutIntakeService checkoutIntakeService;
+    private final IdempotencyStore idempotencyStore;
+
+    @Autowired
+    public CheckoutController(CheckoutIntakeService checkoutIntakeService, IdempotencyStore idempotencyStore) {
+        this.checkoutIntakeService = checkoutIntakeService;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    // Accepted once stored; poll the Location until the status is SUCCEEDED or FAILED
+    @PostMapping
+    public ResponseEntity<CheckoutStatusDTO> submit(
+            @RequestBody TransactionRequestDTO requestDTO,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        CheckoutStatusDTO checkout = idempotencyStore.execute("POST /api/checkouts", idempotencyKey, requestDTO,
+                () -> checkoutIntakeService.submit(requestDTO));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/checkouts/" + checkout.getId()))
+                .body(checkout);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CheckoutStatusDTO> getStatus(@PathVariable String id) {
+        return checkoutIntakeService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(IdempotencyStore.KeyReuseException.class)
+    public ResponseEntity<String> handleKeyReuse(IdempotencyStore.KeyReuseException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import id.ac.ui.cs.advprog.productservice.dto.CustomerBalanceDTO;
+import id.ac.ui.cs.advprog.productservice.service.CustomerBalanceLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/customers")
+public class CustomerBalanceController {
+
+    private final CustomerBalanceLedger balanceLedger;
+
+    @Autowired
+    public CustomerBalanceController(CustomerBalanceLedger balanceLedger) {
+        this.balanceLedger = balanceLedger;
+    }
+
+    // A customer without transactions has an all-zero balance rather than a 404
+    @GetMapping("/{customerId}/balance")
+    public ResponseEntity<CustomerBalanceDTO> getBalance(@PathVariable String customerId) {
+        return ResponseEntity.ok(balanceLedger.getBalance(customerId));
+    }
+}
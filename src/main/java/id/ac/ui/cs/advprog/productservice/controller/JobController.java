@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import id.ac.ui.cs.advprog.productservice.dto.JobDTO;
+import id.ac.ui.cs.advprog.productservice.service.BatchJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final BatchJobService batchJobService;
+
+    @Autowired
+    public JobController(BatchJobService batchJobService) {
+        this.batchJobService = batchJobService;
+    }
+
+    // Unknown and expired jobs are both 404
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDTO> getJob(@PathVariable String id) {
+        return batchJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,11 +1,16 @@
 package id.ac.ui.cs.advprog.productservice.controller;
 
+import id.ac.ui.cs.advprog.productservice.dto.PaymentPageDTO;
+import id.ac.ui.cs.advprog.productservice.dto.PaymentStatusUpdateDTO;
+import id.ac.ui.cs.advprog.productservice.dto.PaymentStatusUpdateResultDTO;
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentMethodConverter;
+import id.ac.ui.cs.advprog.productservice.service.IdempotencyStore;
 import id.ac.ui.cs.advprog.productservice.service.PaymentServiceImpl;
 import id.ac.ui.cs.advprog.productservice.model.command.CreatePaymentCommand;
 import id.ac.ui.cs.advprog.productservice.model.command.DeletePaymentCommand;
-import id.ac.ui.cs.advprog.productservice.model.command.ViewPaymentHistoryCommand;
-import id.ac.ui.cs.advprog.productservice.model.command.PaymentCommand;
+import id.ac.ui.cs.advprog.productservice.model.command.PaymentInvoker;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,13 +23,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 @CrossOrigin
 @RestController
@@ -33,12 +43,24 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentServiceImpl paymentService;
+    private final IdempotencyStore idempotencyStore;
+    private final PaymentInvoker paymentInvoker;
 
     @PostMapping
-     public ResponseEntity<Void> createPayment(@RequestBody Payment payment) {
-         CreatePaymentCommand command = new CreatePaymentCommand(paymentService, payment);
-         command.execute();
-         Payment createdPayment = command.getResult();
+     public ResponseEntity<?> createPayment(
+             @RequestBody Payment payment,
+             @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+         if (!isValidStatus(payment.getStatus())) {
+             return ResponseEntity.badRequest().body("Invalid status");
+         }
+         if (!isValidMethod(payment.getMethod())) {
+             return ResponseEntity.badRequest().body("Invalid method");
+         }
+         // createdAt defaults to the time of deserialization, so it is left out of the request fingerprint
+         List<Object> fingerprint = Arrays.asList(payment.getId(), payment.getCustomerId(), payment.getAmount(),
+                 payment.getMethod(), payment.getStatus());
+         Payment createdPayment = idempotencyStore.execute("POST /payments", idempotencyKey, fingerprint,
+                 () -> paymentInvoker.run(new CreatePaymentCommand(paymentService, payment)).getResult());
 
          if (createdPayment == null || createdPayment.getId() == null) {
              return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -49,10 +71,20 @@ public class PaymentController {
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Payment>> getPaymentsByCustomerId(@PathVariable String customerId) {
-        ViewPaymentHistoryCommand command = new ViewPaymentHistoryCommand(paymentService, customerId);
-        command.execute();
-        return ResponseEntity.ok(command.getResult());
+    public ResponseEntity<PaymentPageDTO> getPaymentsByCustomerId(
+            @PathVariable String customerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") int size) {
+        if (status != null && !isValidStatus(status)) {
+            throw new IllegalArgumentException("Invalid status");
+        }
+        if (method != null && !isValidMethod(method)) {
+            throw new IllegalArgumentException("Invalid method");
+        }
+        // Reads skip the command bus: they need no coalescing and must not queue behind writes
+        return ResponseEntity.ok(paymentService.getPaymentHistory(customerId, status, method, cursor, size));
     }
 
     @PutMapping("/{paymentId}/status")
@@ -60,26 +92,31 @@ public class PaymentController {
             @PathVariable String paymentId,
             @RequestParam String status
     ) {
-        try {
-            if (!status.equals("LUNAS") && !status.equals("CICILAN")) {
-                return ResponseEntity.badRequest().body("Invalid status");
-            }
-            paymentService.updatePaymentStatus(paymentId, status);
-            return ResponseEntity.ok().build();
-        } catch (Exception e) {
-            throw new RuntimeException("Update failed", e);
+        if (!isValidStatus(status)) {
+            return ResponseEntity.badRequest().body("Invalid status");
+        }
+        paymentService.updatePaymentStatus(paymentId, status);
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/status")
+    public ResponseEntity<?> updatePaymentStatuses(@RequestBody PaymentStatusUpdateDTO request) {
+        if (!isValidStatus(request.getStatus())) {
+            return ResponseEntity.badRequest().body("Invalid status");
+        }
+        if (request.getPaymentIds() == null || request.getPaymentIds().isEmpty()
+                || request.getPaymentIds().contains(null)) {
+            return ResponseEntity.badRequest().body("paymentIds must be a non-empty list of ids");
         }
+        int requested = new HashSet<>(request.getPaymentIds()).size();
+        int updated = paymentService.updatePaymentStatuses(request.getPaymentIds(), request.getStatus());
+        return ResponseEntity.ok(new PaymentStatusUpdateResultDTO(requested, updated));
     }
 
     @DeleteMapping("/{paymentId}")
     public ResponseEntity<Void> deletePayment(@PathVariable String paymentId) {
-        try {
-            PaymentCommand command = new DeletePaymentCommand(paymentService, paymentId);
-            command.execute();
-            return ResponseEntity.ok().build();
-        } catch (Exception e) {
-            throw new RuntimeException("Delete failed", e);
-        }
+        paymentInvoker.run(new DeletePaymentCommand(paymentService, paymentId));
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/{paymentId}")
@@ -88,6 +125,39 @@ public class PaymentController {
         return ResponseEntity.ok(payment);
     }
 
+    private static boolean isValidStatus(String status) {
+        return PaymentStatus.isValid(status);
+    }
+
+    private static boolean isValidMethod(String method) {
+        return PaymentMethodConverter.isValid(method);
+    }
+
+    @ExceptionHandler(IdempotencyStore.KeyReuseException.class)
+    public ResponseEntity<String> handleKeyReuse(IdempotencyStore.KeyReuseException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecution(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage() + ", retry later");
+    }
+
+    @ExceptionHandler(PaymentInvoker.CommandTimeoutException.class)
+    public ResponseEntity<String> handleCommandTimeout(PaymentInvoker.CommandTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<String> handleNotFound(NoSuchElementException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.status(500).body(ex.getMessage());
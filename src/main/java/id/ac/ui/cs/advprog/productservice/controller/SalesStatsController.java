@@ -0,0 +1,55 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import id.ac.ui.cs.advprog.productservice.dto.SalesStatsDTO;
+import id.ac.ui.cs.advprog.productservice.enums.SalesGranularity;
+import id.ac.ui.cs.advprog.productservice.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/transactions/stats")
+public class SalesStatsController {
+
+    private final SalesRollupService salesRollupService;
+
+    @Autowired
+    public SalesStatsController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @GetMapping
+    public ResponseEntity<SalesStatsDTO> getSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date endDate) {
+
+        return ResponseEntity.ok(salesRollupService.getSummary(startDate, endDate));
+    }
+
+    @GetMapping("/buckets")
+    public ResponseEntity<List<SalesStatsDTO>> getBuckets(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date endDate,
+            @RequestParam(required = false, defaultValue = "hour") String granularity) {
+
+        List<SalesStatsDTO> buckets = salesRollupService.getBuckets(
+                startDate, endDate, SalesGranularity.fromParam(granularity));
+        return ResponseEntity.ok(buckets);
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuild() {
+        long transactions = salesRollupService.rebuild();
+        return ResponseEntity.ok(Map.of("transactions", transactions));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
@@ -1,35 +1,66 @@
 package id.ac.ui.cs.advprog.productservice.controller;
 
+import id.ac.ui.cs.advprog.productservice.dto.BatchResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.JobDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionUpdateDTO;
+import id.ac.ui.cs.advprog.productservice.enums.StreamFormat;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentMethodConverter;
+import id.ac.ui.cs.advprog.productservice.service.BatchJobService;
+import id.ac.ui.cs.advprog.productservice.service.GroupCommitCheckout;
+import id.ac.ui.cs.advprog.productservice.service.IdempotencyStore;
 import id.ac.ui.cs.advprog.productservice.service.TransactionService;
+import id.ac.ui.cs.advprog.productservice.service.TransactionStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.concurrent.CompletableFuture;
 
+import java.net.URI;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionStreamService transactionStreamService;
+    private final BatchJobService batchJobService;
+    private final IdempotencyStore idempotencyStore;
+    private final GroupCommitCheckout groupCommitCheckout;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionStreamService transactionStreamService,
+                                 BatchJobService batchJobService,
+                                 IdempotencyStore idempotencyStore,
+                                 GroupCommitCheckout groupCommitCheckout) {
         this.transactionService = transactionService;
+        this.transactionStreamService = transactionStreamService;
+        this.batchJobService = batchJobService;
+        this.idempotencyStore = idempotencyStore;
+        this.groupCommitCheckout = groupCommitCheckout;
     }
 
     @PostMapping
-    public ResponseEntity<TransactionDTO> createTransaction(@RequestBody TransactionRequestDTO requestDTO) {
-        TransactionDTO transaction = transactionService.createTransaction(requestDTO);
+    public ResponseEntity<TransactionDTO> createTransaction(
+            @RequestBody TransactionRequestDTO requestDTO,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        requireValidPaymentMethod(requestDTO.getPaymentMethod());
+        TransactionDTO transaction = idempotencyStore.execute("POST /api/transactions", idempotencyKey, requestDTO,
+                () -> groupCommitCheckout.isEnabled()
+                        ? groupCommitCheckout.createTransaction(requestDTO)
+                        : transactionService.createTransaction(requestDTO));
         return new ResponseEntity<>(transaction, HttpStatus.CREATED);
     }
 
@@ -47,6 +78,9 @@ public class TransactionController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate) {
 
+        if (paymentMethod != null)
+            requireValidPaymentMethod(paymentMethod);
+
         List<TransactionDTO> transactions;
 
         if (customerId != null) {
@@ -64,10 +98,35 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    // Written on an async thread, so a stream still running after spring.mvc.async.request-timeout is cut off
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamTransactions(
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false, defaultValue = "json") String format) {
+
+        if (paymentMethod != null)
+            requireValidPaymentMethod(paymentMethod);
+
+        StreamFormat streamFormat = StreamFormat.fromParam(format);
+        StreamingResponseBody body = out -> transactionStreamService.writeTransactions(
+                customerId, status, paymentMethod, startDate, endDate, keyword, streamFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(streamFormat.getContentType()))
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<TransactionDTO> updateTransaction(
             @PathVariable String id,
             @RequestBody TransactionUpdateDTO updateDTO) {
+        if (updateDTO.getPaymentMethod() != null)
+            requireValidPaymentMethod(updateDTO.getPaymentMethod());
 
         TransactionDTO transaction = transactionService.updateTransaction(id, updateDTO);
         return ResponseEntity.ok(transaction);
@@ -99,12 +158,26 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/search/customers")
+    public ResponseEntity<List<String>> suggestCustomerIds(
+            @RequestParam String prefix,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+
+        List<String> customerIds = transactionService.suggestCustomerIds(prefix, limit);
+        return ResponseEntity.ok(customerIds);
+    }
+
     @GetMapping("/ongoing")
     public ResponseEntity<List<TransactionDTO>> getOngoingTransactions() {
         List<TransactionDTO> transactions = transactionService.getOngoingTransactions();
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/ongoing/counts")
+    public ResponseEntity<Map<TransactionStatus, Long>> countOngoingTransactions() {
+        return ResponseEntity.ok(transactionService.countOngoingTransactions());
+    }
+
     @GetMapping("/pending")
     public ResponseEntity<List<TransactionDTO>> getPendingTransactions() {
         List<TransactionDTO> transactions = transactionService.getTransactionsByStatus(TransactionStatus.PENDING);
@@ -118,19 +191,24 @@ public class TransactionController {
     }
 
     @GetMapping("/filter")
-    public ResponseEntity<List<TransactionDTO>> filterTransactions(
+    public ResponseEntity<TransactionPageDTO> filterTransactions(
             @RequestParam(required = false) String customerId,
             @RequestParam(required = false) List<TransactionStatus> statuses,
             @RequestParam(required = false) List<String> paymentMethods,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate,
             @RequestParam(required = false, defaultValue = "createdAt") String sortBy,
-            @RequestParam(required = false, defaultValue = "desc") String sortDirection) {
+            @RequestParam(required = false, defaultValue = "desc") String sortDirection,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") int size) {
 
-        List<TransactionDTO> transactions = transactionService.filterTransactions(
-                customerId, statuses, paymentMethods, startDate, endDate, sortBy, sortDirection);
+        if (paymentMethods != null)
+            paymentMethods.forEach(TransactionController::requireValidPaymentMethod);
 
-        return ResponseEntity.ok(transactions);
+        TransactionPageDTO page = transactionService.filterTransactionsPage(
+                customerId, statuses, paymentMethods, startDate, endDate, sortBy, sortDirection, cursor, size);
+
+        return ResponseEntity.ok(page);
     }
 
     @PatchMapping("/{id}/confirm")
@@ -146,28 +224,51 @@ public class TransactionController {
     }
 
     @PostMapping("/batch/complete")
-    public ResponseEntity<Integer> completeMultipleTransactions(@RequestBody List<String> transactionIds) {
-        int completedCount = transactionService.batchCompleteTransactions(transactionIds);
-        return ResponseEntity.ok(completedCount);
+    public ResponseEntity<BatchResultDTO> completeMultipleTransactions(@RequestBody List<String> transactionIds) {
+        BatchResultDTO result = transactionService.batchCompleteTransactions(transactionIds);
+        return ResponseEntity.ok(result);
     }
 
     @PostMapping("/batch/cancel")
-    public ResponseEntity<Integer> cancelMultipleTransactions(@RequestBody List<String> transactionIds) {
-        int canceledCount = transactionService.batchCancelTransactions(transactionIds);
-        return ResponseEntity.ok(canceledCount);
+    public ResponseEntity<BatchResultDTO> cancelMultipleTransactions(@RequestBody List<String> transactionIds) {
+        BatchResultDTO result = transactionService.batchCancelTransactions(transactionIds);
+        return ResponseEntity.ok(result);
     }
 
     @PostMapping("/batch/complete/async")
-    public CompletableFuture<ResponseEntity<Integer>> completeMultipleTransactionsAsync(
-            @RequestBody List<String> transactionIds) {
-        return transactionService.batchCompleteTransactionsAsync(transactionIds)
-                .thenApply(ResponseEntity::ok);
+    public ResponseEntity<JobDTO> completeMultipleTransactionsAsync(@RequestBody List<String> transactionIds) {
+        return accepted(batchJobService.submitComplete(transactionIds));
     }
 
     @PostMapping("/batch/cancel/async")
-    public CompletableFuture<ResponseEntity<Integer>> cancelMultipleTransactionsAsync(
-            @RequestBody List<String> transactionIds) {
-        return transactionService.batchCancelTransactionsAsync(transactionIds)
-                .thenApply(ResponseEntity::ok);
+    public ResponseEntity<JobDTO> cancelMultipleTransactionsAsync(@RequestBody List<String> transactionIds) {
+        return accepted(batchJobService.submitCancel(transactionIds));
+    }
+
+    private static ResponseEntity<JobDTO> accepted(JobDTO job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    // Stored method names take a dictionary code for good, and filters by a malformed one cannot match
+    private static void requireValidPaymentMethod(String paymentMethod) {
+        if (!PaymentMethodConverter.isValid(paymentMethod))
+            throw new IllegalArgumentException("Invalid paymentMethod");
+    }
+
+    @ExceptionHandler(IdempotencyStore.KeyReuseException.class)
+    public ResponseEntity<String> handleKeyReuse(IdempotencyStore.KeyReuseException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecution(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage() + ", retry later");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a batch status change: the ids that changed, and for every other requested id the
+ * reason it was left alone.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO {
+    private List<String> processed = new ArrayList<>();
+    private Map<String, String> skipped = new LinkedHashMap<>();
+
+    public int getProcessedCount() {
+        return processed.size();
+    }
+}
@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionResponseDTO {
+    private int received;
+    private int created;
+    private int failed;
+    private List<BulkTransactionResultDTO> results;
+}
@@ -0,0 +1,32 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one record of a bulk ingestion, identified by its position in the request.
+ * Exactly one of {@code transactionId} and {@code error} is set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionResultDTO {
+    private int index;
+    private String transactionId;
+    private TransactionStatus status;
+    private String error;
+
+    public static BulkTransactionResultDTO created(int index, String transactionId, TransactionStatus status) {
+        return new BulkTransactionResultDTO(index, transactionId, status, null);
+    }
+
+    public static BulkTransactionResultDTO failed(int index, String error) {
+        return new BulkTransactionResultDTO(index, null, null, error);
+    }
+
+    public boolean isCreated() {
+        return transactionId != null;
+    }
+}
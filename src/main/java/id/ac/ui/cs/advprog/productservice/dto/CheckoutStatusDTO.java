@@ -0,0 +1,30 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.enums.CheckoutStatus;
+import id.ac.ui.cs.advprog.productservice.model.CheckoutRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Where an asynchronously submitted checkout stands. {@code transactionId} is set once it
+ * {@code SUCCEEDED}, {@code error} once it {@code FAILED}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutStatusDTO {
+    private String id;
+    private CheckoutStatus status;
+    private String transactionId;
+    private String error;
+    private Date createdAt;
+    private Date updatedAt;
+
+    public static CheckoutStatusDTO fromCheckoutRequest(CheckoutRequest request) {
+        return new CheckoutStatusDTO(request.getId(), request.getStatus(), request.getTransactionId(),
+                request.getError(), request.getCreatedAt(), request.getUpdatedAt());
+    }
+}
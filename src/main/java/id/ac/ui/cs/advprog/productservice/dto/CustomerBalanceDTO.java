@@ -0,0 +1,20 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a customer has spent on and paid for their transactions that are not cancelled, and what
+ * is still owed on installments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerBalanceDTO {
+    private String customerId;
+    private double totalSpent;
+    private double totalPaid;
+    private double outstandingBalance;
+    private long transactionCount;
+}
@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.enums.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of a background job. {@code completed} counts ids already handled either way, so
+ * {@code completed / total} is the job's progress; {@code errors} lists chunks that failed outright.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDTO {
+    private String id;
+    private String type;
+    private JobStatus status;
+    private int total;
+    private int completed;
+    private int processed;
+    private Map<String, String> skipped;
+    private List<String> errors;
+    private Date submittedAt;
+    private Date startedAt;
+    private Date finishedAt;
+}
@@ -0,0 +1,44 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset position in a customer's payment history, newest first: the creation time and id of the
+ * last payment of a page. Clients only ever see the opaque {@link #encode()} form.
+ */
+@Getter
+public class PaymentCursor {
+    private static final String SEPARATOR = "|";
+
+    private final Date createdAt;
+    private final String id;
+
+    public PaymentCursor(Date createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static PaymentCursor after(Payment last) {
+        return new PaymentCursor(last.getCreatedAt(), last.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.getTime() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PaymentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            return new PaymentCursor(new Date(Long.parseLong(parts[0])), parts[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPageDTO {
+    private List<Payment> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,15 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusUpdateDTO {
+    private List<String> paymentIds;
+    private String status;
+}
@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk payment status change: how many distinct ids were asked for and how many
+ * payments were actually updated; the difference did not exist.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusUpdateResultDTO {
+    private int requested;
+    private int updated;
+}
@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Sales aggregated over [start, end). Cancelled transactions are counted and appear in the status
+ * breakdown but contribute no revenue or items sold.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesStatsDTO {
+    private Date start;
+    private Date end;
+    private long count;
+    private double revenue;
+    private long itemsSold;
+    private Map<TransactionStatus, Long> byStatus;
+    private Map<String, Long> byPaymentMethod;
+}
@@ -0,0 +1,56 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a sorted transaction listing: the sort key and id of the last row of a page.
+ * Clients only ever see the opaque {@link #encode()} form.
+ */
+@Getter
+public class TransactionCursor {
+    private static final String SEPARATOR = "|";
+
+    private final TransactionSortField sortField;
+    private final boolean descending;
+    private final Comparable<?> sortValue;
+    private final String id;
+
+    public TransactionCursor(TransactionSortField sortField, boolean descending, Comparable<?> sortValue, String id) {
+        this.sortField = sortField;
+        this.descending = descending;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public static TransactionCursor after(Transaction last, TransactionSortField sortField, boolean descending) {
+        Comparable<?> value = switch (sortField) {
+            case CREATED_AT -> last.getCreatedAt();
+            case UPDATED_AT -> last.getUpdatedAt();
+            case TOTAL_AMOUNT -> last.getTotalAmount();
+            case STATUS -> last.getStatus();
+        };
+        return new TransactionCursor(sortField, descending, value, last.getId());
+    }
+
+    public String encode() {
+        String raw = sortField.name() + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR
+                + sortField.formatValue(sortValue) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            TransactionSortField field = TransactionSortField.valueOf(parts[0]);
+            return new TransactionCursor(field, "desc".equals(parts[1]), field.parseValue(parts[2]), parts[3]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
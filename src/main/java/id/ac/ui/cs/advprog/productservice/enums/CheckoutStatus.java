@@ -0,0 +1,12 @@
+package id.ac.ui.cs.advprog.productservice.enums;
+
+public enum CheckoutStatus {
+    QUEUED,
+    PROCESSING,
+    SUCCEEDED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
@@ -0,0 +1,38 @@
+package id.ac.ui.cs.advprog.productservice.enums;
+
+/**
+ * The statuses a payment can have. Payments keep the status as its name; {@code payments.status_code}
+ * stores {@link #getCode()}, which is fixed per constant and must never be reused.
+ */
+public enum PaymentStatus {
+    LUNAS((short) 1),
+    CICILAN((short) 2);
+
+    private final short code;
+
+    PaymentStatus(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static boolean isValid(String name) {
+        for (PaymentStatus status : values()) {
+            if (status.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static PaymentStatus fromCode(short code) {
+        for (PaymentStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalStateException("Unknown payment status code " + code);
+    }
+}
@@ -0,0 +1,30 @@
+package id.ac.ui.cs.advprog.productservice.enums;
+
+import java.time.temporal.ChronoUnit;
+
+public enum SalesGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    SalesGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    public static SalesGranularity fromParam(String param) {
+        if (param == null) {
+            return HOUR;
+        }
+        for (SalesGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(param)) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported granularity: " + param);
+    }
+}
@@ -0,0 +1,20 @@
+package id.ac.ui.cs.advprog.productservice.enums;
+
+public enum StreamFormat {
+    JSON_ARRAY("application/json"),
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    StreamFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static StreamFormat fromParam(String format) {
+        return "ndjson".equalsIgnoreCase(format) ? NDJSON : JSON_ARRAY;
+    }
+}
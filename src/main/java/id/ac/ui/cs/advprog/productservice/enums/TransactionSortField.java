@@ -0,0 +1,47 @@
+package id.ac.ui.cs.advprog.productservice.enums;
+
+import java.util.Date;
+
+public enum TransactionSortField {
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt"),
+    TOTAL_AMOUNT("totalAmount"),
+    STATUS("status");
+
+    private final String attribute;
+
+    TransactionSortField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public static TransactionSortField fromParam(String sortBy) {
+        if (sortBy != null) {
+            for (TransactionSortField field : values()) {
+                if (field.attribute.equalsIgnoreCase(sortBy)) {
+                    return field;
+                }
+            }
+        }
+        return CREATED_AT;
+    }
+
+    public String formatValue(Object value) {
+        return switch (this) {
+            case CREATED_AT, UPDATED_AT -> String.valueOf(((Date) value).getTime());
+            case TOTAL_AMOUNT -> String.valueOf(value);
+            case STATUS -> ((TransactionStatus) value).name();
+        };
+    }
+
+    public Comparable<?> parseValue(String value) {
+        return switch (this) {
+            case CREATED_AT, UPDATED_AT -> new Date(Long.parseLong(value));
+            case TOTAL_AMOUNT -> Double.valueOf(value);
+            case STATUS -> TransactionStatus.valueOf(value);
+        };
+    }
+}
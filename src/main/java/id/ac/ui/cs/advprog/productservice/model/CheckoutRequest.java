@@ -0,0 +1,63 @@
+package id.ac.ui.cs.advprog.productservice.model;
+
+import id.ac.ui.cs.advprog.productservice.enums.CheckoutStatus;
+import id.ac.ui.cs.advprog.productservice.model.id.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A checkout accepted by the asynchronous intake and not yet, or already, turned into a transaction.
+ * {@code attempts} is bumped on every claim, so a worker whose claim went stale cannot record a result.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "checkout_requests", indexes = {
+        @Index(name = "idx_checkout_requests_status_created", columnList = "status, created_at")
+})
+public class CheckoutRequest {
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    @TimeOrderedId
+    private String id;
+
+    // The TransactionRequestDTO as JSON
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private CheckoutStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "transaction_id", length = 36)
+    private String transactionId;
+
+    @Column(name = "error", length = MAX_ERROR_LENGTH)
+    private String error;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at", nullable = false)
+    private Date updatedAt;
+
+    public CheckoutRequest() {
+    }
+
+    public CheckoutRequest(String payload, Date createdAt) {
+        this.payload = payload;
+        this.status = CheckoutStatus.QUEUED;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+}
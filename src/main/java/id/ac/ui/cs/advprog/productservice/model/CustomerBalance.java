@@ -0,0 +1,44 @@
+package id.ac.ui.cs.advprog.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Running totals of one customer's transactions. Rows are only changed by relative UPDATEs in the
+ * transaction that changes the underlying transactions; {@code revision} is bumped by each of them,
+ * which lets in-memory copies tell a newer snapshot from an older one.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "customer_balances")
+public class CustomerBalance {
+
+    @Id
+    @Column(name = "customer_id")
+    private String customerId;
+
+    // Sum of totalAmount over the customer's transactions that are not cancelled
+    @Column(name = "total_spent", nullable = false)
+    private double totalSpent;
+
+    // Sum of the payment amounts of those same transactions
+    @Column(name = "total_paid", nullable = false)
+    private double totalPaid;
+
+    // Every transaction of the customer, cancelled ones included
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+
+    @Version
+    @Column(name = "revision", nullable = false)
+    private Long revision;
+
+    public CustomerBalance() {
+    }
+
+    public CustomerBalance(String customerId) {
+        this.customerId = customerId;
+    }
+}
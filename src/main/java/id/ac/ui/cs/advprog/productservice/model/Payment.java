@@ -1,5 +1,9 @@
 package id.ac.ui.cs.advprog.productservice.model;
 
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentLabelListener;
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentMethodConverter;
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentStatusConverter;
+import id.ac.ui.cs.advprog.productservice.model.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -9,11 +13,14 @@ import java.util.Date;
 @Getter
 @Setter
 @Entity
-@Table(name = "payments")
+@EntityListeners(PaymentLabelListener.class)
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_customer_created", columnList = "customer_id, created_at")
+})
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
     @Column(name = "customer_id", nullable = false)
@@ -22,10 +29,12 @@ public class Payment {
     @Column(name = "amount", nullable = false)
     private double amount;
 
-    @Column(name = "method", nullable = false)
+    @Convert(converter = PaymentMethodConverter.class)
+    @Column(name = "method_code", nullable = false)
     private String method;
 
-    @Column(name = "status", nullable = false)
+    @Convert(converter = PaymentStatusConverter.class)
+    @Column(name = "status_code", nullable = false)
     private String status;
 
     @Temporal(TemporalType.TIMESTAMP)
@@ -1,9 +1,14 @@
 package id.ac.ui.cs.advprog.productservice.model;
 
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentLabelListener;
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentMethodConverter;
+import id.ac.ui.cs.advprog.productservice.model.id.Ids;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -13,8 +18,28 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "transactions")
-public class Transaction {
+@EntityListeners(PaymentLabelListener.class)
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_customer_created", columnList = "customer_id, created_at"),
+        @Index(name = "idx_transactions_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_transactions_payment_method_created", columnList = "payment_method_code, created_at"),
+        @Index(name = "idx_transactions_created", columnList = "created_at, id"),
+        @Index(name = "idx_transactions_updated", columnList = "updated_at, id"),
+        @Index(name = "idx_transactions_total_amount", columnList = "total_amount, id"),
+        @Index(name = "idx_transactions_payment", columnList = "payment_id")
+})
+@NamedEntityGraph(
+        name = Transaction.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("payment"),
+                @NamedAttributeNode(value = "items", subgraph = "items.product")
+        },
+        subgraphs = @NamedSubgraph(name = "items.product", attributeNodes = @NamedAttributeNode("product"))
+)
+public class Transaction implements Persistable<String> {
+
+    // Everything TransactionDTO.fromTransaction touches, loaded in the same statement as the transaction
+    public static final String DETAIL_GRAPH = "Transaction.detail";
 
     @Id
     @Column(name = "id", length = 36)
@@ -29,7 +54,8 @@ public class Transaction {
     @Column(name = "total_amount", nullable = false)
     private double totalAmount;
 
-    @Column(name = "payment_method", nullable = false)
+    @Convert(converter = PaymentMethodConverter.class)
+    @Column(name = "payment_method_code", nullable = false)
     private String paymentMethod;
 
     @Enumerated(EnumType.STRING)
@@ -48,8 +74,15 @@ public class Transaction {
     @JoinColumn(name = "payment_id")
     private Payment payment;
 
+    // Ids are assigned up front, so Spring Data cannot tell a new transaction from a detached one by its id.
+    // Without this, save() merges: one SELECT for the transaction and one per cascaded item before any INSERT.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
     public Transaction() {
-        this.id = UUID.randomUUID().toString();
+        this.id = Ids.nextString();
         this.status = TransactionStatus.PENDING;
         this.createdAt = new Date();
         this.updatedAt = new Date();
@@ -60,6 +93,7 @@ public class Transaction {
         this.id = id;
         this.customerId = customerId;
         this.items = items != null ? items : new ArrayList<>();
+        this.items.forEach(item -> item.setTransaction(this));
         this.paymentMethod = paymentMethod;
         this.status = status;
         this.createdAt = new Date();
@@ -136,4 +170,15 @@ public class Transaction {
     protected void onUpdate() {
         updatedAt = new Date();
     }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        persisted = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
 }
\ No newline at end of file
@@ -1,16 +1,18 @@
 package id.ac.ui.cs.advprog.productservice.model;
 
+import id.ac.ui.cs.advprog.productservice.model.id.Ids;
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.UUID;
-
 @Getter
 @Setter
 @Entity
-@Table(name = "transaction_items")
+@Table(name = "transaction_items", indexes = {
+        @Index(name = "idx_transaction_items_transaction", columnList = "transaction_id"),
+        @Index(name = "idx_transaction_items_product", columnList = "product_id")
+})
 public class TransactionItem {
 
     @Id
@@ -32,11 +34,11 @@ public class TransactionItem {
     private Transaction transaction;
 
     public TransactionItem() {
-        this.id = UUID.randomUUID().toString();
+        this.id = Ids.nextString();
     }
 
     public TransactionItem(Product product, int quantity) {
-        this.id = UUID.randomUUID().toString();
+        this.id = Ids.nextString();
         this.product = product;
         this.quantity = quantity;
         this.subtotal = product.getPrice() * quantity;
@@ -2,11 +2,14 @@ package id.ac.ui.cs.advprog.productservice.model.builder;
 
 import id.ac.ui.cs.advprog.productservice.model.Transaction;
 import id.ac.ui.cs.advprog.productservice.model.TransactionItem;
+import id.ac.ui.cs.advprog.productservice.model.id.Ids;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 public class TransactionBuilder {
@@ -17,7 +20,7 @@ public class TransactionBuilder {
     private TransactionStatus status;
 
     public TransactionBuilder() {
-        this.id = UUID.randomUUID().toString();
+        this.id = Ids.nextString();
         this.status = TransactionStatus.PENDING;
     }
 
@@ -36,6 +39,22 @@ public class TransactionBuilder {
         return this;
     }
 
+    /**
+     * Adds an item per positive quantity, taking products from a map resolved up front
+     * (see {@code ProductService.getProductsByIds}) rather than looking each one up.
+     */
+    public TransactionBuilder withProductQuantities(Map<UUID, Integer> quantities, Map<UUID, Product> products) {
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() <= 0) continue;
+
+            Product product = products.get(entry.getKey());
+            if (product == null)
+                throw new NoSuchElementException("Product not found: " + entry.getKey());
+            this.items.add(new TransactionItem(product, entry.getValue()));
+        }
+        return this;
+    }
+
     public TransactionBuilder withItems(List<TransactionItem> items) {
         this.items.addAll(items);
         return this;
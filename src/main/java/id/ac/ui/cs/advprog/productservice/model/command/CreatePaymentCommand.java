@@ -22,4 +22,13 @@ public class CreatePaymentCommand implements PaymentCommand {
     public Payment getResult() {
         return this.createdPaymentResult;
     }
-}
\ No newline at end of file
+
+    // Used by PaymentInvoker when it inserts this payment as part of a coalesced batch
+    Payment getPayment() {
+        return this.paymentToCreate;
+    }
+
+    void setResult(Payment createdPayment) {
+        this.createdPaymentResult = createdPayment;
+    }
+}
@@ -1,12 +1,220 @@
 package id.ac.ui.cs.advprog.productservice.model.command;
 
-import lombok.Setter;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.service.PaymentServiceImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
-@Setter
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Command bus for payments. Commands are queued (at most {@code payments.command-bus.queue-capacity})
+ * and executed by {@code workers} threads. Each worker takes whatever is waiting, up to {@code max-batch},
+ * without waiting for more. A run of consecutive {@link CreatePaymentCommand}s in that batch is inserted
+ * through {@link PaymentServiceImpl#createPayments} in one transaction and one JDBC batch, so batches
+ * grow with load and an idle bus adds no latency. If a coalesced insert fails, its commands are retried
+ * one by one so only the bad payment fails. Queue depth and coalesced batch sizes are published as
+ * {@code payments.commands.queue_depth} and {@code payments.commands.batch_size}. {@link #run} waits at
+ * most {@code payments.command-bus.timeout} so a stalled worker cannot hold request threads indefinitely.
+ */
+@Component
 public class PaymentInvoker {
-    private PaymentCommand command;
 
-    public void run() {
-        command.execute();
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final PaymentServiceImpl service;
+    private final int maxBatch;
+    private final long timeoutMillis;
+    private final BlockingQueue<Pending<?>> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final DistributionSummary batchSize;
+    private volatile boolean running;
+
+    public PaymentInvoker(PaymentServiceImpl service,
+                          MeterRegistry meterRegistry,
+                          @Value("${payments.command-bus.queue-capacity:1024}") int queueCapacity,
+                          @Value("${payments.command-bus.workers:2}") int workerCount,
+                          @Value("${payments.command-bus.max-batch:50}") int maxBatch,
+                          @Value("${payments.command-bus.timeout:PT10S}") Duration timeout) {
+        this.service = service;
+        this.maxBatch = maxBatch;
+        this.timeoutMillis = timeout.toMillis();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("payments.commands.queue_depth", queue, BlockingQueue::size)
+                .description("Payment commands waiting for a worker")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("payments.commands.batch_size")
+                .description("Payments inserted per coalesced create batch")
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 1; i <= workerCount; i++) {
+            Thread worker = new Thread(this::drain, "PaymentCommandBus-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Queues the command; the future completes with the same command once it has executed, so
+     * results are read from it as before. Throws {@link RejectedExecutionException} when the queue is full.
+     */
+    public <C extends PaymentCommand> CompletableFuture<C> submit(C command) {
+        return enqueue(command).result();
+    }
+
+    /**
+     * Submits and waits, rethrowing the command's own exception. If the command is still queued when the
+     * timeout passes it is withdrawn and {@link RejectedExecutionException} is thrown, so it never runs;
+     * if a worker has already taken it, {@link CommandTimeoutException} is thrown and it may still complete.
+     */
+    public <C extends PaymentCommand> C run(C command) {
+        Pending<C> pending = enqueue(command);
+        try {
+            return pending.result().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                pending.result().completeExceptionally(e);
+                throw new RejectedExecutionException("Payment command timed out in the queue");
+            }
+            throw new CommandTimeoutException(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<Pending<?>> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result().completeExceptionally(
+                new RejectedExecutionException("Payment command bus stopped")));
+    }
+
+    private <C extends PaymentCommand> Pending<C> enqueue(C command) {
+        if (!running) {
+            throw new RejectedExecutionException("Payment command bus is not running");
+        }
+        Pending<C> pending = new Pending<>(command, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new RejectedExecutionException("Payment command queue is full");
+        }
+        return pending;
+    }
+
+    private void drain() {
+        List<Pending<?>> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Pending<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+            } catch (InterruptedException e) {
+                // Stopping: run what was already taken rather than dropping it
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                execute(batch);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    // Runs the batch in order, coalescing each run of consecutive creates
+    private void execute(List<Pending<?>> batch) {
+        List<Pending<?>> creates = new ArrayList<>();
+        for (Pending<?> pending : batch) {
+            if (pending.command() instanceof CreatePaymentCommand) {
+                creates.add(pending);
+                continue;
+            }
+            createAll(creates);
+            creates.clear();
+            executeOne(pending);
+        }
+        createAll(creates);
+    }
+
+    private void createAll(List<Pending<?>> creates) {
+        if (creates.isEmpty()) {
+            return;
+        }
+        if (creates.size() == 1) {
+            executeOne(creates.get(0));
+            return;
+        }
+        batchSize.record(creates.size());
+        List<Payment> created;
+        try {
+            created = service.createPayments(creates.stream()
+                    .map(pending -> ((CreatePaymentCommand) pending.command()).getPayment())
+                    .toList());
+        } catch (RuntimeException e) {
+            // The whole batch rolled back; retry each on its own so only the offending payment fails
+            creates.forEach(this::executeOne);
+            return;
+        }
+        for (int i = 0; i < creates.size(); i++) {
+            ((CreatePaymentCommand) creates.get(i).command()).setResult(created.get(i));
+            creates.get(i).complete();
+        }
+    }
+
+    private void executeOne(Pending<?> pending) {
+        try {
+            pending.command().execute();
+            pending.complete();
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    public static class CommandTimeoutException extends RuntimeException {
+        public CommandTimeoutException(long timeoutMillis) {
+            super("Payment command did not finish within " + timeoutMillis + " ms");
+        }
+    }
+
+    private record Pending<C extends PaymentCommand>(C command, CompletableFuture<C> result) {
+        void complete() {
+            result.complete(command);
+        }
     }
-}
\ No newline at end of file
+}
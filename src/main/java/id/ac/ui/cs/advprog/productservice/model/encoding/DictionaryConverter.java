@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import jakarta.persistence.AttributeConverter;
+
+import javax.sql.DataSource;
+
+/**
+ * Stores a string attribute as its {@link ValueDictionary} code. Hibernate creates converters through
+ * Spring, so subclasses get the {@link DataSource} injected; the attribute keeps its string type. The
+ * converter also binds query parameters, so it only reads the cached codes: a label nobody stored becomes
+ * {@link ValueDictionary#UNKNOWN} and matches nothing, without a database round trip.
+ * {@link PaymentLabelListener} assigns the codes of entities about to be written.
+ */
+public abstract class DictionaryConverter implements AttributeConverter<String, Short> {
+
+    private final ValueDictionary dictionary;
+
+    protected DictionaryConverter(DataSource dataSource, String name) {
+        this.dictionary = ValueDictionary.of(dataSource, name);
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String label) {
+        return label == null ? null : dictionary.lookup(label);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        return code == null ? null : dictionary.decode(code);
+    }
+}
@@ -0,0 +1,46 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * A row of {@code value_dictionary}. Mapped so the schema is generated with the others; entries are
+ * read and written by {@link ValueDictionary} over plain JDBC.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "value_dictionary", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_value_dictionary_label", columnNames = {"dictionary", "label"})
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class DictionaryEntry {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "label", nullable = false)
+    private String label;
+
+    @Getter
+    @Setter
+    @Embeddable
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "dictionary", length = 32, nullable = false)
+        private String dictionary;
+
+        @Column(name = "code", nullable = false)
+        private Short code;
+    }
+}
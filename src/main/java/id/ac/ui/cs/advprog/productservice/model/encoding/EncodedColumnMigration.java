@@ -0,0 +1,209 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves databases created before dictionary encoding from the VARCHAR columns {@code payments.status},
+ * {@code payments.method} and {@code transactions.payment_method} to their SMALLINT {@code *_code}
+ * columns. Must run before Hibernate validates or updates the schema. Each column is rewritten in one
+ * transaction: every distinct label gets its code (the fixed {@link PaymentStatus} code for statuses, a
+ * dictionary code for methods), the code column is filled, made NOT NULL, and the old column and its
+ * indexes are dropped, after which Hibernate recreates the indexes on the code columns. Statuses that an
+ * earlier version encoded through the dictionary are renumbered to the fixed codes. A fresh database, or
+ * one that was already migrated, is left untouched, so running this on every start is safe.
+ */
+public class EncodedColumnMigration {
+
+    static final String LEGACY_STATUS_DICTIONARY = "payment_status";
+
+    // A null dictionary stands for the fixed PaymentStatus codes
+    static final List<EncodedColumn> COLUMNS = List.of(
+            new EncodedColumn("payments", "status", "status_code", null, List.of()),
+            new EncodedColumn("payments", "method", "method_code", PaymentMethodConverter.DICTIONARY, List.of()),
+            new EncodedColumn("transactions", "payment_method", "payment_method_code",
+                    PaymentMethodConverter.DICTIONARY, List.of("idx_transactions_payment_method_created")));
+
+    private final DataSource dataSource;
+
+    public EncodedColumnMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // Returns how many columns were migrated
+    public int migrate() {
+        int migrated = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            for (EncodedColumn column : COLUMNS) {
+                if (!hasColumn(connection, column.table(), column.legacyColumn())) {
+                    continue;
+                }
+                ensureDictionaryTable(connection);
+                migrate(connection, column);
+                migrated++;
+            }
+            renumberDictionaryStatuses(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not migrate encoded columns", e);
+        }
+        return migrated;
+    }
+
+    /**
+     * Loads the payment method dictionary while no request holds a connection, so converters never go to
+     * the database for it. On a fresh database the table does not exist yet and there is nothing to load.
+     */
+    public void preloadDictionaries() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (hasTable(connection, "value_dictionary")) {
+                ValueDictionary.of(dataSource, PaymentMethodConverter.DICTIONARY).load(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load the value dictionaries", e);
+        }
+    }
+
+    private void migrate(Connection connection, EncodedColumn column) throws SQLException {
+        // Dictionary codes are committed on this connection, before the rewrite starts
+        Map<String, Short> codes = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT DISTINCT " + column.legacyColumn()
+                     + " FROM " + column.table() + " WHERE " + column.legacyColumn() + " IS NOT NULL")) {
+            while (rows.next()) {
+                codes.put(rows.getString(1), null);
+            }
+        }
+        for (Map.Entry<String, Short> entry : codes.entrySet()) {
+            entry.setValue(column.dictionary() == null
+                    ? PaymentStatus.valueOf(entry.getKey()).getCode()
+                    : ValueDictionary.of(dataSource, column.dictionary()).assign(connection, entry.getKey()));
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                if (!hasColumn(connection, column.table(), column.codeColumn())) {
+                    statement.execute("ALTER TABLE " + column.table() + " ADD COLUMN " + column.codeColumn() + " SMALLINT");
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement("UPDATE " + column.table()
+                    + " SET " + column.codeColumn() + " = ? WHERE " + column.legacyColumn() + " = ?")) {
+                for (Map.Entry<String, Short> entry : codes.entrySet()) {
+                    update.setShort(1, entry.getValue());
+                    update.setString(2, entry.getKey());
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+            try (Statement statement = connection.createStatement()) {
+                for (String index : column.legacyIndexes()) {
+                    statement.execute("DROP INDEX IF EXISTS " + index);
+                }
+                statement.execute("ALTER TABLE " + column.table() + " ALTER COLUMN " + column.codeColumn() + " SET NOT NULL");
+                statement.execute("ALTER TABLE " + column.table() + " DROP COLUMN " + column.legacyColumn());
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Statuses used to take dictionary codes in the order they were first seen
+    private static void renumberDictionaryStatuses(Connection connection) throws SQLException {
+        if (!hasTable(connection, "value_dictionary") || !hasColumn(connection, "payments", "status_code")) {
+            return;
+        }
+        Map<Short, Short> renumbered = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT code, label FROM value_dictionary WHERE dictionary = ?")) {
+            statement.setString(1, LEGACY_STATUS_DICTIONARY);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    renumbered.put(rows.getShort(1), PaymentStatus.valueOf(rows.getString(2)).getCode());
+                }
+            }
+        }
+        if (renumbered.isEmpty()) {
+            return;
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            // One statement, so swapped codes cannot collide halfway
+            StringBuilder update = new StringBuilder("UPDATE payments SET status_code = CASE status_code");
+            renumbered.forEach((from, to) -> update.append(" WHEN ").append(from).append(" THEN ").append(to));
+            update.append(" END WHERE status_code IN (");
+            update.append(String.join(", ", renumbered.keySet().stream().map(String::valueOf).toList()));
+            update.append(")");
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(update.toString());
+            }
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM value_dictionary WHERE dictionary = ?")) {
+                delete.setString(1, LEGACY_STATUS_DICTIONARY);
+                delete.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Same definition Hibernate generates from DictionaryEntry
+    private static void ensureDictionaryTable(Connection connection) throws SQLException {
+        if (hasTable(connection, "value_dictionary")) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE value_dictionary ("
+                    + "dictionary VARCHAR(32) NOT NULL, "
+                    + "code SMALLINT NOT NULL, "
+                    + "label VARCHAR(255) NOT NULL, "
+                    + "PRIMARY KEY (dictionary, code), "
+                    + "CONSTRAINT uk_value_dictionary_label UNIQUE (dictionary, label))");
+        }
+    }
+
+    private static boolean hasTable(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rows = metaData.getTables(null, connection.getSchema(), identifier(metaData, table), null)) {
+            return rows.next();
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rows = metaData.getColumns(null, connection.getSchema(),
+                identifier(metaData, table), identifier(metaData, column))) {
+            return rows.next();
+        }
+    }
+
+    // Unquoted names are folded to upper case by H2 and to lower case by PostgreSQL
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase();
+        }
+        return metaData.storesLowerCaseIdentifiers() ? name.toLowerCase() : name;
+    }
+
+    record EncodedColumn(String table, String legacyColumn, String codeColumn, String dictionary,
+                         List<String> legacyIndexes) {
+    }
+}
@@ -0,0 +1,43 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+import javax.sql.DataSource;
+
+/**
+ * Gives the payment method of a {@link Payment} or {@link Transaction} its dictionary code just before the
+ * entity is inserted or updated, in the transaction that writes it, so the lookup-only
+ * {@link DictionaryConverter} finds the code when the row is bound. A payment status outside
+ * {@link PaymentStatus} is rejected here rather than stored as an unknown code.
+ */
+public class PaymentLabelListener {
+
+    private final ValueDictionary methods;
+
+    public PaymentLabelListener(DataSource dataSource) {
+        this.methods = ValueDictionary.of(dataSource, PaymentMethodConverter.DICTIONARY);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void encodeLabels(Object entity) {
+        if (entity instanceof Payment payment) {
+            encode(payment.getMethod());
+            if (payment.getStatus() != null && !PaymentStatus.isValid(payment.getStatus())) {
+                throw new IllegalArgumentException("Invalid payment status: " + payment.getStatus());
+            }
+        } else if (entity instanceof Transaction transaction) {
+            encode(transaction.getPaymentMethod());
+        }
+    }
+
+    private void encode(String method) {
+        if (method != null) {
+            methods.encode(method);
+        }
+    }
+}
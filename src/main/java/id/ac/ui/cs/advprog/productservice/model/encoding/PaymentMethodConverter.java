@@ -0,0 +1,24 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import jakarta.persistence.Converter;
+
+import javax.sql.DataSource;
+import java.util.regex.Pattern;
+
+// Shared by Payment.method and Transaction.paymentMethod, which hold the same names
+@Converter
+public class PaymentMethodConverter extends DictionaryConverter {
+
+    public static final String DICTIONARY = "payment_method";
+
+    private static final Pattern LABEL_PATTERN = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_ -]{0,31}");
+
+    public PaymentMethodConverter(DataSource dataSource) {
+        super(dataSource, DICTIONARY);
+    }
+
+    // Every stored method name takes a dictionary code for good, so only well-formed names are accepted
+    public static boolean isValid(String method) {
+        return method != null && LABEL_PATTERN.matcher(method).matches();
+    }
+}
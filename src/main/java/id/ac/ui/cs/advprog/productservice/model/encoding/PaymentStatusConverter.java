@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a payment status as the fixed {@link PaymentStatus} code. The converter also binds query
+ * parameters, so a name that is not a status becomes {@link ValueDictionary#UNKNOWN} and matches nothing;
+ * {@link PaymentLabelListener} keeps such names from being written.
+ */
+@Converter
+public class PaymentStatusConverter implements AttributeConverter<String, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(String status) {
+        if (status == null) {
+            return null;
+        }
+        return PaymentStatus.isValid(status) ? PaymentStatus.valueOf(status).getCode() : ValueDictionary.UNKNOWN;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        return code == null ? null : PaymentStatus.fromCode(code).name();
+    }
+}
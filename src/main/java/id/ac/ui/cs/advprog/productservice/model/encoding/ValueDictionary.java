@@ -0,0 +1,231 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One dictionary of {@code value_dictionary}: a two-way mapping between the labels of an open-ended,
+ * low-cardinality column and the small codes stored in their place. There is one instance per data source
+ * and name ({@link #of}); it is loaded once, at startup by {@code EncodedColumnConfig}, and codes never
+ * change once assigned. {@link #lookup} only reads memory, so a label nobody stored costs no round trip.
+ * {@link #encode} assigns a missing code on the caller's transactional connection, so the code commits or
+ * rolls back with the row that needs it and other threads see it only after commit. A code assigned by
+ * another instance is picked up when {@link #decode} first meets it, again on the caller's connection.
+ */
+public class ValueDictionary {
+
+    /** Returned by {@link #lookup} for a label without a code; codes start at 1, so no row holds it. */
+    public static final short UNKNOWN = 0;
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Map<DataSource, Map<String, ValueDictionary>> INSTANCES = new ConcurrentHashMap<>();
+
+    private final DataSource dataSource;
+    private final String name;
+    private final Map<String, Short> codes = new ConcurrentHashMap<>();
+    private final Map<Short, String> labels = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    ValueDictionary(DataSource dataSource, String name) {
+        this.dataSource = dataSource;
+        this.name = name;
+    }
+
+    // Converters and listeners are created separately by Hibernate but must share one cache
+    public static ValueDictionary of(DataSource dataSource, String name) {
+        return INSTANCES.computeIfAbsent(dataSource, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, key -> new ValueDictionary(dataSource, key));
+    }
+
+    // Reads every committed code; connections are the caller's, this never opens one
+    public void load(Connection connection) throws SQLException {
+        Map<String, Short> uncommitted = pending();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT code, label FROM value_dictionary WHERE dictionary = ?")) {
+            statement.setString(1, name);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    if (!uncommitted.containsKey(rows.getString(2))) {
+                        remember(rows.getString(2), rows.getShort(1));
+                    }
+                }
+            }
+        }
+        loaded = true;
+    }
+
+    public short lookup(String label) {
+        if (!loaded) {
+            withCallersConnection(this::load);
+        }
+        Short code = codes.get(label);
+        if (code == null) {
+            code = pending().get(label);
+        }
+        return code == null ? UNKNOWN : code;
+    }
+
+    public short encode(String label) {
+        short code = lookup(label);
+        if (code != UNKNOWN) {
+            return code;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A code for '" + label + "' in dictionary " + name
+                    + " can only be assigned in the transaction that stores it");
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return assign(connection, label);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not assign a code to '" + label + "' in dictionary " + name, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    public String decode(short code) {
+        String label = labels.get(code);
+        if (label == null) {
+            label = pendingLabel(code);
+        }
+        if (label == null) {
+            // Assigned by another instance since we loaded
+            withCallersConnection(this::load);
+            label = labels.get(code);
+            if (label == null) {
+                throw new IllegalStateException("Unknown code " + code + " in dictionary " + name);
+            }
+        }
+        return label;
+    }
+
+    /**
+     * Returns the code of {@code label}, inserting it on {@code connection} if it has none. Inside a
+     * transaction the insert runs under a savepoint, so losing the race for a label or a code to another
+     * transaction only retries instead of failing the caller's transaction.
+     */
+    short assign(Connection connection, String label) throws SQLException {
+        SQLException lastFailure = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Short existing = select(connection, label);
+            if (existing != null) {
+                remember(label, existing);
+                return existing;
+            }
+            if (labels.size() >= Short.MAX_VALUE) {
+                throw new IllegalStateException("No codes left in dictionary " + name);
+            }
+            boolean inTransaction = !connection.getAutoCommit();
+            Savepoint savepoint = inTransaction ? connection.setSavepoint() : null;
+            try {
+                insert(connection, label);
+            } catch (SQLException e) {
+                if (savepoint != null) {
+                    connection.rollback(savepoint);
+                }
+                lastFailure = e;
+                continue;
+            }
+            short code = select(connection, label);
+            if (inTransaction) {
+                connection.releaseSavepoint(savepoint);
+                defer(label, code);
+            } else {
+                remember(label, code);
+            }
+            return code;
+        }
+        throw lastFailure;
+    }
+
+    private Short select(Connection connection, String label) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT code FROM value_dictionary WHERE dictionary = ? AND label = ?")) {
+            statement.setString(1, name);
+            statement.setString(2, label);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getShort(1) : null;
+            }
+        }
+    }
+
+    private void insert(Connection connection, String label) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO value_dictionary (dictionary, code, label) " +
+                        "SELECT CAST(? AS VARCHAR(32)), COALESCE(MAX(code), 0) + 1, CAST(? AS VARCHAR(255)) " +
+                        "FROM value_dictionary WHERE dictionary = ?")) {
+            statement.setString(1, name);
+            statement.setString(2, label);
+            statement.setString(3, name);
+            statement.executeUpdate();
+        }
+    }
+
+    private void remember(String label, short code) {
+        codes.put(label, code);
+        labels.put(code, label);
+    }
+
+    // Codes inserted by the current transaction are only published once it commits
+    private void defer(String label, short code) {
+        Map<String, Short> uncommitted = pending();
+        if (uncommitted.isEmpty()) {
+            Map<String, Short> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ValueDictionary.this);
+                    if (status == STATUS_COMMITTED) {
+                        created.forEach(ValueDictionary.this::remember);
+                    }
+                }
+            });
+            uncommitted = created;
+        }
+        uncommitted.put(label, code);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Short> pending() {
+        Object bound = TransactionSynchronizationManager.getResource(this);
+        return bound != null ? (Map<String, Short>) bound : Map.of();
+    }
+
+    private String pendingLabel(short code) {
+        for (Map.Entry<String, Short> entry : pending().entrySet()) {
+            if (entry.getValue() == code) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    // Uses the connection of the surrounding transaction, so a converter never holds two at once
+    private void withCallersConnection(ConnectionWork work) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            work.run(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load dictionary " + name, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private interface ConnectionWork {
+        void run(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,10 @@
+package id.ac.ui.cs.advprog.productservice.model.id;
+
+import java.util.UUID;
+
+/**
+ * Source of primary keys for entities that assign their own id. Implementations must be thread-safe.
+ */
+public interface IdGenerator {
+    UUID next();
+}
@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.productservice.model.id;
+
+import java.util.UUID;
+
+/**
+ * Entry point entities use to mint their ids. Entities are created with {@code new}, outside the
+ * Spring context, so the active generator is held here and swapped by {@code IdGeneratorConfig}.
+ */
+public final class Ids {
+
+    private static volatile IdGenerator generator = new UuidV7Generator();
+
+    private Ids() {
+    }
+
+    public static UUID next() {
+        return generator.next();
+    }
+
+    public static String nextString() {
+        return generator.next().toString();
+    }
+
+    public static IdGenerator current() {
+        return generator;
+    }
+
+    public static void use(IdGenerator idGenerator) {
+        generator = idGenerator;
+    }
+}
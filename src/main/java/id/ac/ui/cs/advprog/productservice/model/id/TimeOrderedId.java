@@ -0,0 +1,18 @@
+package id.ac.ui.cs.advprog.productservice.model.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a String id that Hibernate should fill from {@link Ids} on insert, for entities that are
+ * saved with a null id.
+ */
+@IdGeneratorType(IdsGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,24 @@
+package id.ac.ui.cs.advprog.productservice.model.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit millisecond timestamp followed by 74 random bits. Keys created
+ * close together sort close together, so inserts append to the right edge of the primary-key index
+ * instead of landing on random pages. The random bits come from {@link ThreadLocalRandom}, which has
+ * no shared state to contend on; these ids are unique, not unguessable.
+ */
+public class UuidV7Generator implements IdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC = 0x8000000000000000L;
+
+    @Override
+    public UUID next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificant = (System.currentTimeMillis() << 16) | VERSION_7 | (random.nextInt() & 0x0FFF);
+        long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | VARIANT_RFC;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -64,11 +64,7 @@ public class ProductController {
     // Get a single product
     @GetMapping("/{name}")
     public ResponseEntity<?> getProduct(@PathVariable String name) {
-        List<Product> products = productService.getAllProducts();
-        Product product = products.stream()
-                .filter(p -> p.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+        Product product = productService.getProductByName(name).orElse(null);
 
         if (product == null) {
             return ResponseEntity.notFound().build();
@@ -82,11 +78,7 @@ public class ProductController {
     public ResponseEntity<?> getProductById(@PathVariable String id) {
         try {
             UUID uuid = UUID.fromString(id);
-            List<Product> products = productService.getAllProducts();
-            Product product = products.stream()
-                    .filter(p -> p.getId().equals(uuid))
-                    .findFirst()
-                    .orElse(null);
+            Product product = productService.getCatalogProductById(uuid).orElse(null);
 
             if (product == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -99,6 +91,23 @@ public class ProductController {
         }
     }
 
+    // Get products in a category
+    @GetMapping("/category/{category}")
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
+        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    }
+
+    // Get products assigned to a supplier
+    @GetMapping("/supplier/{supplierId}")
+    public ResponseEntity<?> getProductsBySupplier(@PathVariable String supplierId) {
+        try {
+            UUID uuid = UUID.fromString(supplierId);
+            return ResponseEntity.ok(productService.getProductsBySupplierId(uuid));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid UUID format: " + supplierId);
+        }
+    }
+
     // Update an existing product
     @PutMapping("/edit/{name}")
     public CompletableFuture<ResponseEntity<?>> editProduct(@PathVariable String name,
@@ -0,0 +1,40 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.UUID;
+
+/**
+ * A stock movement taken in memory by the write-behind inventory and not yet applied to
+ * {@code product.stock}. Written in the transaction that caused it, so the journal holds exactly
+ * the committed movements; rows are deleted once their net delta has been flushed into the product.
+ */
+@Entity
+@Table(name = "inventory_journal", indexes = {
+        @Index(name = "idx_inventory_journal_product", columnList = "product_id")
+})
+@Getter @Setter
+@NoArgsConstructor
+public class InventoryJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    public InventoryJournalEntry(UUID productId, int delta) {
+        this.productId = productId;
+        this.delta = delta;
+    }
+}
@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.productservice.productmanagement.model;
 
+import id.ac.ui.cs.advprog.productservice.model.id.Ids;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,7 +11,11 @@ import org.hibernate.type.SqlTypes;
 import java.util.UUID;
 
 @Entity
-@Table(name = "\"product\"") 
+@Table(name = "\"product\"", indexes = {
+        @Index(name = "idx_product_name", columnList = "name"),
+        @Index(name = "idx_product_category", columnList = "category"),
+        @Index(name = "idx_product_supplier", columnList = "supplier_id")
+})
 @Getter @Setter
 @NoArgsConstructor
 public class Product {
@@ -31,10 +36,11 @@ public class Product {
     private double price;
     
     @JdbcTypeCode(SqlTypes.CHAR)
+    @Column(name = "supplier_id")
     private UUID supplierId; // Added supplier reference
 
     public Product(String name, String category, int stock, double price) {
-        this.id = UUID.randomUUID();
+        this.id = Ids.next();
         this.name = name;
         this.category = category;
         this.stock = stock;
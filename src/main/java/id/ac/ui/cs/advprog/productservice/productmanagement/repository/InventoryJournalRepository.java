@@ -0,0 +1,20 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.repository;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.InventoryJournalEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryJournalRepository extends JpaRepository<InventoryJournalEntry, Long> {
+
+    List<InventoryJournalEntry> findAllByOrderByIdAsc(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM InventoryJournalEntry j WHERE j.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,11 +1,58 @@
 package id.ac.ui.cs.advprog.productservice.productmanagement.repository;
 
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ProductRepository extends JpaRepository<Product, UUID> {
     Optional<Product> findByName(String name);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int decrementStock(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int incrementStock(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    // Targeted updates for edits: saving a loaded Product writes every column, including a stock value
+    // that concurrent reservations or the write-behind flush may already have moved past
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.category = :category, p.price = :price WHERE p.id = :id")
+    int updateDetails(@Param("id") UUID id, @Param("category") String category, @Param("price") double price);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = :stock WHERE p.id = :id")
+    int overwriteStock(@Param("id") UUID id, @Param("stock") int stock);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.supplierId = :supplierId WHERE p.id = :id")
+    int updateSupplier(@Param("id") UUID id, @Param("supplierId") UUID supplierId);
+
+    // ORDER BY on the CHAR id is InventoryService.LOCK_ORDER; callers pass ids sorted the same way
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    // Column stock plus the journaled movements not yet flushed into it, read in one statement
+    @Query("SELECT p.id AS productId, p.stock + COALESCE((SELECT SUM(j.delta) FROM InventoryJournalEntry j " +
+            "WHERE j.productId = p.id), 0) AS stock FROM Product p")
+    List<StockLevel> findAllStockLevels();
+
+    @Query("SELECT p.id AS productId, p.stock + COALESCE((SELECT SUM(j.delta) FROM InventoryJournalEntry j " +
+            "WHERE j.productId = p.id), 0) AS stock FROM Product p WHERE p.id = :id")
+    Optional<StockLevel> findStockLevel(@Param("id") UUID id);
+}
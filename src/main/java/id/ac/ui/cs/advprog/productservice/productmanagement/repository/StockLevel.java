@@ -0,0 +1,8 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.repository;
+
+import java.util.UUID;
+
+public interface StockLevel {
+    UUID getProductId();
+    Long getStock();
+}
@@ -0,0 +1,121 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Stock changes as single guarded UPDATE statements that join the caller's transaction.
+ * The database decides whether a reservation fits, so concurrent checkouts can neither
+ * oversell nor overwrite each other's decrement. With write-behind enabled the same calls go
+ * to {@link WriteBehindInventory} instead, and the product rows are only updated by its flush.
+ */
+@Service
+@Transactional
+public class InventoryService {
+
+    /**
+     * The one order product rows are locked in, everywhere. Ids are stored as CHAR, so this is the
+     * order of their string form, which {@code ORDER BY p.id} in {@link ProductRepository#findAllByIdForUpdate}
+     * also produces; {@link UUID#compareTo} compares signed longs and disagrees with it.
+     */
+    public static final Comparator<UUID> LOCK_ORDER = Comparator.comparing(UUID::toString);
+
+    private final ProductRepository repository;
+    private final ProductCatalog catalog;
+    private final WriteBehindInventory writeBehind;
+
+    public InventoryService(ProductRepository repository, ProductCatalog catalog, WriteBehindInventory writeBehind) {
+        this.repository = repository;
+        this.catalog = catalog;
+        this.writeBehind = writeBehind;
+    }
+
+    public boolean reserve(UUID productId, int quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        boolean reserved = writeBehind.isEnabled()
+                ? writeBehind.reserve(productId, quantity)
+                : repository.decrementStock(productId, quantity) == 1;
+        if (reserved) {
+            publishStockChange(productId, -quantity);
+        }
+        return reserved;
+    }
+
+    // Rows are locked in LOCK_ORDER so two multi-item checkouts cannot deadlock each other
+    public Map<UUID, Boolean> reserveAll(Map<UUID, Integer> quantities) {
+        Map<UUID, Boolean> results = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Integer> entry : inLockOrder(quantities).entrySet()) {
+            results.put(entry.getKey(), reserve(entry.getKey(), entry.getValue()));
+        }
+        return results;
+    }
+
+    // Same LOCK_ORDER as reserveAll, one statement per product
+    public void releaseAll(Map<UUID, Integer> quantities) {
+        for (Map.Entry<UUID, Integer> entry : inLockOrder(quantities).entrySet()) {
+            release(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Loads and write-locks the given products, in {@link #LOCK_ORDER} like {@link #reserveAll}, until
+     * the caller's transaction ends. Stock on the returned entities cannot change underneath the caller,
+     * so it can decide which of many orders fit before reserving their combined quantities at once.
+     */
+    public Map<UUID, Product> lockProducts(Collection<UUID> productIds) {
+        TreeSet<UUID> distinctIds = new TreeSet<>(LOCK_ORDER);
+        distinctIds.addAll(productIds);
+        List<UUID> sortedIds = new ArrayList<>(distinctIds);
+        Map<UUID, Product> products = new LinkedHashMap<>();
+        for (int from = 0; from < sortedIds.size(); from += ProductService.BULK_LOOKUP_CHUNK_SIZE) {
+            List<UUID> chunk = sortedIds.subList(from, Math.min(from + ProductService.BULK_LOOKUP_CHUNK_SIZE, sortedIds.size()));
+            for (Product product : repository.findAllByIdForUpdate(chunk)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    public void release(UUID productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        boolean released = writeBehind.isEnabled()
+                ? writeBehind.release(productId, quantity)
+                : repository.incrementStock(productId, quantity) == 1;
+        if (released) {
+            publishStockChange(productId, quantity);
+        }
+    }
+
+    static <V> Map<UUID, V> inLockOrder(Map<UUID, V> byProduct) {
+        Map<UUID, V> sorted = new TreeMap<>(LOCK_ORDER);
+        sorted.putAll(byProduct);
+        return sorted;
+    }
+
+    // Stock still available on a product the caller loaded; with write-behind the column lags the counters
+    public int availableStock(Product product) {
+        return writeBehind.isEnabled() ? writeBehind.available(product.getId()) : product.getStock();
+    }
+
+    // The catalog must not show stock the surrounding transaction may still roll back
+    private void publishStockChange(UUID productId, int delta) {
+        TransactionHooks.afterCommit(() -> catalog.adjustStock(productId, delta));
+    }
+}
@@ -0,0 +1,197 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copy-on-write, read-mostly view of the product table.
+ * Readers only dereference the current {@link Snapshot}; writers build a new one under a lock
+ * and publish it through a single volatile write, so lookups never block and never see a half-applied change.
+ * Stock changes on every checkout, so it is kept outside the snapshot in one atomic counter per product:
+ * {@link #adjustStock} touches only that counter, and the snapshot is rebuilt only when a product is added,
+ * removed or has its name, category, price or supplier changed. Lookups return copies carrying the counter's
+ * current value.
+ */
+@Component
+public class ProductCatalog {
+
+    private final ProductRepository repository;
+    private final Object writeLock = new Object();
+    private final Map<UUID, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot;
+
+    public ProductCatalog(ProductRepository repository) {
+        this.repository = repository;
+    }
+
+    public Optional<Product> findById(UUID id) {
+        return Optional.ofNullable(withStock(current().byId.get(id)));
+    }
+
+    public Optional<Product> findByName(String name) {
+        return Optional.ofNullable(withStock(current().byName.get(name)));
+    }
+
+    public List<Product> findByCategory(String category) {
+        return withStock(current().byCategory.getOrDefault(category, Collections.emptyList()));
+    }
+
+    public List<Product> findBySupplierId(UUID supplierId) {
+        return withStock(current().bySupplier.getOrDefault(supplierId, Collections.emptyList()));
+    }
+
+    public void put(Product product) {
+        Product copy = copyOf(product);
+        synchronized (writeLock) {
+            Product existing = current().byId.get(copy.getId());
+            if (existing == null || !sameDetails(existing, copy)) {
+                Map<UUID, Product> byId = new HashMap<>(current().byId);
+                byId.put(copy.getId(), copy);
+                snapshot = Snapshot.of(byId.values());
+            }
+            stock.computeIfAbsent(copy.getId(), id -> new AtomicInteger()).set(copy.getStock());
+        }
+    }
+
+    public void remove(UUID id) {
+        synchronized (writeLock) {
+            Map<UUID, Product> byId = new HashMap<>(current().byId);
+            if (byId.remove(id) != null) {
+                snapshot = Snapshot.of(byId.values());
+            }
+            stock.remove(id);
+        }
+    }
+
+    public void adjustStock(UUID id, int delta) {
+        current();
+        AtomicInteger level = stock.get(id);
+        if (level != null) {
+            level.addAndGet(delta);
+        }
+    }
+
+    public void reload() {
+        List<Product> products = repository.findAll();
+        synchronized (writeLock) {
+            publish(products);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (writeLock) {
+                if (snapshot == null) {
+                    publish(repository.findAll());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    // Caller holds writeLock
+    private void publish(List<Product> products) {
+        List<Product> copies = products.stream().map(ProductCatalog::copyOf).toList();
+        Map<UUID, Integer> levels = new HashMap<>();
+        copies.forEach(copy -> levels.put(copy.getId(), copy.getStock()));
+        stock.keySet().retainAll(levels.keySet());
+        levels.forEach((id, level) -> stock.computeIfAbsent(id, k -> new AtomicInteger()).set(level));
+        snapshot = Snapshot.of(copies);
+    }
+
+    private Product withStock(Product product) {
+        if (product == null) {
+            return null;
+        }
+        Product copy = copyOf(product);
+        AtomicInteger level = stock.get(product.getId());
+        if (level != null) {
+            copy.setStock(level.get());
+        }
+        return copy;
+    }
+
+    private List<Product> withStock(List<Product> products) {
+        return products.stream().map(this::withStock).toList();
+    }
+
+    private static boolean sameDetails(Product a, Product b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Double.compare(a.getPrice(), b.getPrice()) == 0
+                && Objects.equals(a.getSupplierId(), b.getSupplierId());
+    }
+
+    // Entities handed to the catalog may still be attached to a persistence context, so keep a private copy
+    private static Product copyOf(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setCategory(product.getCategory());
+        copy.setStock(product.getStock());
+        copy.setPrice(product.getPrice());
+        copy.setSupplierId(product.getSupplierId());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        private final Map<UUID, Product> byId;
+        private final Map<String, Product> byName;
+        private final Map<String, List<Product>> byCategory;
+        private final Map<UUID, List<Product>> bySupplier;
+
+        private Snapshot(Map<UUID, Product> byId, Map<String, Product> byName,
+                         Map<String, List<Product>> byCategory, Map<UUID, List<Product>> bySupplier) {
+            this.byId = byId;
+            this.byName = byName;
+            this.byCategory = byCategory;
+            this.bySupplier = bySupplier;
+        }
+
+        private static Snapshot of(Collection<Product> products) {
+            Map<UUID, Product> byId = new HashMap<>();
+            Map<String, Product> byName = new HashMap<>();
+            Map<String, List<Product>> byCategory = new HashMap<>();
+            Map<UUID, List<Product>> bySupplier = new HashMap<>();
+
+            for (Product product : products) {
+                byId.put(product.getId(), product);
+                byName.merge(product.getName(), product, Snapshot::lowerId);
+                if (product.getCategory() != null) {
+                    byCategory.computeIfAbsent(product.getCategory(), k -> new ArrayList<>()).add(product);
+                }
+                if (product.getSupplierId() != null) {
+                    bySupplier.computeIfAbsent(product.getSupplierId(), k -> new ArrayList<>()).add(product);
+                }
+            }
+
+            byCategory.replaceAll((k, v) -> List.copyOf(v));
+            bySupplier.replaceAll((k, v) -> List.copyOf(v));
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byName), Map.copyOf(byCategory), Map.copyOf(bySupplier));
+        }
+
+        // Names are not unique; the lowest id, in the database's unsigned UUID order, answers for all of them,
+        // so the choice does not depend on load order and passes to the next one when it is removed
+        private static Product lowerId(Product a, Product b) {
+            int byHigh = Long.compareUnsigned(a.getId().getMostSignificantBits(), b.getId().getMostSignificantBits());
+            int order = byHigh != 0 ? byHigh
+                    : Long.compareUnsigned(a.getId().getLeastSignificantBits(), b.getId().getLeastSignificantBits());
+            return order <= 0 ? a : b;
+        }
+    }
+}
@@ -2,10 +2,17 @@ package id.ac.ui.cs.advprog.productservice.productmanagement.service;
 
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
 import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -13,10 +20,16 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class ProductService {
 
+    static final int BULK_LOOKUP_CHUNK_SIZE = 500;
+
     private final ProductRepository repository;
+    private final ProductCatalog catalog;
+    private final WriteBehindInventory writeBehind;
 
-    public ProductService(ProductRepository repository) {
+    public ProductService(ProductRepository repository, ProductCatalog catalog, WriteBehindInventory writeBehind) {
         this.repository = repository;
+        this.catalog = catalog;
+        this.writeBehind = writeBehind;
     }
 
     @Async
@@ -24,11 +37,18 @@ public class ProductService {
         if (!confirmed || product.getPrice() <= 0) {
             return CompletableFuture.completedFuture(false);
         }
-        repository.save(product);
+        Product saved = repository.save(product);
+        catalog.put(saved);
+        writeBehind.track(saved);
         return CompletableFuture.completedFuture(true);
     }
 
+    /**
+     * Writes the edited details and stock in one transaction, so a failure between them cannot leave half
+     * an edit behind. The catalog only publishes the edit once it has committed.
+     */
     @Async
+    @Transactional
     public CompletableFuture<Boolean> editProduct(Product updatedProduct, boolean confirmed) {
         if (!confirmed) {
             return CompletableFuture.completedFuture(false);
@@ -37,12 +57,28 @@ public class ProductService {
         Optional<Product> existing = repository.findById(updatedProduct.getId());
         if (existing.isEmpty()) return CompletableFuture.completedFuture(false);
 
+        // Only the edited columns are written, so stock moved since the load is not overwritten
         Product product = existing.get();
+        UUID id = product.getId();
+        if (writeBehind.isEnabled()) {
+            // The column is owned by the write-behind flush; the new stock is journaled like any other movement
+            writeBehind.set(id, updatedProduct.getStock());
+        } else {
+            repository.overwriteStock(id, updatedProduct.getStock());
+        }
+        repository.updateDetails(id, updatedProduct.getCategory(), updatedProduct.getPrice());
+
         product.setCategory(updatedProduct.getCategory());
-        product.setStock(updatedProduct.getStock());
         product.setPrice(updatedProduct.getPrice());
-
-        repository.save(product);
+        if (!writeBehind.isEnabled()) {
+            product.setStock(updatedProduct.getStock());
+        }
+        TransactionHooks.afterCommit(() -> {
+            catalog.put(product);
+            if (writeBehind.isEnabled()) {
+                catalog.adjustStock(id, writeBehind.available(id) - product.getStock());
+            }
+        });
         return CompletableFuture.completedFuture(true);
     }
 
@@ -55,6 +91,8 @@ public class ProductService {
         Optional<Product> productToDelete = repository.findByName(name);
         if (productToDelete.isPresent()) {
             repository.delete(productToDelete.get());
+            catalog.remove(productToDelete.get().getId());
+            writeBehind.forget(productToDelete.get().getId());
             return CompletableFuture.completedFuture(true);
         }
         return CompletableFuture.completedFuture(false);
@@ -69,9 +107,42 @@ public class ProductService {
         }
     }
 
+    /**
+     * Resolves many products with one IN query per {@value #BULK_LOOKUP_CHUNK_SIZE} ids instead of a
+     * select per id. Ids with no product are simply absent from the returned map.
+     */
+    public Map<UUID, Product> getProductsByIds(Collection<UUID> ids) {
+        List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<UUID, Product> products = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += BULK_LOOKUP_CHUNK_SIZE) {
+            List<UUID> chunk = distinctIds.subList(from, Math.min(from + BULK_LOOKUP_CHUNK_SIZE, distinctIds.size()));
+            for (Product product : repository.findAllById(chunk)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
     public List<Product> getAllProducts() {
         return repository.findAll();
     }
+
+    // Catalog-backed lookups for read-only callers; use getProductById when a managed entity is needed
+    public Optional<Product> getCatalogProductById(UUID id) {
+        return catalog.findById(id);
+    }
+
+    public Optional<Product> getProductByName(String name) {
+        return catalog.findByName(name);
+    }
+
+    public List<Product> getProductsByCategory(String category) {
+        return catalog.findByCategory(category);
+    }
+
+    public List<Product> getProductsBySupplierId(UUID supplierId) {
+        return catalog.findBySupplierId(supplierId);
+    }
     
     @Async
     public CompletableFuture<Boolean> assignSupplierToProduct(UUID productId, UUID supplierId) {
@@ -81,8 +152,9 @@ public class ProductService {
         }
         
         Product product = productOpt.get();
+        repository.updateSupplier(productId, supplierId);
         product.setSupplierId(supplierId);
-        repository.save(product);
+        catalog.put(product);
         
         return CompletableFuture.completedFuture(true);
     }
@@ -0,0 +1,203 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+/**
+ * Per-product stock counters in primitive open-addressing tables keyed by the two longs of the
+ * product UUID, so a lookup or update allocates nothing. Keys are spread over a fixed number of
+ * stripes, each a separate table behind its own lock; checkouts of different products rarely meet
+ * on the same lock, and checkouts of the same product serialise on a monitor instead of a row lock.
+ */
+final class StockCounters {
+
+    static final int MISSING = Integer.MIN_VALUE;
+
+    // The stripe is picked from the top eight bits of the hash
+    private static final int MAX_STRIPES = 256;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    StockCounters(int stripes) {
+        int count = stripes <= 1 ? 1 : Math.min(MAX_STRIPES, Integer.highestOneBit(stripes - 1) << 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+    }
+
+    int get(long msb, long lsb) {
+        int hash = hash(msb, lsb);
+        return stripe(hash).get(msb, lsb, hash);
+    }
+
+    void put(long msb, long lsb, int stock) {
+        int hash = hash(msb, lsb);
+        stripe(hash).put(msb, lsb, hash, stock, true);
+    }
+
+    // Leaves an existing counter alone; returns the counter's value afterwards
+    int putIfAbsent(long msb, long lsb, int stock) {
+        int hash = hash(msb, lsb);
+        return stripe(hash).put(msb, lsb, hash, stock, false);
+    }
+
+    void remove(long msb, long lsb) {
+        int hash = hash(msb, lsb);
+        stripe(hash).remove(msb, lsb, hash);
+    }
+
+    /**
+     * Takes {@code quantity} off the counter if that leaves it non-negative. Returns the new value,
+     * or {@link #MISSING} when the product has no counter; a reservation that does not fit returns a
+     * negative value and leaves the counter unchanged.
+     */
+    int tryReserve(long msb, long lsb, int quantity) {
+        int hash = hash(msb, lsb);
+        return stripe(hash).tryReserve(msb, lsb, hash, quantity);
+    }
+
+    // Returns the new value, or MISSING when the product has no counter
+    int add(long msb, long lsb, int delta) {
+        int hash = hash(msb, lsb);
+        return stripe(hash).add(msb, lsb, hash, delta);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripe(int hash) {
+        // High bits pick the stripe, low bits the slot, so keys in one stripe still spread over its table
+        return stripes[(hash >>> 24) & stripeMask];
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static final class Stripe {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] msbs = new long[INITIAL_CAPACITY];
+        private long[] lsbs = new long[INITIAL_CAPACITY];
+        private int[] values = new int[INITIAL_CAPACITY];
+        private boolean[] used = new boolean[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized int get(long msb, long lsb, int hash) {
+            int slot = find(msb, lsb, hash);
+            return slot < 0 ? MISSING : values[slot];
+        }
+
+        synchronized int put(long msb, long lsb, int hash, int value, boolean overwrite) {
+            int slot = find(msb, lsb, hash);
+            if (slot >= 0) {
+                if (overwrite) {
+                    values[slot] = value;
+                }
+                return values[slot];
+            }
+            if ((size + 1) * 2 > used.length) {
+                resize();
+            }
+            insert(msb, lsb, hash, value);
+            size++;
+            return value;
+        }
+
+        synchronized int tryReserve(long msb, long lsb, int hash, int quantity) {
+            int slot = find(msb, lsb, hash);
+            if (slot < 0) {
+                return MISSING;
+            }
+            int remaining = values[slot] - quantity;
+            if (remaining >= 0) {
+                values[slot] = remaining;
+            }
+            return remaining;
+        }
+
+        synchronized int add(long msb, long lsb, int hash, int delta) {
+            int slot = find(msb, lsb, hash);
+            if (slot < 0) {
+                return MISSING;
+            }
+            values[slot] += delta;
+            return values[slot];
+        }
+
+        synchronized void remove(long msb, long lsb, int hash) {
+            int slot = find(msb, lsb, hash);
+            if (slot < 0) {
+                return;
+            }
+            // Backward-shift deletion keeps every remaining key reachable from its home slot without tombstones
+            int mask = used.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (used[next]) {
+                int home = hash(msbs[next], lsbs[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    msbs[hole] = msbs[next];
+                    lsbs[hole] = lsbs[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            used[hole] = false;
+            size--;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int find(long msb, long lsb, int hash) {
+            int mask = used.length - 1;
+            for (int slot = hash & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void insert(long msb, long lsb, int hash, int value) {
+            int mask = used.length - 1;
+            int slot = hash & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            msbs[slot] = msb;
+            lsbs[slot] = lsb;
+            values[slot] = value;
+        }
+
+        private void resize() {
+            long[] oldMsbs = msbs;
+            long[] oldLsbs = lsbs;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            int capacity = oldUsed.length * 2;
+            msbs = new long[capacity];
+            lsbs = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i]) {
+                    insert(oldMsbs[i], oldLsbs[i], hash(oldMsbs[i], oldLsbs[i]), oldValues[i]);
+                }
+            }
+        }
+    }
+}
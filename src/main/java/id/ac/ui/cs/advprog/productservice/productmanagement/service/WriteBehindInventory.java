@@ -0,0 +1,208 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.InventoryJournalEntry;
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.InventoryJournalRepository;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.StockLevel;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Write-behind stock ({@code inventory.write-behind.enabled}) for products whose row every checkout
+ * would otherwise update. The in-memory {@link StockCounters} are authoritative: reservations are
+ * checked and taken there, and each movement is appended to {@code inventory_journal} in the caller's
+ * transaction instead of updating {@code product.stock}. Every {@code inventory.write-behind.flush-interval}
+ * the journal is folded into the product table with one UPDATE per product. After a restart, counters
+ * are rebuilt as column stock plus the journal rows not yet flushed, so nothing committed is lost.
+ * Assumes this instance is the only one taking stock.
+ */
+@Component
+public class WriteBehindInventory {
+
+    private final ProductRepository productRepository;
+    private final InventoryJournalRepository journalRepository;
+    private final TransactionTemplate flushTransaction;
+    private final StockCounters counters;
+    private final boolean enabled;
+    private final int flushBatchSize;
+
+    public WriteBehindInventory(ProductRepository productRepository,
+                                InventoryJournalRepository journalRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${inventory.write-behind.enabled:false}") boolean enabled,
+                                @Value("${inventory.write-behind.stripes:64}") int stripes,
+                                @Value("${inventory.write-behind.flush-batch-size:5000}") int flushBatchSize) {
+        this.productRepository = productRepository;
+        this.journalRepository = journalRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.counters = new StockCounters(stripes);
+        this.enabled = enabled;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Counters missing at first use are loaded one by one, so this only saves those first lookups
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        for (StockLevel level : productRepository.findAllStockLevels()) {
+            UUID id = level.getProductId();
+            counters.putIfAbsent(id.getMostSignificantBits(), id.getLeastSignificantBits(), level.getStock().intValue());
+        }
+    }
+
+    /**
+     * Takes stock from the counter. The journal row is written in the caller's transaction, and the
+     * stock is given back to the counter if that transaction rolls back.
+     */
+    public boolean reserve(UUID productId, int quantity) {
+        long msb = productId.getMostSignificantBits();
+        long lsb = productId.getLeastSignificantBits();
+        int remaining = counters.tryReserve(msb, lsb, quantity);
+        if (remaining == StockCounters.MISSING) {
+            if (!loadCounter(productId)) {
+                return false;
+            }
+            remaining = counters.tryReserve(msb, lsb, quantity);
+        }
+        if (remaining < 0) {
+            return false;
+        }
+
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction) {
+            TransactionHooks.afterRollback(() -> counters.add(msb, lsb, quantity));
+        }
+        try {
+            journalRepository.save(new InventoryJournalEntry(productId, -quantity));
+        } catch (RuntimeException e) {
+            if (!inTransaction) {
+                counters.add(msb, lsb, quantity);
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    // Returned stock only becomes available to others once the caller's transaction commits
+    public boolean release(UUID productId, int quantity) {
+        long msb = productId.getMostSignificantBits();
+        long lsb = productId.getLeastSignificantBits();
+        if (counters.get(msb, lsb) == StockCounters.MISSING && !loadCounter(productId)) {
+            return false;
+        }
+        journalRepository.save(new InventoryJournalEntry(productId, quantity));
+        TransactionHooks.afterCommit(() -> counters.add(msb, lsb, quantity));
+        return true;
+    }
+
+    // Stock still available to reserve, 0 for an unknown product
+    public int available(UUID productId) {
+        long msb = productId.getMostSignificantBits();
+        long lsb = productId.getLeastSignificantBits();
+        int stock = counters.get(msb, lsb);
+        if (stock == StockCounters.MISSING) {
+            stock = loadCounter(productId) ? counters.get(msb, lsb) : 0;
+        }
+        return stock;
+    }
+
+    /**
+     * Stock set by hand, e.g. after a recount; journaled as the difference to the current counter. Like
+     * {@link #release}, the counter only moves by that difference once the journal row has committed.
+     */
+    public void set(UUID productId, int stock) {
+        long msb = productId.getMostSignificantBits();
+        long lsb = productId.getLeastSignificantBits();
+        if (counters.get(msb, lsb) == StockCounters.MISSING && !loadCounter(productId)) {
+            return;
+        }
+        int previous = counters.get(msb, lsb);
+        if (previous != StockCounters.MISSING && previous != stock) {
+            int delta = stock - previous;
+            journalRepository.save(new InventoryJournalEntry(productId, delta));
+            TransactionHooks.afterCommit(() -> counters.add(msb, lsb, delta));
+        }
+    }
+
+    public void track(Product product) {
+        if (enabled) {
+            counters.put(product.getId().getMostSignificantBits(), product.getId().getLeastSignificantBits(),
+                    product.getStock());
+        }
+    }
+
+    public void forget(UUID productId) {
+        if (enabled) {
+            counters.remove(productId.getMostSignificantBits(), productId.getLeastSignificantBits());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.write-behind.flush-interval:PT1S}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        Integer flushed;
+        do {
+            flushed = flushTransaction.execute(status -> flushBatch());
+        } while (flushed != null && flushed == flushBatchSize);
+    }
+
+    /**
+     * Folds up to {@code flush-batch-size} journal rows into the product table: one UPDATE per product
+     * with its net delta, in {@link InventoryService#LOCK_ORDER} like {@link InventoryService#reserveAll}, then deletes
+     * exactly the rows it read. Rows of transactions still in flight are left for the next run.
+     */
+    private int flushBatch() {
+        List<InventoryJournalEntry> entries = journalRepository.findAllByOrderByIdAsc(PageRequest.of(0, flushBatchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, Integer> netDeltas = new TreeMap<>(InventoryService.LOCK_ORDER);
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (InventoryJournalEntry entry : entries) {
+            netDeltas.merge(entry.getProductId(), entry.getDelta(), Integer::sum);
+            ids.add(entry.getId());
+        }
+        netDeltas.forEach((productId, delta) -> {
+            if (delta != 0) {
+                productRepository.incrementStock(productId, delta);
+            }
+        });
+        for (int from = 0; from < ids.size(); from += ProductService.BULK_LOOKUP_CHUNK_SIZE) {
+            journalRepository.deleteAllByIdIn(ids.subList(from, Math.min(from + ProductService.BULK_LOOKUP_CHUNK_SIZE, ids.size())));
+        }
+        return entries.size();
+    }
+
+    private boolean loadCounter(UUID productId) {
+        return productRepository.findStockLevel(productId)
+                .map(level -> {
+                    counters.putIfAbsent(productId.getMostSignificantBits(), productId.getLeastSignificantBits(),
+                            level.getStock().intValue());
+                    return true;
+                })
+                .orElse(false);
+    }
+}
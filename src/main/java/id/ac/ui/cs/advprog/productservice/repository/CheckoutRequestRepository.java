@@ -0,0 +1,47 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.enums.CheckoutStatus;
+import id.ac.ui.cs.advprog.productservice.model.CheckoutRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface CheckoutRequestRepository extends JpaRepository<CheckoutRequest, String> {
+
+    List<CheckoutRequest> findByStatusOrderByCreatedAtAscIdAsc(CheckoutStatus status, Pageable pageable);
+
+    // Claims a queued request for one worker; 0 means another worker (or instance) got it first
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CheckoutRequest c SET c.status = 'PROCESSING', c.attempts = c.attempts + 1, c.updatedAt = :now " +
+            "WHERE c.id = :id AND c.status = 'QUEUED' AND c.attempts = :attempts")
+    int claim(@Param("id") String id, @Param("attempts") int attempts, @Param("now") Date now);
+
+    // Records the outcome, only if the request is still held by the claim with this attempt number
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CheckoutRequest c SET c.status = :status, c.transactionId = :transactionId, " +
+            "c.error = :error, c.updatedAt = :now " +
+            "WHERE c.id = :id AND c.status = 'PROCESSING' AND c.attempts = :attempts")
+    int finish(@Param("id") String id, @Param("attempts") int attempts, @Param("status") CheckoutStatus status,
+               @Param("transactionId") String transactionId, @Param("error") String error, @Param("now") Date now);
+
+    // Hands requests whose worker died mid-way back to the queue, unless they have used up their attempts
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CheckoutRequest c SET c.status = 'QUEUED', c.updatedAt = :now " +
+            "WHERE c.status = 'PROCESSING' AND c.updatedAt < :claimedBefore AND c.attempts < :maxAttempts")
+    int requeueStale(@Param("claimedBefore") Date claimedBefore, @Param("maxAttempts") int maxAttempts,
+                     @Param("now") Date now);
+
+    // The rest fail for good, so a payload that keeps killing its worker cannot loop forever
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CheckoutRequest c SET c.status = 'FAILED', c.error = :error, c.updatedAt = :now " +
+            "WHERE c.status = 'PROCESSING' AND c.updatedAt < :claimedBefore AND c.attempts >= :maxAttempts")
+    int failStale(@Param("claimedBefore") Date claimedBefore, @Param("maxAttempts") int maxAttempts,
+                  @Param("error") String error, @Param("now") Date now);
+}
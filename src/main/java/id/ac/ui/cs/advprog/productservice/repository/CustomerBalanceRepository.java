@@ -0,0 +1,38 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.model.CustomerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerBalanceRepository extends JpaRepository<CustomerBalance, String> {
+
+    // Relative, so concurrent writers for one customer serialise on the row instead of overwriting each other
+    @Modifying
+    @Query("UPDATE CustomerBalance b SET b.totalSpent = b.totalSpent + :spent, b.totalPaid = b.totalPaid + :paid, " +
+            "b.transactionCount = b.transactionCount + :count, b.revision = b.revision + 1 " +
+            "WHERE b.customerId = :customerId")
+    int addTo(@Param("customerId") String customerId,
+              @Param("spent") double spent,
+              @Param("paid") double paid,
+              @Param("count") long count);
+
+    // Scalar read, so it sees the row as updated in this transaction whatever the persistence context holds
+    @Query("SELECT b.customerId AS customerId, b.totalSpent AS totalSpent, b.totalPaid AS totalPaid, " +
+            "b.transactionCount AS transactionCount, b.revision AS revision " +
+            "FROM CustomerBalance b WHERE b.customerId = :customerId")
+    Optional<CustomerBalanceSnapshot> findSnapshot(@Param("customerId") String customerId);
+
+    @Query("SELECT t.customerId AS customerId, " +
+            "SUM(CASE WHEN t.status = 'CANCELLED' THEN 0.0 ELSE t.totalAmount END) AS totalSpent, " +
+            "SUM(CASE WHEN t.status = 'CANCELLED' OR p.id IS NULL THEN 0.0 ELSE p.amount END) AS totalPaid, " +
+            "COUNT(t) AS transactionCount " +
+            "FROM Transaction t LEFT JOIN t.payment p GROUP BY t.customerId")
+    List<CustomerTotals> sumTransactionsByCustomer();
+}
@@ -0,0 +1,5 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+public interface CustomerBalanceSnapshot extends CustomerTotals {
+    Long getRevision();
+}
@@ -0,0 +1,8 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+public interface CustomerTotals {
+    String getCustomerId();
+    Double getTotalSpent();
+    Double getTotalPaid();
+    Long getTransactionCount();
+}
@@ -2,11 +2,19 @@ package id.ac.ui.cs.advprog.productservice.repository;
 
 import id.ac.ui.cs.advprog.productservice.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
+public interface PaymentRepository extends JpaRepository<Payment, String>, PaymentRepositoryCustom {
     List<Payment> findByCustomerId(String customerId);
+
+    // Single statement that reports how many rows it touched, so a missing payment shows up as 0
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Payment p WHERE p.id = :id")
+    int deletePaymentById(@Param("id") String id);
 }
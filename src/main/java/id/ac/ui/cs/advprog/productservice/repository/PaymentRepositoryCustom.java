@@ -0,0 +1,21 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.dto.PaymentCursor;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * The customer's next {@code limit} payments, newest first (ties broken by id), matching the
+     * optional status and method and starting strictly after {@code after} (or from the newest when it is null).
+     */
+    List<Payment> findHistoryAfter(String customerId, String status, String method, PaymentCursor after, int limit);
+
+    // Single statements that report how many rows they touched, so a missing payment shows up as 0
+    int updateStatus(String id, String status);
+
+    int updateStatusIn(Collection<String> ids, String status);
+}
@@ -0,0 +1,89 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.dto.PaymentCursor;
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Transactional so that decoding a method code this instance has not seen reuses the query's connection
+    @Override
+    @Transactional(readOnly = true)
+    public List<Payment> findHistoryAfter(String customerId, String status, String method, PaymentCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Payment> query = cb.createQuery(Payment.class);
+        Root<Payment> root = query.from(Payment.class);
+        Path<Date> createdAt = root.get("createdAt");
+        Path<String> id = root.get("id");
+
+        // Only the filters actually given become predicates, so the (customer_id, created_at) index drives the seek
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("customerId"), customerId));
+        if (status != null) {
+            predicates.add(cb.equal(root.get("status"), status));
+        }
+        if (method != null) {
+            predicates.add(cb.equal(root.get("method"), method));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(createdAt, after.getCreatedAt()),
+                    cb.and(cb.equal(createdAt, after.getCreatedAt()), cb.lessThan(id, after.getId()))));
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Bulk UPDATEs skip PaymentLabelListener, so the status is checked here before it is bound
+    @Override
+    @Transactional
+    public int updateStatus(String id, String status) {
+        requireValidStatus(status);
+        int updated = entityManager.createQuery("UPDATE Payment p SET p.status = :status WHERE p.id = :id")
+                .setParameter("id", id)
+                .setParameter("status", status)
+                .executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int updateStatusIn(Collection<String> ids, String status) {
+        requireValidStatus(status);
+        int updated = entityManager.createQuery("UPDATE Payment p SET p.status = :status WHERE p.id IN :ids")
+                .setParameter("ids", ids)
+                .setParameter("status", status)
+                .executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    private static void requireValidStatus(String status) {
+        if (!PaymentStatus.isValid(status)) {
+            throw new IllegalArgumentException("Invalid payment status: " + status);
+        }
+    }
+}
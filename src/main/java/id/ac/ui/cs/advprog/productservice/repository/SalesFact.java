@@ -0,0 +1,41 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.model.TransactionItem;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * The part of a transaction the sales rollups aggregate over, detached from the entity so it can be
+ * captured before a mutation and applied after commit.
+ */
+public record SalesFact(String transactionId, Date createdAt, double totalAmount, TransactionStatus status,
+                        String paymentMethod, long itemsSold) {
+
+    public static SalesFact of(Transaction transaction) {
+        long itemsSold = transaction.getItems().stream().mapToLong(TransactionItem::getQuantity).sum();
+        return new SalesFact(transaction.getId(), transaction.getCreatedAt(), transaction.getTotalAmount(),
+                transaction.getStatus(), transaction.getPaymentMethod(), itemsSold);
+    }
+
+    public SalesFact withStatus(TransactionStatus status) {
+        return new SalesFact(transactionId, createdAt, totalAmount, status, paymentMethod, itemsSold);
+    }
+
+    /**
+     * Whether both facts put the same transaction into the same buckets with the same amounts. Compares
+     * {@code createdAt} by instant, since facts read back from the database hold a {@code Timestamp}.
+     */
+    public boolean sameState(SalesFact other) {
+        return other != null
+                && Objects.equals(transactionId, other.transactionId)
+                && (createdAt == null ? other.createdAt == null
+                        : other.createdAt != null && createdAt.getTime() == other.createdAt.getTime())
+                && Double.compare(totalAmount, other.totalAmount) == 0
+                && status == other.status
+                && Objects.equals(paymentMethod, other.paymentMethod)
+                && itemsSold == other.itemsSold;
+    }
+}
@@ -2,38 +2,86 @@ package id.ac.ui.cs.advprog.productservice.repository;
 
 import id.ac.ui.cs.advprog.productservice.model.Transaction;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, String> {
+public interface TransactionRepository extends JpaRepository<Transaction, String>, TransactionRepositoryCustom {
 
+    String STREAM_FETCH_SIZE = "500";
+
+    @Override
+    @EntityGraph(Transaction.DETAIL_GRAPH)
+    Optional<Transaction> findById(String id);
+
+    @Override
+    @EntityGraph(Transaction.DETAIL_GRAPH)
+    List<Transaction> findAll();
+
+    @EntityGraph(Transaction.DETAIL_GRAPH)
+    List<Transaction> findByIdIn(Collection<String> ids);
+
+    // No fetch joins: row locks must not extend to the nullable side of an outer join
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id IN :ids ORDER BY t.id")
+    List<Transaction> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = :status, t.updatedAt = :updatedAt " +
+            "WHERE t.id IN :ids AND t.status IN :expected")
+    int updateStatus(@Param("ids") Collection<String> ids,
+                     @Param("expected") Collection<TransactionStatus> expected,
+                     @Param("status") TransactionStatus status,
+                     @Param("updatedAt") Date updatedAt);
+
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByCustomerId(String customerId);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByStatus(TransactionStatus status);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByPaymentMethod(String paymentMethod);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     @Query("SELECT t FROM Transaction t WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate")
     List<Transaction> findByDateRange(@Param("startDate") Date startDate, @Param("endDate") Date endDate);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByStatusIn(List<TransactionStatus> statuses);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByPaymentMethodIn(List<String> paymentMethods);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     @Query("SELECT t FROM Transaction t WHERE t.status = 'PENDING' OR t.status = 'IN_PROGRESS'")
     List<Transaction> findOngoingTransactions();
 
-    @Query("SELECT t FROM Transaction t WHERE t.id LIKE %:keyword% OR t.customerId LIKE %:keyword%")
-    List<Transaction> searchByKeyword(@Param("keyword") String keyword);
+    // Ids only, so the page becomes a real LIMIT instead of paging a fetch join in memory
+    @Query("SELECT t.id FROM Transaction t WHERE t.id LIKE %:keyword% OR t.customerId LIKE %:keyword% ORDER BY t.id")
+    List<String> searchIdsByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByCustomerIdAndStatus(String customerId, TransactionStatus status);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     @Query("SELECT t FROM Transaction t WHERE t.customerId = :customerId AND t.createdAt >= :startDate AND t.createdAt <= :endDate")
     List<Transaction> findByCustomerIdAndDateRange(
             @Param("customerId") String customerId,
@@ -41,6 +89,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
             @Param("endDate") Date endDate
     );
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     @Query("SELECT t FROM Transaction t " +
             "WHERE (:customerId IS NULL OR t.customerId = :customerId) " +
             "AND (:statuses IS NULL OR t.status IN :statuses) " +
@@ -55,18 +104,101 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
             @Param("endDate") Date endDate
     );
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
+    @Query("SELECT t FROM Transaction t " +
+            "WHERE (:customerId IS NULL OR t.customerId = :customerId) " +
+            "AND (:statuses IS NULL OR t.status IN :statuses) " +
+            "AND (:paymentMethods IS NULL OR t.paymentMethod IN :paymentMethods) " +
+            "AND (:startDate IS NULL OR t.createdAt >= :startDate) " +
+            "AND (:endDate IS NULL OR t.createdAt <= :endDate)")
+    List<Transaction> findTransactionsWithFilters(
+            @Param("customerId") String customerId,
+            @Param("statuses") List<TransactionStatus> statuses,
+            @Param("paymentMethods") List<String> paymentMethods,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            Sort sort
+    );
+
     long countByStatus(TransactionStatus status);
 
+    @Query("SELECT t.id AS id, t.customerId AS customerId FROM Transaction t")
+    List<TransactionSearchKey> findAllSearchKeys();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new id.ac.ui.cs.advprog.productservice.repository.SalesFact(" +
+            "t.id, t.createdAt, t.totalAmount, t.status, t.paymentMethod, COALESCE(SUM(i.quantity), 0L)) " +
+            "FROM Transaction t LEFT JOIN t.items i " +
+            "GROUP BY t.id, t.createdAt, t.totalAmount, t.status, t.paymentMethod")
+    Stream<SalesFact> streamSalesFacts();
+
+    @Query("SELECT new id.ac.ui.cs.advprog.productservice.repository.SalesFact(" +
+            "t.id, t.createdAt, t.totalAmount, t.status, t.paymentMethod, COALESCE(SUM(i.quantity), 0L)) " +
+            "FROM Transaction t LEFT JOIN t.items i WHERE t.id IN :ids " +
+            "GROUP BY t.id, t.createdAt, t.totalAmount, t.status, t.paymentMethod")
+    List<SalesFact> findSalesFacts(@Param("ids") Collection<String> ids);
+
+    // Cursor-backed variants for the streaming endpoint; callers must close the stream inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t ORDER BY t.id")
+    Stream<Transaction> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.customerId = :customerId ORDER BY t.id")
+    Stream<Transaction> streamByCustomerId(@Param("customerId") String customerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.status = :status ORDER BY t.id")
+    Stream<Transaction> streamByStatus(@Param("status") TransactionStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.paymentMethod = :paymentMethod ORDER BY t.id")
+    Stream<Transaction> streamByPaymentMethod(@Param("paymentMethod") String paymentMethod);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.createdAt >= :startDate AND t.createdAt <= :endDate ORDER BY t.id")
+    Stream<Transaction> streamByDateRange(@Param("startDate") Date startDate, @Param("endDate") Date endDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.id LIKE %:keyword% OR t.customerId LIKE %:keyword% ORDER BY t.id")
+    Stream<Transaction> streamByKeyword(@Param("keyword") String keyword);
+
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByCreatedAtAfter(Date date);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     List<Transaction> findByCreatedAtBefore(Date date);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     @Query("SELECT t FROM Transaction t WHERE t.totalAmount > :amount")
     List<Transaction> findByTotalAmountGreaterThan(@Param("amount") double amount);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     @Query("SELECT t FROM Transaction t WHERE t.totalAmount < :amount")
     List<Transaction> findByTotalAmountLessThan(@Param("amount") double amount);
 
+    @EntityGraph(Transaction.DETAIL_GRAPH)
     @Query("SELECT t FROM Transaction t WHERE t.totalAmount BETWEEN :minAmount AND :maxAmount")
     List<Transaction> findByTotalAmountBetween(@Param("minAmount") double minAmount, @Param("maxAmount") double maxAmount);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionCursor;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+
+import java.util.Date;
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Ids of the next {@code limit} transactions matching the filters, ordered by {@code sortField} then id,
+     * starting strictly after {@code after} (or from the beginning when it is null).
+     */
+    List<String> findFilteredIdsAfter(
+            String customerId,
+            List<TransactionStatus> statuses,
+            List<String> paymentMethods,
+            Date startDate,
+            Date endDate,
+            TransactionSortField sortField,
+            boolean descending,
+            TransactionCursor after,
+            int limit
+    );
+}
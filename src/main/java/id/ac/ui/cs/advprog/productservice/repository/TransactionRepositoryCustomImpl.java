@@ -0,0 +1,88 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionCursor;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<String> findFilteredIdsAfter(
+            String customerId,
+            List<TransactionStatus> statuses,
+            List<String> paymentMethods,
+            Date startDate,
+            Date endDate,
+            TransactionSortField sortField,
+            boolean descending,
+            TransactionCursor after,
+            int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        Path<String> id = root.get("id");
+        Path<?> sortPath = root.get(sortField.getAttribute());
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (customerId != null) {
+            predicates.add(cb.equal(root.get("customerId"), customerId));
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            predicates.add(root.get("status").in(statuses));
+        }
+        if (paymentMethods != null && !paymentMethods.isEmpty()) {
+            predicates.add(root.get("paymentMethod").in(paymentMethods));
+        }
+        if (startDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), startDate));
+        }
+        if (endDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), endDate));
+        }
+        if (after != null) {
+            predicates.add(keysetPredicate(cb, sortPath, id, descending, after));
+        }
+
+        query.select(id)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(descending
+                        ? List.of(cb.desc(sortPath), cb.desc(id))
+                        : List.of(cb.asc(sortPath), cb.asc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // (sort, id) < (lastSort, lastId) for descending pages, > for ascending, spelled out for index-friendly plans
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate keysetPredicate(CriteriaBuilder cb, Path<?> sortPath, Path<String> id,
+                                      boolean descending, TransactionCursor after) {
+        Path<Comparable> sort = (Path<Comparable>) sortPath;
+        Comparable value = after.getSortValue();
+        if (descending) {
+            return cb.or(
+                    cb.lessThan(sort, value),
+                    cb.and(cb.equal(sort, value), cb.lessThan(id, after.getId())));
+        }
+        return cb.or(
+                cb.greaterThan(sort, value),
+                cb.and(cb.equal(sort, value), cb.greaterThan(id, after.getId())));
+    }
+}
@@ -0,0 +1,6 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+public interface TransactionSearchKey {
+    String getId();
+    String getCustomerId();
+}
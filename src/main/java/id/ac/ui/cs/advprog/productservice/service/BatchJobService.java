@@ -0,0 +1,161 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.BatchResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.JobDTO;
+import id.ac.ui.cs.advprog.productservice.enums.JobStatus;
+import id.ac.ui.cs.advprog.productservice.model.id.Ids;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Runs batch complete/cancel requests in the background. Submitting returns a queued job at once;
+ * the ids are then processed in chunks on the dedicated {@code jobExecutor}, each chunk in its own
+ * database transaction, with progress visible through {@link #getJob}. Finished jobs are kept for
+ * {@code jobs.ttl} and then dropped.
+ */
+@Service
+public class BatchJobService {
+
+    public static final String BATCH_COMPLETE = "BATCH_COMPLETE";
+    public static final String BATCH_CANCEL = "BATCH_CANCEL";
+
+    private final TransactionService transactionService;
+    private final Executor jobExecutor;
+    private final int chunkSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BatchJobService(TransactionService transactionService,
+                           @Qualifier("jobExecutor") Executor jobExecutor,
+                           @Value("${jobs.batch.chunk-size:100}") int chunkSize,
+                           @Value("${jobs.ttl:PT1H}") Duration ttl) {
+        this(transactionService, jobExecutor, chunkSize, ttl, Clock.systemUTC());
+    }
+
+    BatchJobService(TransactionService transactionService, Executor jobExecutor, int chunkSize,
+                    Duration ttl, Clock clock) {
+        this.transactionService = transactionService;
+        this.jobExecutor = jobExecutor;
+        this.chunkSize = chunkSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    public JobDTO submitComplete(List<String> transactionIds) {
+        return submit(BATCH_COMPLETE, transactionIds, transactionService::batchCompleteTransactions);
+    }
+
+    public JobDTO submitCancel(List<String> transactionIds) {
+        return submit(BATCH_CANCEL, transactionIds, transactionService::batchCancelTransactions);
+    }
+
+    public Optional<JobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::snapshot);
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.cleanup-interval:PT1M}")
+    public void evictExpired() {
+        long now = clock.millis();
+        jobs.values().removeIf(job -> job.isExpired(now, ttlMillis));
+    }
+
+    private JobDTO submit(String type, List<String> transactionIds, Function<List<String>, BatchResultDTO> operation) {
+        List<String> ids = transactionIds.stream().filter(Objects::nonNull).distinct().toList();
+        Job job = new Job(Ids.nextString(), type, ids.size(), clock.millis());
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, ids, operation));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    private void run(Job job, List<String> ids, Function<List<String>, BatchResultDTO> operation) {
+        job.start(clock.millis());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            try {
+                // Called through the service proxy, so every chunk commits on its own
+                job.record(operation.apply(chunk));
+            } catch (RuntimeException e) {
+                job.fail(chunk, e.getMessage());
+            }
+        }
+        job.finish(clock.millis());
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String type;
+        private final int total;
+        private final long submittedAt;
+        private JobStatus status = JobStatus.QUEUED;
+        private long startedAt;
+        private long finishedAt;
+        private int completed;
+        private int processed;
+        private final Map<String, String> skipped = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+
+        Job(String id, String type, int total, long submittedAt) {
+            this.id = id;
+            this.type = type;
+            this.total = total;
+            this.submittedAt = submittedAt;
+        }
+
+        synchronized void start(long now) {
+            status = JobStatus.RUNNING;
+            startedAt = now;
+        }
+
+        synchronized void record(BatchResultDTO result) {
+            processed += result.getProcessedCount();
+            skipped.putAll(result.getSkipped());
+            completed += result.getProcessedCount() + result.getSkipped().size();
+        }
+
+        synchronized void fail(List<String> chunk, String message) {
+            errors.add("Chunk starting at " + chunk.get(0) + " failed: " + message);
+            chunk.forEach(id -> skipped.put(id, "Failed: " + message));
+            completed += chunk.size();
+        }
+
+        synchronized void finish(long now) {
+            status = errors.isEmpty() ? JobStatus.SUCCEEDED : JobStatus.FAILED;
+            finishedAt = now;
+        }
+
+        synchronized boolean isExpired(long now, long ttlMillis) {
+            return status.isFinished() && now - finishedAt >= ttlMillis;
+        }
+
+        synchronized JobDTO snapshot() {
+            return new JobDTO(id, type, status, total, completed, processed,
+                    new LinkedHashMap<>(skipped), List.copyOf(errors), new Date(submittedAt),
+                    status == JobStatus.QUEUED ? null : new Date(startedAt),
+                    status.isFinished() ? new Date(finishedAt) : null);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.BulkTransactionResponseDTO;
+import id.ac.ui.cs.advprog.productservice.dto.BulkTransactionResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.model.builder.TransactionBuilder;
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.service.InventoryService;
+import id.ac.ui.cs.advprog.productservice.repository.SalesFact;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Ingests backfilled orders in bulk. Records are validated up front, then written in chunks that
+ * each commit on their own: one locking read resolves every product the chunk references, orders
+ * are admitted against that stock in request order, and the admitted quantities are reserved with
+ * a single decrement per product. A record that is invalid or does not fit fails alone; a chunk
+ * that fails to commit fails only its own records.
+ */
+@Service
+public class BulkTransactionService {
+
+    private final InventoryService inventoryService;
+    private final TransactionRepository transactionRepository;
+    private final TransactionSearchIndex searchIndex;
+    private final SalesRollupService salesRollupService;
+    private final CustomerTransactionCache customerTransactionCache;
+    private final OngoingTransactionRegistry ongoingRegistry;
+    private final CustomerBalanceLedger balanceLedger;
+    private final EntityManager entityManager;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxRecords;
+
+    @Autowired
+    public BulkTransactionService(InventoryService inventoryService,
+                                  TransactionRepository transactionRepository,
+                                  TransactionSearchIndex searchIndex,
+                                  SalesRollupService salesRollupService,
+                                  CustomerTransactionCache customerTransactionCache,
+                                  OngoingTransactionRegistry ongoingRegistry,
+                                  CustomerBalanceLedger balanceLedger,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${transactions.bulk.chunk-size:200}") int chunkSize,
+                                  @Value("${transactions.bulk.max-records:10000}") int maxRecords) {
+        this.inventoryService = inventoryService;
+        this.transactionRepository = transactionRepository;
+        this.searchIndex = searchIndex;
+        this.salesRollupService = salesRollupService;
+        this.customerTransactionCache = customerTransactionCache;
+        this.ongoingRegistry = ongoingRegistry;
+        this.balanceLedger = balanceLedger;
+        this.entityManager = entityManager;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRecords = maxRecords;
+    }
+
+    // Lets streaming callers stop reading as soon as a request has too many records
+    public void requireWithinLimit(int records) {
+        if (records > maxRecords) {
+            throw new IllegalArgumentException("At most " + maxRecords + " records are accepted per request");
+        }
+    }
+
+    /**
+     * Creates a transaction for every acceptable record. {@code null} entries stand for records
+     * that could not be parsed and are reported as failed.
+     */
+    public BulkTransactionResponseDTO ingest(List<TransactionRequestDTO> requests) {
+        requireWithinLimit(requests.size());
+
+        BulkTransactionResultDTO[] results = new BulkTransactionResultDTO[requests.size()];
+        List<Order> orders = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            try {
+                orders.add(new Order(index, requests.get(index), TransactionServiceImpl.validate(requests.get(index))));
+            } catch (RuntimeException e) {
+                results[index] = BulkTransactionResultDTO.failed(index, e.getMessage());
+            }
+        }
+
+        for (int from = 0; from < orders.size(); from += chunkSize) {
+            List<Order> chunk = orders.subList(from, Math.min(from + chunkSize, orders.size()));
+            try {
+                List<Outcome> outcomes = chunkTransaction.execute(status -> writeChunk(chunk));
+                for (int i = 0; i < chunk.size(); i++) {
+                    int index = chunk.get(i).index();
+                    Outcome outcome = outcomes.get(i);
+                    results[index] = outcome.isCreated()
+                            ? BulkTransactionResultDTO.created(index, outcome.transaction().getId(), outcome.transaction().getStatus())
+                            : BulkTransactionResultDTO.failed(index, outcome.error().getMessage());
+                }
+            } catch (RuntimeException e) {
+                for (Order order : chunk) {
+                    results[order.index()] = BulkTransactionResultDTO.failed(order.index(),
+                            "Chunk rolled back: " + e.getMessage());
+                }
+            }
+        }
+
+        List<BulkTransactionResultDTO> resultList = Arrays.asList(results);
+        int created = (int) resultList.stream().filter(BulkTransactionResultDTO::isCreated).count();
+        return new BulkTransactionResponseDTO(requests.size(), created, requests.size() - created, resultList);
+    }
+
+    /**
+     * Creates all {@code requests} in one database transaction, the way {@link #ingest} writes a chunk,
+     * and returns one outcome per request in the same order. A request that is invalid or does not fit
+     * the remaining stock fails alone; if the commit itself fails, every request carries that error.
+     */
+    public List<Outcome> createAll(List<TransactionRequestDTO> requests) {
+        Outcome[] outcomes = new Outcome[requests.size()];
+        List<Order> orders = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            try {
+                orders.add(new Order(index, requests.get(index), TransactionServiceImpl.validate(requests.get(index))));
+            } catch (RuntimeException e) {
+                outcomes[index] = Outcome.failed(e);
+            }
+        }
+
+        if (!orders.isEmpty()) {
+            try {
+                List<Outcome> written = chunkTransaction.execute(status -> writeChunk(orders));
+                for (int i = 0; i < orders.size(); i++) {
+                    outcomes[orders.get(i).index()] = written.get(i);
+                }
+            } catch (RuntimeException e) {
+                orders.forEach(order -> outcomes[order.index()] = Outcome.failed(e));
+            }
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    // Outcomes are returned in chunk order
+    private List<Outcome> writeChunk(List<Order> chunk) {
+        Set<UUID> productIds = new LinkedHashSet<>();
+        chunk.forEach(order -> productIds.addAll(order.quantities().keySet()));
+        Map<UUID, Product> products = inventoryService.lockProducts(productIds);
+
+        Map<UUID, Integer> available = new HashMap<>();
+        products.forEach((id, product) -> available.put(id, inventoryService.availableStock(product)));
+        Map<UUID, Integer> reservations = new HashMap<>();
+
+        Outcome[] outcomes = new Outcome[chunk.size()];
+        List<Integer> admitted = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int position = 0; position < chunk.size(); position++) {
+            Order order = chunk.get(position);
+            RuntimeException rejection = checkAvailability(order.quantities(), products, available);
+            if (rejection != null) {
+                outcomes[position] = Outcome.failed(rejection);
+                continue;
+            }
+            order.quantities().forEach((productId, quantity) -> {
+                available.merge(productId, -quantity, Integer::sum);
+                reservations.merge(productId, quantity, Integer::sum);
+            });
+
+            Transaction transaction = new TransactionBuilder()
+                    .withCustomerId(order.request().getCustomerId())
+                    .withPaymentMethod(order.request().getPaymentMethod())
+                    .withProductQuantities(order.quantities(), products)
+                    .build();
+            // Cascades with the transaction, so payments are inserted in the same JDBC batches
+            transaction.setPayment(TransactionServiceImpl.settle(transaction, order.request()));
+            admitted.add(position);
+            transactions.add(transaction);
+        }
+
+        // The rows are locked, so every decrement fits; one statement per product for the whole chunk
+        inventoryService.reserveAll(reservations).forEach((productId, reserved) -> {
+            if (!Boolean.TRUE.equals(reserved))
+                throw new IllegalStateException("Not enough stock for product: " + products.get(productId).getName());
+        });
+
+        transactionRepository.saveAll(transactions);
+
+        String[] customerIds = new String[transactions.size()];
+        List<CustomerBalanceLedger.Contribution> balances = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            searchIndex.index(transaction.getId(), transaction.getCustomerId());
+            salesRollupService.record(null, SalesFact.of(transaction));
+            balances.add(CustomerBalanceLedger.Contribution.of(transaction));
+            ongoingRegistry.track(transaction);
+            customerIds[i] = transaction.getCustomerId();
+            outcomes[admitted.get(i)] = Outcome.created(TransactionDTO.fromTransaction(transaction));
+        }
+        // One relative UPDATE per customer for the whole chunk
+        balanceLedger.record(List.of(), balances);
+        customerTransactionCache.evict(customerIds);
+
+        // Keep the persistence context from growing across chunks of one request
+        entityManager.flush();
+        entityManager.clear();
+        return Arrays.asList(outcomes);
+    }
+
+    private static RuntimeException checkAvailability(Map<UUID, Integer> quantities, Map<UUID, Product> products,
+                                            Map<UUID, Integer> available) {
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                return new NoSuchElementException("Product not found: " + entry.getKey());
+            }
+            if (available.get(entry.getKey()) < entry.getValue()) {
+                return new IllegalStateException("Not enough stock for product: " + product.getName());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * What happened to one request of {@link #createAll}: the created transaction, or the error that
+     * rejected it.
+     */
+    public record Outcome(TransactionDTO transaction, RuntimeException error) {
+
+        static Outcome created(TransactionDTO transaction) {
+            return new Outcome(transaction, null);
+        }
+
+        static Outcome failed(RuntimeException error) {
+            return new Outcome(null, error);
+        }
+
+        public boolean isCreated() {
+            return transaction != null;
+        }
+    }
+
+    private record Order(int index, TransactionRequestDTO request, Map<UUID, Integer> quantities) {
+    }
+}
@@ -0,0 +1,188 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.productservice.dto.CheckoutStatusDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.enums.CheckoutStatus;
+import id.ac.ui.cs.advprog.productservice.model.CheckoutRequest;
+import id.ac.ui.cs.advprog.productservice.repository.CheckoutRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Asynchronous checkout. {@link #submit} only validates the order and stores it in the
+ * {@code checkout_requests} table, so the request thread never waits on stock updates or inserts.
+ * {@link #dispatch} polls that table and hands queued requests to at most {@code checkout.intake.workers}
+ * workers, which bounds the write rate however fast requests arrive. A worker creates the transaction
+ * and records the outcome in the same database transaction, so a request is turned into at most one
+ * transaction; requests whose worker died are queued again once {@code checkout.intake.lease} has passed.
+ * A request that failed on a transient database error (lock timeout, deadlock, lost connection) is queued
+ * again as well. Either way it gets at most {@code checkout.intake.max-attempts} claims before it is
+ * recorded as FAILED.
+ */
+@Service
+public class CheckoutIntakeService {
+
+    private static final String GAVE_UP = "Gave up after the worker stopped responding on every attempt";
+
+    private final CheckoutRequestRepository checkoutRequestRepository;
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor intakeExecutor;
+    private final Semaphore idleWorkers;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final Clock clock;
+
+    @Autowired
+    public CheckoutIntakeService(CheckoutRequestRepository checkoutRequestRepository,
+                                 TransactionService transactionService,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier("intakeExecutor") Executor intakeExecutor,
+                                 @Value("${checkout.intake.workers:4}") int workers,
+                                 @Value("${checkout.intake.lease:PT5M}") Duration lease,
+                                 @Value("${checkout.intake.max-attempts:5}") int maxAttempts) {
+        this(checkoutRequestRepository, transactionService, objectMapper, transactionManager, intakeExecutor,
+                workers, lease, maxAttempts, Clock.systemUTC());
+    }
+
+    CheckoutIntakeService(CheckoutRequestRepository checkoutRequestRepository, TransactionService transactionService,
+                          ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                          Executor intakeExecutor, int workers, Duration lease, int maxAttempts, Clock clock) {
+        this.checkoutRequestRepository = checkoutRequestRepository;
+        this.transactionService = transactionService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.intakeExecutor = intakeExecutor;
+        this.idleWorkers = new Semaphore(workers);
+        this.leaseMillis = lease.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.clock = clock;
+    }
+
+    public CheckoutStatusDTO submit(TransactionRequestDTO request) {
+        try {
+            TransactionServiceImpl.validate(request);
+        } catch (NoSuchElementException e) {
+            // An unparseable product id is a bad request here, not a missing resource
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        CheckoutRequest checkout = new CheckoutRequest(serialize(request), now());
+        return CheckoutStatusDTO.fromCheckoutRequest(checkoutRequestRepository.save(checkout));
+    }
+
+    public Optional<CheckoutStatusDTO> getStatus(String id) {
+        return checkoutRequestRepository.findById(id).map(CheckoutStatusDTO::fromCheckoutRequest);
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.intake.poll-interval:PT0.2S}")
+    public void dispatch() {
+        Date now = now();
+        Date claimedBefore = new Date(now.getTime() - leaseMillis);
+        transactionTemplate.executeWithoutResult(status -> {
+            checkoutRequestRepository.requeueStale(claimedBefore, maxAttempts, now);
+            checkoutRequestRepository.failStale(claimedBefore, maxAttempts, GAVE_UP, now);
+        });
+
+        int idle = idleWorkers.availablePermits();
+        if (idle == 0) {
+            return;
+        }
+        List<CheckoutRequest> queued = checkoutRequestRepository.findByStatusOrderByCreatedAtAscIdAsc(
+                CheckoutStatus.QUEUED, PageRequest.of(0, idle));
+        for (CheckoutRequest checkout : queued) {
+            if (!idleWorkers.tryAcquire()) {
+                return;
+            }
+            Integer claimed = transactionTemplate.execute(status ->
+                    checkoutRequestRepository.claim(checkout.getId(), checkout.getAttempts(), now));
+            if (claimed == null || claimed != 1) {
+                idleWorkers.release();
+                continue;
+            }
+
+            int attempt = checkout.getAttempts() + 1;
+            try {
+                intakeExecutor.execute(() -> {
+                    try {
+                        process(checkout.getId(), checkout.getPayload(), attempt);
+                    } finally {
+                        idleWorkers.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                idleWorkers.release();
+                transactionTemplate.executeWithoutResult(status -> checkoutRequestRepository.finish(
+                        checkout.getId(), attempt, CheckoutStatus.QUEUED, null, null, now()));
+                return;
+            }
+        }
+    }
+
+    void process(String id, String payload, int attempt) {
+        try {
+            TransactionRequestDTO request = objectMapper.readValue(payload, TransactionRequestDTO.class);
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionDTO transaction = transactionService.createTransaction(request);
+                if (checkoutRequestRepository.finish(id, attempt, CheckoutStatus.SUCCEEDED,
+                        transaction.getId(), null, now()) != 1) {
+                    throw new LostClaimException();
+                }
+            });
+        } catch (LostClaimException e) {
+            // The lease ran out and another worker owns the request now; our transaction was rolled back
+        } catch (TransientDataAccessException e) {
+            // Rolled back on a lock timeout, deadlock or similar; the same payload may well succeed next time
+            CheckoutStatus next = attempt < maxAttempts ? CheckoutStatus.QUEUED : CheckoutStatus.FAILED;
+            String error = next == CheckoutStatus.FAILED ? describe(e) : null;
+            transactionTemplate.executeWithoutResult(status -> checkoutRequestRepository.finish(
+                    id, attempt, next, null, error, now()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> checkoutRequestRepository.finish(
+                    id, attempt, CheckoutStatus.FAILED, null, describe(e), now()));
+        }
+    }
+
+    private String serialize(TransactionRequestDTO request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed record", e);
+        }
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > CheckoutRequest.MAX_ERROR_LENGTH
+                ? message.substring(0, CheckoutRequest.MAX_ERROR_LENGTH)
+                : message;
+    }
+
+    private Date now() {
+        return new Date(clock.millis());
+    }
+
+    private static final class LostClaimException extends RuntimeException {
+    }
+}
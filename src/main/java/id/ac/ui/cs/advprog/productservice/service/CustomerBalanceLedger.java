@@ -0,0 +1,189 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.CustomerBalanceDTO;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.CustomerBalance;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.repository.CustomerBalanceRepository;
+import id.ac.ui.cs.advprog.productservice.repository.CustomerBalanceSnapshot;
+import id.ac.ui.cs.advprog.productservice.repository.CustomerTotals;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-customer totals (spent, paid, outstanding, transaction count) kept in the {@code customer_balances}
+ * table and mirrored in memory. Write paths call {@link #record} inside their own transaction with the
+ * contribution of each transaction before and after the change; the ledger rows move in that same
+ * transaction, and the in-memory view takes the committed row snapshots after commit, keeping whichever
+ * revision is newest. A balance lookup is then a map read, falling back to one primary-key read.
+ */
+@Service
+public class CustomerBalanceLedger implements SmartInitializingSingleton {
+
+    private final CustomerBalanceRepository balanceRepository;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate backfillTransaction;
+    private final Map<String, Balance> view = new ConcurrentHashMap<>();
+
+    public CustomerBalanceLedger(CustomerBalanceRepository balanceRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.balanceRepository = balanceRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.backfillTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Replaces the {@code removed} contributions with the {@code added} ones. Must run inside the
+     * transaction that makes the change; customers are updated in ascending id order.
+     */
+    public void record(Collection<Contribution> removed, Collection<Contribution> added) {
+        Map<String, Delta> deltas = new TreeMap<>();
+        removed.forEach(contribution -> deltas.computeIfAbsent(contribution.customerId(), id -> new Delta())
+                .add(contribution, -1));
+        added.forEach(contribution -> deltas.computeIfAbsent(contribution.customerId(), id -> new Delta())
+                .add(contribution, 1));
+
+        List<CustomerBalanceSnapshot> snapshots = new ArrayList<>();
+        deltas.forEach((customerId, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            if (balanceRepository.addTo(customerId, delta.spent, delta.paid, delta.count) == 0) {
+                createRow(customerId);
+                if (balanceRepository.addTo(customerId, delta.spent, delta.paid, delta.count) != 1) {
+                    throw new IllegalStateException("Balance row missing for customer: " + customerId);
+                }
+            }
+            balanceRepository.findSnapshot(customerId).ifPresent(snapshots::add);
+        });
+        TransactionHooks.afterCommit(() -> snapshots.forEach(this::remember));
+    }
+
+    /**
+     * Pass {@code null} as {@code before} for a new transaction and as {@code after} for a deleted one.
+     */
+    public void record(Contribution before, Contribution after) {
+        record(before == null ? List.of() : List.of(before), after == null ? List.of() : List.of(after));
+    }
+
+    public CustomerBalanceDTO getBalance(String customerId) {
+        Balance balance = view.get(customerId);
+        if (balance == null) {
+            balance = balanceRepository.findSnapshot(customerId).map(this::remember).orElse(Balance.EMPTY);
+        }
+        return new CustomerBalanceDTO(customerId, balance.totalSpent(), balance.totalPaid(),
+                balance.totalSpent() - balance.totalPaid(), balance.transactionCount());
+    }
+
+    /**
+     * Runs once every singleton exists, before the web server and the schedulers start, so no write path
+     * can create a ledger row ahead of the backfill and make a non-empty ledger look complete.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfill();
+    }
+
+    /**
+     * Fills an empty ledger from the transactions table, e.g. on the first start after the ledger was
+     * introduced; returns how many customers were written. A ledger that already has rows is left alone,
+     * as is one that another instance starting at the same time filled first.
+     */
+    public int backfill() {
+        Integer written;
+        try {
+            written = backfillTransaction.execute(status -> sumIntoEmptyLedger());
+        } catch (DataIntegrityViolationException e) {
+            return 0;
+        }
+        return written == null ? 0 : written;
+    }
+
+    private int sumIntoEmptyLedger() {
+        if (balanceRepository.count() > 0) {
+            return 0;
+        }
+        List<CustomerBalance> balances = new ArrayList<>();
+        for (CustomerTotals totals : balanceRepository.sumTransactionsByCustomer()) {
+            CustomerBalance balance = new CustomerBalance(totals.getCustomerId());
+            balance.setTotalSpent(totals.getTotalSpent());
+            balance.setTotalPaid(totals.getTotalPaid());
+            balance.setTransactionCount(totals.getTransactionCount());
+            balances.add(balance);
+        }
+        balanceRepository.saveAll(balances);
+        return balances.size();
+    }
+
+    // Committed on its own so the caller's transaction can UPDATE it; losing the insert race is fine
+    private void createRow(String customerId) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!balanceRepository.existsById(customerId)) {
+                    balanceRepository.saveAndFlush(new CustomerBalance(customerId));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created the row first
+        }
+    }
+
+    private Balance remember(CustomerBalanceSnapshot snapshot) {
+        Balance balance = new Balance(snapshot.getTotalSpent(), snapshot.getTotalPaid(),
+                snapshot.getTransactionCount(), snapshot.getRevision());
+        return view.merge(snapshot.getCustomerId(), balance,
+                (current, next) -> next.revision() > current.revision() ? next : current);
+    }
+
+    /**
+     * What one transaction adds to its customer's balance. Cancelled transactions still count as
+     * transactions but no longer add to what was spent or paid.
+     */
+    public record Contribution(String customerId, double spent, double paid) {
+
+        public static Contribution of(Transaction transaction) {
+            if (transaction.getStatus() == TransactionStatus.CANCELLED) {
+                return new Contribution(transaction.getCustomerId(), 0, 0);
+            }
+            double paid = transaction.getPayment() != null ? transaction.getPayment().getAmount() : 0;
+            return new Contribution(transaction.getCustomerId(), transaction.getTotalAmount(), paid);
+        }
+
+        public Contribution cancelled() {
+            return new Contribution(customerId, 0, 0);
+        }
+    }
+
+    private static final class Delta {
+        private double spent;
+        private double paid;
+        private long count;
+
+        void add(Contribution contribution, int sign) {
+            spent += sign * contribution.spent();
+            paid += sign * contribution.paid();
+            count += sign;
+        }
+
+        boolean isZero() {
+            return spent == 0 && paid == 0 && count == 0;
+        }
+    }
+
+    private record Balance(double totalSpent, double totalPaid, long transactionCount, long revision) {
+        static final Balance EMPTY = new Balance(0, 0, 0, -1);
+    }
+}
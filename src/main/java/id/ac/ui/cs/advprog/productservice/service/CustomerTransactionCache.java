@@ -0,0 +1,133 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of a customer's transaction history, the payload behind
+ * {@code GET /api/transactions?customerId=}. Entries expire after a TTL and are evicted explicitly,
+ * after commit, by every write path that touches one of the customer's transactions.
+ * Publishes the standard Micrometer {@code cache.*} meters under {@code cache=customerTransactions}.
+ */
+@Component
+public class CustomerTransactionCache {
+
+    static final String CACHE_NAME = "customerTransactions";
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped by every invalidation; a load that overlapped one must not be stored, it may predate the write
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter explicitEvictions;
+
+    @Autowired
+    public CustomerTransactionCache(MeterRegistry meterRegistry,
+                                    @Value("${transactions.customer-cache.max-size:1000}") int maxSize,
+                                    @Value("${transactions.customer-cache.ttl:PT5M}") Duration ttl) {
+        this(meterRegistry, maxSize, ttl, Clock.systemUTC());
+    }
+
+    CustomerTransactionCache(MeterRegistry meterRegistry, int maxSize, Duration ttl, Clock clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+
+        this.hits = cacheCounter(meterRegistry, "cache.gets", "result", "hit");
+        this.misses = cacheCounter(meterRegistry, "cache.gets", "result", "miss");
+        this.sizeEvictions = cacheCounter(meterRegistry, "cache.evictions", "cause", "size");
+        this.expiredEvictions = cacheCounter(meterRegistry, "cache.evictions", "cause", "expired");
+        this.explicitEvictions = cacheCounter(meterRegistry, "cache.evictions", "cause", "explicit");
+        Gauge.builder("cache.size", this, CustomerTransactionCache::size)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    public List<TransactionDTO> get(String customerId, Supplier<List<TransactionDTO>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(customerId);
+            if (entry != null) {
+                if (clock.millis() < entry.expiresAt) {
+                    hits.increment();
+                    return entry.transactions;
+                }
+                entries.remove(customerId);
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        List<TransactionDTO> transactions = List.copyOf(loader.get());
+
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(customerId, new Entry(transactions, clock.millis() + ttlMillis));
+                evictOverflow();
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Drops the cached history of every given customer once the surrounding transaction commits.
+     */
+    public void evict(String... customerIds) {
+        // Evicting before commit would let a concurrent reader re-cache the pre-write rows
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                for (String customerId : customerIds) {
+                    if (customerId != null && entries.remove(customerId) != null) {
+                        explicitEvictions.increment();
+                    }
+                }
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, String name, String tagKey, String tagValue) {
+        return Counter.builder(name)
+                .tag("cache", CACHE_NAME)
+                .tag(tagKey, tagValue)
+                .register(registry);
+    }
+
+    private record Entry(List<TransactionDTO> transactions, long expiresAt) {
+    }
+}
@@ -0,0 +1,170 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional group commit for checkout ({@code transactions.group-commit.enabled}). Concurrent orders
+ * are queued and a flusher thread takes up to {@code max-batch} of them, waiting at most
+ * {@code max-wait} after the first one, and writes the whole group in one database transaction
+ * through {@link BulkTransactionService#createAll}. Each caller still gets its own result: an order
+ * that is invalid or out of stock fails alone, with the same exception the single-order path throws.
+ * Trades up to {@code max-wait} of added latency for one commit per group instead of one per order.
+ */
+@Component
+public class GroupCommitCheckout {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final BulkTransactionService bulkTransactionService;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue;
+    private final List<Thread> flushers = new ArrayList<>();
+    private final DistributionSummary groupSize;
+    private volatile boolean running;
+
+    public GroupCommitCheckout(BulkTransactionService bulkTransactionService,
+                               MeterRegistry meterRegistry,
+                               @Value("${transactions.group-commit.enabled:false}") boolean enabled,
+                               @Value("${transactions.group-commit.max-batch:32}") int maxBatch,
+                               @Value("${transactions.group-commit.max-wait:PT0.005S}") Duration maxWait,
+                               @Value("${transactions.group-commit.flushers:2}") int flusherCount) {
+        this.bulkTransactionService = bulkTransactionService;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = maxWait.toNanos();
+        // Enough for every flusher to have a full group waiting behind the one it is writing
+        this.queue = new ArrayBlockingQueue<>(maxBatch * flusherCount * 2);
+        this.groupSize = DistributionSummary.builder("transactions.group_commit.size")
+                .description("Orders written per group commit")
+                .register(meterRegistry);
+
+        if (enabled) {
+            running = true;
+            for (int i = 1; i <= flusherCount; i++) {
+                Thread flusher = new Thread(this::drain, "GroupCommit-" + i);
+                flusher.setDaemon(true);
+                flusher.start();
+                flushers.add(flusher);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the order for the next group commit and waits for its own result. Throws
+     * {@link RejectedExecutionException} when the queue is full.
+     */
+    public TransactionDTO createTransaction(TransactionRequestDTO request) {
+        try {
+            return submit(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    CompletableFuture<TransactionDTO> submit(TransactionRequestDTO request) {
+        if (!running) {
+            throw new RejectedExecutionException("Group commit is not running");
+        }
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new RejectedExecutionException("Group commit queue is full");
+        }
+        return pending.result();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        flushers.forEach(Thread::interrupt);
+        for (Thread flusher : flushers) {
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result().completeExceptionally(
+                new RejectedExecutionException("Group commit stopped")));
+    }
+
+    private void drain() {
+        List<Pending> group = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Stopping: write what was already taken rather than dropping it
+                Thread.currentThread().interrupt();
+            }
+            if (!group.isEmpty()) {
+                write(group);
+                group.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void write(List<Pending> group) {
+        groupSize.record(group.size());
+        try {
+            List<BulkTransactionService.Outcome> outcomes = bulkTransactionService.createAll(
+                    group.stream().map(Pending::request).toList());
+            for (int i = 0; i < group.size(); i++) {
+                BulkTransactionService.Outcome outcome = outcomes.get(i);
+                if (outcome.isCreated()) {
+                    group.get(i).result().complete(outcome.transaction());
+                } else {
+                    group.get(i).result().completeExceptionally(outcome.error());
+                }
+            }
+        } catch (RuntimeException e) {
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private record Pending(TransactionRequestDTO request, CompletableFuture<TransactionDTO> result) {
+    }
+}
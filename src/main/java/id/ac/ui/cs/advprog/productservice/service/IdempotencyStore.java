@@ -0,0 +1,170 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of create requests sent with an {@code Idempotency-Key} header so client
+ * retries are answered from memory instead of creating a second transaction or payment. A retry that
+ * arrives while the first attempt is still running waits for, and shares, that attempt's result.
+ * Only successful, non-null results are kept, for {@code idempotency.ttl}; a failed attempt can be
+ * retried with the same key. Bounded to {@code idempotency.max-size} keys, least recently used dropped first.
+ * Keys are chosen by clients, so each is scoped to the authenticated caller and the endpoint: two callers
+ * picking the same key never see each other's results.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<StoreKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${idempotency.max-size:10000}") int maxSize,
+                            @Value("${idempotency.ttl:PT24H}") Duration ttl) {
+        this(objectMapper, maxSize, ttl, Clock.systemUTC());
+    }
+
+    IdempotencyStore(ObjectMapper objectMapper, int maxSize, Duration ttl, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@code action} once per caller, {@code scope} and key. Later calls with the same key get the stored
+     * result; a call that reuses the key with a different request is rejected. Without a key the action
+     * simply runs.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, Object request, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        StoreKey storeKey = new StoreKey(principal(), scope, key);
+        String fingerprint = fingerprint(request);
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(storeKey);
+            if (entry != null && clock.millis() >= entry.expiresAt) {
+                entries.remove(storeKey);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                entries.put(storeKey, entry);
+                owner = true;
+                evictOverflow();
+            }
+        }
+
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new KeyReuseException(key);
+        }
+        if (!owner) {
+            return (T) await(entry.result);
+        }
+
+        try {
+            T result = action.get();
+            synchronized (this) {
+                if (result == null) {
+                    entries.remove(storeKey, entry);
+                } else {
+                    entry.expiresAt = clock.millis() + ttlMillis;
+                }
+            }
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(storeKey, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // In-flight entries are never evicted, or a retry could start a second execution
+    private void evictOverflow() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            if (eldest.next().result.isDone()) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "";
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private record StoreKey(String principal, String scope, String key) {
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private long expiresAt = Long.MAX_VALUE;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    public static class KeyReuseException extends RuntimeException {
+        public KeyReuseException(String key) {
+            super("Idempotency-Key " + key + " was already used for a different request");
+        }
+    }
+}
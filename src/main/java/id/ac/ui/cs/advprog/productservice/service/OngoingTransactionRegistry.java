@@ -0,0 +1,135 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PENDING and IN_PROGRESS transactions held in memory for the ops screens that poll
+ * {@code /ongoing}, {@code /pending} and {@code /in-progress}. Loaded once at startup and then kept
+ * current by the service's state transitions, applied after commit. Per-status sizes are also
+ * published as the {@code transactions.ongoing} gauge.
+ */
+@Component
+public class OngoingTransactionRegistry {
+
+    private static final Comparator<TransactionDTO> BY_CREATED_AT = Comparator
+            .comparing(TransactionDTO::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TransactionDTO::getId);
+
+    private final TransactionRepository transactionRepository;
+    private final Map<TransactionStatus, Map<String, TransactionDTO>> byStatus = new EnumMap<>(TransactionStatus.class);
+    private Set<String> changedDuringLoad;
+    private volatile boolean ready;
+
+    public OngoingTransactionRegistry(TransactionRepository transactionRepository, MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        for (TransactionStatus status : List.of(TransactionStatus.PENDING, TransactionStatus.IN_PROGRESS)) {
+            Map<String, TransactionDTO> transactions = new ConcurrentHashMap<>();
+            byStatus.put(status, transactions);
+            Gauge.builder("transactions.ongoing", transactions, Map::size)
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            changedDuringLoad = new HashSet<>();
+        }
+
+        List<TransactionDTO> ongoing = transactionRepository.findOngoingTransactions().stream()
+                .map(TransactionDTO::fromTransaction)
+                .toList();
+
+        synchronized (this) {
+            // A transition committed while we were reading is newer than the row we read
+            byStatus.values().forEach(transactions -> transactions.keySet().retainAll(changedDuringLoad));
+            for (TransactionDTO transaction : ongoing) {
+                if (!changedDuringLoad.contains(transaction.getId())) {
+                    put(transaction);
+                }
+            }
+            changedDuringLoad = null;
+            ready = true;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public static boolean isOngoing(TransactionStatus status) {
+        return status == TransactionStatus.PENDING || status == TransactionStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Records the transaction's current state once the surrounding transaction commits: tracked while
+     * it is PENDING or IN_PROGRESS, dropped as soon as it is anything else.
+     */
+    public void track(Transaction transaction) {
+        // Map now, while the entity is still attached
+        TransactionDTO snapshot = TransactionDTO.fromTransaction(transaction);
+        TransactionHooks.afterCommit(() -> apply(snapshot.getId(), snapshot));
+    }
+
+    public void untrack(String transactionId) {
+        TransactionHooks.afterCommit(() -> apply(transactionId, null));
+    }
+
+    public List<TransactionDTO> getOngoing() {
+        return byStatus.values().stream()
+                .flatMap(transactions -> transactions.values().stream())
+                .sorted(BY_CREATED_AT)
+                .toList();
+    }
+
+    public List<TransactionDTO> getByStatus(TransactionStatus status) {
+        Map<String, TransactionDTO> transactions = byStatus.get(status);
+        if (transactions == null) {
+            return List.of();
+        }
+        return transactions.values().stream()
+                .sorted(BY_CREATED_AT)
+                .toList();
+    }
+
+    public Map<TransactionStatus, Long> countByStatus() {
+        Map<TransactionStatus, Long> counts = new EnumMap<>(TransactionStatus.class);
+        byStatus.forEach((status, transactions) -> counts.put(status, (long) transactions.size()));
+        return counts;
+    }
+
+    private synchronized void apply(String transactionId, TransactionDTO transaction) {
+        if (changedDuringLoad != null) {
+            changedDuringLoad.add(transactionId);
+        }
+        byStatus.values().forEach(transactions -> transactions.remove(transactionId));
+        if (transaction != null && isOngoing(transaction.getStatus())) {
+            put(transaction);
+        }
+    }
+
+    private void put(TransactionDTO transaction) {
+        Map<String, TransactionDTO> transactions = byStatus.get(transaction.getStatus());
+        if (transactions != null) {
+            transactions.put(transaction.getId(), transaction);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package id.ac.ui.cs.advprog.productservice.service;
 
+import id.ac.ui.cs.advprog.productservice.dto.PaymentPageDTO;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PaymentService {
     Payment createPayment(Payment payment);
     Payment getPaymentById(String paymentId);
     List<Payment> getPaymentsByCustomerId(String customerId);
+    PaymentPageDTO getPaymentHistory(String customerId, String status, String method, String cursor, int size);
     void updatePaymentStatus(String paymentId, String status);
+    int updatePaymentStatuses(Collection<String> paymentIds, String status);
     void deletePayment(String paymentId);
 }
@@ -1,15 +1,25 @@
 package id.ac.ui.cs.advprog.productservice.service;
 
+import id.ac.ui.cs.advprog.productservice.dto.PaymentCursor;
+import id.ac.ui.cs.advprog.productservice.dto.PaymentPageDTO;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
 import id.ac.ui.cs.advprog.productservice.repository.PaymentRepository;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
 
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int STATUS_CHUNK_SIZE = 500;
+    private static final String PAYMENT_NOT_FOUND_MSG = "Payment not found with id: ";
+
     private final PaymentRepository repository;
 
     public PaymentServiceImpl(PaymentRepository repository) {
@@ -22,10 +32,20 @@ public class PaymentServiceImpl implements PaymentService {
         return repository.save(payment);
     }
 
+    /**
+     * Inserts the payments in one transaction; with {@code hibernate.jdbc.batch_size} set the INSERTs
+     * go out as JDBC batches. Returns the saved payments in the order given.
+     */
+    @Transactional
+    public List<Payment> createPayments(List<Payment> payments) {
+        payments.forEach(payment -> payment.setId(null));
+        return repository.saveAll(payments);
+    }
+
     @Override
     public Payment getPaymentById(String paymentId) {
         return repository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
+                .orElseThrow(() -> new NoSuchElementException(PAYMENT_NOT_FOUND_MSG + paymentId));
     }
 
     @Override
@@ -34,17 +54,50 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    public PaymentPageDTO getPaymentHistory(String customerId, String status, String method, String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+
+        PaymentCursor after = cursor != null && !cursor.isEmpty() ? PaymentCursor.decode(cursor) : null;
+
+        // One extra row tells whether another page follows without a count query
+        List<Payment> payments = repository.findHistoryAfter(customerId, status, method, after, size + 1);
+        boolean hasMore = payments.size() > size;
+        List<Payment> page = hasMore ? payments.subList(0, size) : payments;
+
+        String nextCursor = hasMore ? PaymentCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new PaymentPageDTO(page, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional
     public void updatePaymentStatus(String paymentId, String status) {
-        Payment payment = repository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
-        payment.setStatus(status);
-        repository.save(payment);
+        if (repository.updateStatus(paymentId, status) == 0) {
+            throw new NoSuchElementException(PAYMENT_NOT_FOUND_MSG + paymentId);
+        }
+    }
+
+    /**
+     * Sets the status of every listed payment with one UPDATE per {@value #STATUS_CHUNK_SIZE} ids, all in
+     * one transaction. Ids are deduplicated and sorted so concurrent bulk updates lock rows in the same
+     * order. Unknown ids are ignored; returns how many payments were updated.
+     */
+    @Override
+    @Transactional
+    public int updatePaymentStatuses(Collection<String> paymentIds, String status) {
+        List<String> ids = List.copyOf(new TreeSet<>(paymentIds));
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += STATUS_CHUNK_SIZE) {
+            updated += repository.updateStatusIn(ids.subList(from, Math.min(from + STATUS_CHUNK_SIZE, ids.size())), status);
+        }
+        return updated;
     }
 
     @Override
+    @Transactional
     public void deletePayment(String paymentId) {
-        Payment payment = repository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + paymentId));
-        repository.delete(payment);
+        if (repository.deletePaymentById(paymentId) == 0) {
+            throw new NoSuchElementException(PAYMENT_NOT_FOUND_MSG + paymentId);
+        }
     }
 }
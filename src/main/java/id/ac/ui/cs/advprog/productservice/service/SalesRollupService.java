@@ -0,0 +1,307 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.SalesStatsDTO;
+import id.ac.ui.cs.advprog.productservice.enums.SalesGranularity;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.repository.SalesFact;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Hourly and daily sales buckets kept up to date from the transaction write paths. Every mutation
+ * subtracts the transaction's previous contribution and adds its new one after commit, so a range
+ * query sums buckets instead of scanning transactions. {@link #rebuild()} recomputes everything from
+ * the transactions table at startup, nightly, and on demand.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final int REPLAY_CHUNK_SIZE = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final ZoneId zone;
+
+    // Writers share the read lock (buckets synchronise themselves); only the rebuild swap is exclusive
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Rollups rollups = new Rollups();
+    private Queue<SalesFact[]> changesDuringRebuild;
+
+    @Autowired
+    public SalesRollupService(TransactionRepository transactionRepository,
+                              PlatformTransactionManager transactionManager) {
+        this(transactionRepository, transactionManager, ZoneId.systemDefault());
+    }
+
+    SalesRollupService(TransactionRepository transactionRepository,
+                       PlatformTransactionManager transactionManager,
+                       ZoneId zone) {
+        this.transactionRepository = transactionRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.zone = zone;
+    }
+
+    /**
+     * Replaces {@code before} with {@code after} once the surrounding transaction commits.
+     * Pass {@code null} as {@code before} for a new transaction and as {@code after} for a deleted one.
+     */
+    public void record(SalesFact before, SalesFact after) {
+        TransactionHooks.afterCommit(() -> apply(before, after));
+    }
+
+    public List<SalesStatsDTO> getBuckets(Date start, Date end, SalesGranularity granularity) {
+        validateRange(start, end);
+        ZonedDateTime from = truncate(start, granularity.getUnit());
+        ConcurrentSkipListMap<Long, Bucket> buckets = granularity == SalesGranularity.DAY ? rollups.daily : rollups.hourly;
+
+        return buckets.subMap(from.toInstant().toEpochMilli(), true, end.getTime(), false).entrySet().stream()
+                .map(entry -> {
+                    ZonedDateTime bucketStart = Instant.ofEpochMilli(entry.getKey()).atZone(zone);
+                    Bucket total = new Bucket();
+                    entry.getValue().addTo(total);
+                    return total.toDTO(bucketStart, bucketStart.plus(1, granularity.getUnit()));
+                })
+                .toList();
+    }
+
+    /**
+     * Totals for every hour that overlaps [start, end). Whole days inside the range are read from the
+     * daily buckets and only the ragged edges from the hourly ones.
+     */
+    public SalesStatsDTO getSummary(Date start, Date end) {
+        validateRange(start, end);
+        ZonedDateTime from = truncate(start, ChronoUnit.HOURS);
+        ZonedDateTime to = truncate(end, ChronoUnit.HOURS);
+        if (to.toInstant().isBefore(end.toInstant())) {
+            to = to.plusHours(1);
+        }
+
+        ZonedDateTime firstDay = from.truncatedTo(ChronoUnit.DAYS);
+        if (firstDay.isBefore(from)) {
+            firstDay = firstDay.plusDays(1);
+        }
+        ZonedDateTime lastDay = to.truncatedTo(ChronoUnit.DAYS);
+
+        Rollups current = rollups;
+        Bucket total = new Bucket();
+        if (firstDay.isBefore(lastDay)) {
+            sum(current.hourly, from, firstDay, total);
+            sum(current.daily, firstDay, lastDay, total);
+            sum(current.hourly, lastDay, to, total);
+        } else {
+            sum(current.hourly, from, to, total);
+        }
+        return total.toDTO(from, to);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${sales.rollup.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Recomputes all buckets from the transactions table and returns how many transactions were read.
+     * The replay queue is installed before the scan's snapshot is taken, so every change committed after
+     * that snapshot is queued; changes committed just before it may be queued as well. The scan runs in
+     * one repeatable-read transaction, and before the swap the same snapshot is asked for the state it
+     * holds of each queued transaction. A queued change is replayed only onto the state it started from,
+     * so changes the scan already includes are skipped instead of counted twice.
+     */
+    public long rebuild() {
+        swapLock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Rollups rebuilt = new Rollups();
+        AtomicLong transactions = new AtomicLong();
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                try (Stream<SalesFact> facts = transactionRepository.streamSalesFacts()) {
+                    facts.forEach(fact -> {
+                        add(rebuilt, fact, 1);
+                        transactions.incrementAndGet();
+                    });
+                }
+
+                swapLock.writeLock().lock();
+                try {
+                    replay(rebuilt, changesDuringRebuild);
+                    rollups = rebuilt;
+                } finally {
+                    changesDuringRebuild = null;
+                    swapLock.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            throw e;
+        }
+        return transactions.get();
+    }
+
+    // Runs in the scan's transaction, so the states read here are the ones the scan counted
+    private void replay(Rollups rebuilt, Queue<SalesFact[]> changes) {
+        List<SalesFact[]> pending = new ArrayList<>(changes);
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> ids = pending.stream().map(SalesRollupService::transactionId).distinct().toList();
+        Map<String, SalesFact> scanned = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += REPLAY_CHUNK_SIZE) {
+            transactionRepository.findSalesFacts(ids.subList(from, Math.min(from + REPLAY_CHUNK_SIZE, ids.size())))
+                    .forEach(fact -> scanned.put(fact.transactionId(), fact));
+        }
+
+        // After-commit hooks can run out of order, so keep passing until no queued change applies
+        boolean replayed = true;
+        while (replayed) {
+            replayed = false;
+            for (Iterator<SalesFact[]> it = pending.iterator(); it.hasNext(); ) {
+                SalesFact[] change = it.next();
+                String id = transactionId(change);
+                SalesFact current = scanned.get(id);
+                if (change[0] == null ? current != null : !change[0].sameState(current)) {
+                    continue;
+                }
+                add(rebuilt, change[0], -1);
+                add(rebuilt, change[1], 1);
+                if (change[1] == null) {
+                    scanned.remove(id);
+                } else {
+                    scanned.put(id, change[1]);
+                }
+                it.remove();
+                replayed = true;
+            }
+        }
+    }
+
+    private static String transactionId(SalesFact[] change) {
+        return change[1] != null ? change[1].transactionId() : change[0].transactionId();
+    }
+
+    private void apply(SalesFact before, SalesFact after) {
+        swapLock.readLock().lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(new SalesFact[]{before, after});
+            }
+            add(rollups, before, -1);
+            add(rollups, after, 1);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void add(Rollups target, SalesFact fact, int sign) {
+        if (fact == null || fact.createdAt() == null) {
+            return;
+        }
+        target.hourly.computeIfAbsent(key(fact.createdAt(), ChronoUnit.HOURS), k -> new Bucket()).add(fact, sign);
+        target.daily.computeIfAbsent(key(fact.createdAt(), ChronoUnit.DAYS), k -> new Bucket()).add(fact, sign);
+    }
+
+    private static void sum(ConcurrentSkipListMap<Long, Bucket> buckets, ZonedDateTime from, ZonedDateTime to, Bucket total) {
+        buckets.subMap(from.toInstant().toEpochMilli(), true, to.toInstant().toEpochMilli(), false)
+                .values()
+                .forEach(bucket -> bucket.addTo(total));
+    }
+
+    private long key(Date date, ChronoUnit unit) {
+        return truncate(date, unit).toInstant().toEpochMilli();
+    }
+
+    private ZonedDateTime truncate(Date date, ChronoUnit unit) {
+        return date.toInstant().atZone(zone).truncatedTo(unit);
+    }
+
+    private static void validateRange(Date start, Date end) {
+        if (start == null || end == null)
+            throw new IllegalArgumentException("Both startDate and endDate are required");
+        if (!end.after(start))
+            throw new IllegalArgumentException("endDate must be after startDate");
+    }
+
+    private static final class Rollups {
+        private final ConcurrentSkipListMap<Long, Bucket> hourly = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<Long, Bucket> daily = new ConcurrentSkipListMap<>();
+    }
+
+    private static final class Bucket {
+        private long count;
+        private double revenue;
+        private long itemsSold;
+        private final Map<TransactionStatus, Long> byStatus = new EnumMap<>(TransactionStatus.class);
+        private final Map<String, Long> byPaymentMethod = new HashMap<>();
+
+        synchronized void add(SalesFact fact, int sign) {
+            count += sign;
+            if (fact.status() != TransactionStatus.CANCELLED) {
+                revenue += sign * fact.totalAmount();
+                itemsSold += sign * fact.itemsSold();
+            }
+            if (fact.status() != null) {
+                byStatus.merge(fact.status(), (long) sign, Bucket::sumOrRemove);
+            }
+            if (fact.paymentMethod() != null) {
+                byPaymentMethod.merge(fact.paymentMethod(), (long) sign, Bucket::sumOrRemove);
+            }
+        }
+
+        synchronized void addTo(Bucket total) {
+            total.count += count;
+            total.revenue += revenue;
+            total.itemsSold += itemsSold;
+            byStatus.forEach((status, n) -> total.byStatus.merge(status, n, Long::sum));
+            byPaymentMethod.forEach((method, n) -> total.byPaymentMethod.merge(method, n, Long::sum));
+        }
+
+        SalesStatsDTO toDTO(ZonedDateTime start, ZonedDateTime end) {
+            return new SalesStatsDTO(Date.from(start.toInstant()), Date.from(end.toInstant()),
+                    count, revenue, itemsSold, new EnumMap<>(byStatus), new HashMap<>(byPaymentMethod));
+        }
+
+        private static Long sumOrRemove(Long current, Long delta) {
+            long sum = current + delta;
+            return sum == 0 ? null : sum;
+        }
+    }
+}
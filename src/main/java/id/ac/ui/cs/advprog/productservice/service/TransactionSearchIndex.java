@@ -0,0 +1,178 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionSearchKey;
+import id.ac.ui.cs.advprog.productservice.support.TransactionHooks;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process trigram index over transaction id and customerId, the two columns behind
+ * {@code LIKE %keyword%} search. A keyword is answered by intersecting the posting lists of its
+ * trigrams and verifying the few survivors, so cost follows the number of matches instead of the
+ * table size. Customer ids are also kept sorted for prefix autocomplete.
+ */
+@Component
+public class TransactionSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final TransactionRepository transactionRepository;
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    private final Map<String, String> customerByTransaction = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Integer> customerIds = new ConcurrentSkipListMap<>();
+    private Set<String> changedDuringRebuild;
+    private volatile boolean ready;
+
+    public TransactionSearchIndex(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ready = false;
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+
+        List<TransactionSearchKey> keys = transactionRepository.findAllSearchKeys();
+
+        synchronized (this) {
+            // A change committed while we were reading is newer than the key we read
+            for (String transactionId : new ArrayList<>(customerByTransaction.keySet())) {
+                if (!changedDuringRebuild.contains(transactionId)) {
+                    remove(transactionId);
+                }
+            }
+            for (TransactionSearchKey key : keys) {
+                if (!changedDuringRebuild.contains(key.getId())) {
+                    add(key.getId(), key.getCustomerId());
+                }
+            }
+            changedDuringRebuild = null;
+            ready = true;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(String transactionId, String customerId) {
+        TransactionHooks.afterCommit(() -> apply(transactionId, customerId, true));
+    }
+
+    public void unindex(String transactionId) {
+        TransactionHooks.afterCommit(() -> apply(transactionId, null, false));
+    }
+
+    /**
+     * Ids of transactions whose id or customerId contains {@code keyword}, with the same
+     * case-sensitive semantics as the repository's LIKE query.
+     */
+    public List<String> search(String keyword) {
+        if (keyword.length() < GRAM) {
+            // Too short to have a trigram; scan the in-memory keys rather than the table
+            return customerByTransaction.entrySet().stream()
+                    .filter(e -> matches(e.getKey(), e.getValue(), keyword))
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList();
+        }
+
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : grams(keyword)) {
+            Set<String> posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> candidates = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+
+        return candidates.stream()
+                .filter(id -> matches(id, customerByTransaction.get(id), keyword))
+                .sorted()
+                .toList();
+    }
+
+    public List<String> suggestCustomerIds(String prefix, int limit) {
+        return customerIds.tailMap(prefix, true).keySet().stream()
+                .takeWhile(customerId -> customerId.startsWith(prefix))
+                .limit(limit)
+                .toList();
+    }
+
+    private synchronized void apply(String transactionId, String customerId, boolean indexed) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(transactionId);
+        }
+        remove(transactionId);
+        if (indexed) {
+            add(transactionId, customerId);
+        }
+    }
+
+    private synchronized void add(String transactionId, String customerId) {
+        customerByTransaction.put(transactionId, customerId != null ? customerId : "");
+        for (String gram : documentGrams(transactionId, customerId)) {
+            postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(transactionId);
+        }
+        if (customerId != null) {
+            customerIds.merge(customerId, 1, Integer::sum);
+        }
+    }
+
+    private synchronized void remove(String transactionId) {
+        String customerId = customerByTransaction.remove(transactionId);
+        if (customerId == null) {
+            return;
+        }
+        for (String gram : documentGrams(transactionId, customerId)) {
+            Set<String> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(transactionId);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        customerIds.computeIfPresent(customerId, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static boolean matches(String transactionId, String customerId, String keyword) {
+        return transactionId.contains(keyword) || (customerId != null && customerId.contains(keyword));
+    }
+
+    private static Set<String> documentGrams(String transactionId, String customerId) {
+        Set<String> grams = grams(transactionId);
+        if (customerId != null) {
+            grams.addAll(grams(customerId));
+        }
+        return grams;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
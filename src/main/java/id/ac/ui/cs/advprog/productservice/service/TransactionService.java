@@ -1,10 +1,11 @@
 package id.ac.ui.cs.advprog.productservice.service;
 
+import id.ac.ui.cs.advprog.productservice.dto.BatchResultDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionUpdateDTO;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
-import org.springframework.scheduling.annotation.Async;
 
 import java.util.Date;
 import java.util.List;
@@ -24,17 +25,14 @@ public interface TransactionService {
     TransactionDTO cancelTransaction(String id);
     void deleteTransaction(String id);
     List<TransactionDTO> searchTransactions(String keyword);
+    List<String> suggestCustomerIds(String prefix, int limit);
     List<TransactionDTO> getOngoingTransactions();
+    Map<TransactionStatus, Long> countOngoingTransactions();
     List<TransactionDTO> filterTransactions(String customerId, List<TransactionStatus> statuses, List<String> paymentMethods, Date startDate, Date endDate, String sortBy, String sortDirection);
+    TransactionPageDTO filterTransactionsPage(String customerId, List<TransactionStatus> statuses, List<String> paymentMethods, Date startDate, Date endDate, String sortBy, String sortDirection, String cursor, int size);
     TransactionDTO confirmTransaction(String id);
     CompletableFuture<Map<String, Object>> getTransactionDetails(String id);
-    int batchCompleteTransactions(List<String> transactionIds);
-    int batchCancelTransactions(List<String> transactionIds);
-
-    @Async
-    CompletableFuture<Integer> batchCompleteTransactionsAsync(List<String> transactionIds);
-
-    @Async
-    CompletableFuture<Integer> batchCancelTransactionsAsync(List<String> transactionIds);
+    BatchResultDTO batchCompleteTransactions(List<String> transactionIds);
+    BatchResultDTO batchCancelTransactions(List<String> transactionIds);
 
 }
\ No newline at end of file
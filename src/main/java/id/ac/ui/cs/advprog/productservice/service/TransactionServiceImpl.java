@@ -1,19 +1,29 @@
 package id.ac.ui.cs.advprog.productservice.service;
 
+import id.ac.ui.cs.advprog.productservice.dto.BatchResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionCursor;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionUpdateDTO;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
 import id.ac.ui.cs.advprog.productservice.model.Transaction;
 import id.ac.ui.cs.advprog.productservice.model.TransactionItem;
+import id.ac.ui.cs.advprog.productservice.model.builder.TransactionBuilder;
+import id.ac.ui.cs.advprog.productservice.model.encoding.PaymentMethodConverter;
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.service.InventoryService;
 import id.ac.ui.cs.advprog.productservice.productmanagement.service.ProductService;
 import id.ac.ui.cs.advprog.productservice.repository.PaymentRepository;
+import id.ac.ui.cs.advprog.productservice.repository.SalesFact;
 import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.productservice.service.CustomerBalanceLedger.Contribution;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,27 +31,48 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class TransactionServiceImpl implements TransactionService {
 
     private final ProductService productService;
+    private final InventoryService inventoryService;
     private final TransactionRepository transactionRepository;
     private final PaymentRepository paymentRepository;
+    private final TransactionSearchIndex searchIndex;
+    private final SalesRollupService salesRollupService;
+    private final CustomerTransactionCache customerTransactionCache;
+    private final OngoingTransactionRegistry ongoingRegistry;
+    private final CustomerBalanceLedger balanceLedger;
     private final Executor customTaskExecutor;
     private static final String PRODUCT_NOT_FOUND_MSG = "Product not found: ";
     private static final String TRANSACTION_NOT_FOUND_MSG = "Transaction not found: ";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final int BATCH_CHUNK_SIZE = 500;
 
     @Autowired
     public TransactionServiceImpl(ProductService productService,
+                                  InventoryService inventoryService,
                                   TransactionRepository transactionRepository,
                                   PaymentRepository paymentRepository,
+                                  TransactionSearchIndex searchIndex,
+                                  SalesRollupService salesRollupService,
+                                  CustomerTransactionCache customerTransactionCache,
+                                  OngoingTransactionRegistry ongoingRegistry,
+                                  CustomerBalanceLedger balanceLedger,
                                   @Qualifier("customTaskExecutor") Executor customTaskExecutor) {
         this.productService = productService;
+        this.inventoryService = inventoryService;
         this.transactionRepository = transactionRepository;
         this.paymentRepository = paymentRepository;
+        this.searchIndex = searchIndex;
+        this.salesRollupService = salesRollupService;
+        this.customerTransactionCache = customerTransactionCache;
+        this.ongoingRegistry = ongoingRegistry;
+        this.balanceLedger = balanceLedger;
         this.customTaskExecutor = customTaskExecutor != null
                 ? customTaskExecutor
                 : ForkJoinPool.commonPool();
@@ -50,63 +81,35 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional
     public TransactionDTO createTransaction(TransactionRequestDTO requestDTO) {
-        Transaction transaction = new Transaction();
-        transaction.setCustomerId(requestDTO.getCustomerId());
-        transaction.setPaymentMethod(requestDTO.getPaymentMethod());
-
-        // Process product items and calculate total
-        for (Map.Entry<String, Integer> entry : requestDTO.getProductQuantities().entrySet()) {
-            String productId = entry.getKey();
-            Integer quantity = entry.getValue();
-            if (quantity <= 0) continue;
-
-            Product product = productService
-                    .getProductById(productId)
-                    .orElseThrow(() -> new NoSuchElementException(
-                            PRODUCT_NOT_FOUND_MSG + productId));
-
-            if (product.getStock() < quantity)
-                throw new IllegalStateException("Not enough stock for product: " + product.getName());
-
-            TransactionItem transactionItem = new TransactionItem(product, quantity);
-            transaction.addItem(transactionItem);
-
-            product.setStock(product.getStock() - quantity);
-            productService.editProduct(product, true);
-        }
+        Map<UUID, Integer> reservations = validate(requestDTO);
 
-        transaction.calculateTotalAmount();
-
-        double totalAmount = transaction.getTotalAmount();
-        double paidAmount = requestDTO.getAmount();
+        // One bulk lookup for the whole order instead of a select per line
+        Map<UUID, Product> products = productService.getProductsByIds(reservations.keySet());
 
-        if (totalAmount - paidAmount == 0) {
-            transaction.setStatus(TransactionStatus.COMPLETED);
-        } else {
-            transaction.setStatus(TransactionStatus.IN_PROGRESS);
-        }
+        Transaction transaction = new TransactionBuilder()
+                .withCustomerId(requestDTO.getCustomerId())
+                .withPaymentMethod(requestDTO.getPaymentMethod())
+                .withProductQuantities(reservations, products)
+                .build();
 
-        String paymentStatus = "";
-        if (transaction.getStatus() == TransactionStatus.COMPLETED) {
-            paymentStatus = "LUNAS";
-        } else if (transaction.getStatus() == TransactionStatus.IN_PROGRESS) {
-            paymentStatus = "CICILAN";
-        }
+        // Guarded decrements in this transaction; a failed item rolls back the ones before it
+        inventoryService.reserveAll(reservations).forEach((productId, reserved) -> {
+            if (!Boolean.TRUE.equals(reserved))
+                throw new IllegalStateException("Not enough stock for product: " + products.get(productId).getName());
+        });
 
-        Payment payment = new Payment(
-                null,
-                requestDTO.getCustomerId(),
-                paidAmount,
-                requestDTO.getPaymentMethod(),
-                paymentStatus,
-                new Date()
-        );
+        Payment payment = settle(transaction, requestDTO);
 
         // Save payment to generate ID
         payment = paymentRepository.save(payment);
         transaction.setPayment(payment);
 
         transaction = transactionRepository.save(transaction);
+        searchIndex.index(transaction.getId(), transaction.getCustomerId());
+        salesRollupService.record(null, SalesFact.of(transaction));
+        balanceLedger.record(null, Contribution.of(transaction));
+        customerTransactionCache.evict(transaction.getCustomerId());
+        ongoingRegistry.track(transaction);
 
         return TransactionDTO.fromTransaction(transaction);
     }
@@ -130,14 +133,18 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional(readOnly = true)
     public List<TransactionDTO> getTransactionsByCustomerId(String customerId) {
-        return transactionRepository.findByCustomerId(customerId).stream()
-                .map(TransactionDTO::fromTransaction)
-                .toList();
+        return customerTransactionCache.get(customerId, () ->
+                transactionRepository.findByCustomerId(customerId).stream()
+                        .map(TransactionDTO::fromTransaction)
+                        .toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<TransactionDTO> getTransactionsByStatus(TransactionStatus status) {
+        if (OngoingTransactionRegistry.isOngoing(status) && ongoingRegistry.isReady())
+            return ongoingRegistry.getByStatus(status);
+
         return transactionRepository.findByStatus(status).stream()
                 .map(TransactionDTO::fromTransaction)
                 .toList();
@@ -169,6 +176,10 @@ public class TransactionServiceImpl implements TransactionService {
                 transaction.getStatus() != TransactionStatus.IN_PROGRESS)
             throw new IllegalStateException("Cannot update transaction with status: " + transaction.getStatus());
 
+        SalesFact before = SalesFact.of(transaction);
+        Contribution balanceBefore = Contribution.of(transaction);
+        String previousCustomerId = transaction.getCustomerId();
+
         if (updateDTO.getCustomerId() != null)
             transaction.setCustomerId(updateDTO.getCustomerId());
 
@@ -208,6 +219,11 @@ public class TransactionServiceImpl implements TransactionService {
 
         transaction.setUpdatedAt(new Date());
         transaction = transactionRepository.save(transaction);
+        searchIndex.index(transaction.getId(), transaction.getCustomerId());
+        salesRollupService.record(before, SalesFact.of(transaction));
+        balanceLedger.record(balanceBefore, Contribution.of(transaction));
+        customerTransactionCache.evict(previousCustomerId, transaction.getCustomerId());
+        ongoingRegistry.track(transaction);
 
         return TransactionDTO.fromTransaction(transaction);
     }
@@ -221,8 +237,12 @@ public class TransactionServiceImpl implements TransactionService {
         if (transaction.getStatus() != TransactionStatus.PENDING)
             throw new IllegalStateException("Cannot complete transaction with status: " + transaction.getStatus());
 
+        SalesFact before = SalesFact.of(transaction);
         transaction.complete();
         transaction = transactionRepository.save(transaction);
+        salesRollupService.record(before, SalesFact.of(transaction));
+        customerTransactionCache.evict(transaction.getCustomerId());
+        ongoingRegistry.track(transaction);
 
         return TransactionDTO.fromTransaction(transaction);
     }
@@ -239,14 +259,16 @@ public class TransactionServiceImpl implements TransactionService {
         if (transaction.getStatus() == TransactionStatus.COMPLETED)
             throw new IllegalStateException("Transaction is already completed");
 
-        for (TransactionItem item : transaction.getItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
-            productService.editProduct(product, true);
-        }
+        inventoryService.releaseAll(itemQuantities(transaction));
 
+        SalesFact before = SalesFact.of(transaction);
+        Contribution balanceBefore = Contribution.of(transaction);
         transaction.cancel();
         transaction = transactionRepository.save(transaction);
+        salesRollupService.record(before, SalesFact.of(transaction));
+        balanceLedger.record(balanceBefore, Contribution.of(transaction));
+        customerTransactionCache.evict(transaction.getCustomerId());
+        ongoingRegistry.track(transaction);
 
         return TransactionDTO.fromTransaction(transaction);
     }
@@ -257,15 +279,15 @@ public class TransactionServiceImpl implements TransactionService {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException(TRANSACTION_NOT_FOUND_MSG + id));
 
-        if (transaction.getStatus() != TransactionStatus.CANCELLED) {
-            for (TransactionItem item : transaction.getItems()) {
-                Product product = item.getProduct();
-                product.setStock(product.getStock() + item.getQuantity());
-                productService.editProduct(product, true);
-            }
-        }
+        if (transaction.getStatus() != TransactionStatus.CANCELLED)
+            inventoryService.releaseAll(itemQuantities(transaction));
 
         transactionRepository.deleteById(id);
+        searchIndex.unindex(id);
+        salesRollupService.record(SalesFact.of(transaction), null);
+        balanceLedger.record(Contribution.of(transaction), null);
+        customerTransactionCache.evict(transaction.getCustomerId());
+        ongoingRegistry.untrack(id);
     }
 
     @Override
@@ -274,19 +296,53 @@ public class TransactionServiceImpl implements TransactionService {
         if (keyword == null || keyword.isEmpty())
             return getAllTransactions();
 
-        return transactionRepository.searchByKeyword(keyword).stream()
-                .map(TransactionDTO::fromTransaction)
-                .toList();
+        // Both sources return ids in order; only the first MAX_SEARCH_RESULTS are loaded
+        List<String> ids = searchIndex.isReady()
+                ? searchIndex.search(keyword)
+                : transactionRepository.searchIdsByKeyword(keyword, PageRequest.of(0, MAX_SEARCH_RESULTS));
+        ids = ids.subList(0, Math.min(ids.size(), MAX_SEARCH_RESULTS));
+
+        List<TransactionDTO> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            transactionRepository.findByIdIn(chunk).stream()
+                    .sorted(Comparator.comparing(Transaction::getId))
+                    .map(TransactionDTO::fromTransaction)
+                    .forEach(results::add);
+        }
+        return results;
+    }
+
+    @Override
+    public List<String> suggestCustomerIds(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0)
+            return List.of();
+        return searchIndex.suggestCustomerIds(prefix, Math.min(limit, MAX_SUGGESTIONS));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<TransactionDTO> getOngoingTransactions() {
+        if (ongoingRegistry.isReady())
+            return ongoingRegistry.getOngoing();
+
         return transactionRepository.findOngoingTransactions().stream()
                 .map(TransactionDTO::fromTransaction)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<TransactionStatus, Long> countOngoingTransactions() {
+        if (ongoingRegistry.isReady())
+            return ongoingRegistry.countByStatus();
+
+        Map<TransactionStatus, Long> counts = new EnumMap<>(TransactionStatus.class);
+        counts.put(TransactionStatus.PENDING, transactionRepository.countByStatus(TransactionStatus.PENDING));
+        counts.put(TransactionStatus.IN_PROGRESS, transactionRepository.countByStatus(TransactionStatus.IN_PROGRESS));
+        return counts;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<TransactionDTO> filterTransactions(
@@ -298,26 +354,65 @@ public class TransactionServiceImpl implements TransactionService {
             String sortBy,
             String sortDirection) {
 
-        List<Transaction> transactions = transactionRepository.findTransactionsWithFilters(
-                customerId, statuses, paymentMethods, startDate, endDate);
+        TransactionSortField sortField = TransactionSortField.fromParam(sortBy);
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDirection) ? Sort.Direction.DESC : Sort.Direction.ASC;
 
-        List<TransactionDTO> result = transactions.stream()
+        return transactionRepository.findTransactionsWithFilters(
+                        customerId, statuses, paymentMethods, startDate, endDate,
+                        Sort.by(direction, sortField.getAttribute(), "id"))
+                .stream()
                 .map(TransactionDTO::fromTransaction)
-                .collect(Collectors.toList());
+                .toList();
+    }
 
-        Comparator<TransactionDTO> comparator = switch (sortBy != null ? sortBy.toLowerCase() : "createdat") {
-            case "totalamount" -> Comparator.comparing(TransactionDTO::getTotalAmount);
-            case "updatedat" -> Comparator.comparing(TransactionDTO::getUpdatedAt);
-            case "status" -> Comparator.comparing(dto -> dto.getStatus().name());
-            default -> Comparator.comparing(TransactionDTO::getCreatedAt);
-        };
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageDTO filterTransactionsPage(
+            String customerId,
+            List<TransactionStatus> statuses,
+            List<String> paymentMethods,
+            Date startDate,
+            Date endDate,
+            String sortBy,
+            String sortDirection,
+            String cursor,
+            int size) {
+
+        if (size <= 0 || size > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
 
-        if ("desc".equalsIgnoreCase(sortDirection)) {
-            comparator = comparator.reversed();
+        TransactionSortField sortField = TransactionSortField.fromParam(sortBy);
+        boolean descending = "desc".equalsIgnoreCase(sortDirection);
+        TransactionCursor after = cursor != null && !cursor.isEmpty() ? TransactionCursor.decode(cursor) : null;
+
+        if (after != null && (after.getSortField() != sortField || after.isDescending() != descending))
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+
+        // Page through ids with a keyset seek, then load the graph only for the rows on this page
+        List<String> ids = transactionRepository.findFilteredIdsAfter(
+                customerId, statuses, paymentMethods, startDate, endDate, sortField, descending, after, size + 1);
+
+        boolean hasMore = ids.size() > size;
+        List<String> pageIds = hasMore ? ids.subList(0, size) : ids;
+
+        Map<String, Transaction> byId = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findByIdIn(pageIds)) {
+            byId.put(transaction.getId(), transaction);
         }
 
-        result.sort(comparator);
-        return result;
+        List<Transaction> page = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        String nextCursor = hasMore && !page.isEmpty()
+                ? TransactionCursor.after(page.get(page.size() - 1), sortField, descending).encode()
+                : null;
+
+        return new TransactionPageDTO(
+                page.stream().map(TransactionDTO::fromTransaction).toList(),
+                nextCursor,
+                hasMore);
     }
 
     @Override
@@ -330,89 +425,204 @@ public class TransactionServiceImpl implements TransactionService {
             throw new IllegalStateException("Only pending transactions can be confirmed.");
         }
 
+        Map<UUID, Product> products = productService.getProductsByIds(
+                transaction.getItems().stream().map(item -> item.getProduct().getId()).toList());
+
         for (TransactionItem item : transaction.getItems()) {
-            Product product = productService
-                    .getProductById(item.getProduct().getId().toString())
-                    .orElseThrow(() -> new NoSuchElementException(
-                            PRODUCT_NOT_FOUND_MSG + item.getProduct().getId()));
-            if (product.getStock() < item.getQuantity()) {
+            Product product = products.get(item.getProduct().getId());
+            if (product == null)
+                throw new NoSuchElementException(PRODUCT_NOT_FOUND_MSG + item.getProduct().getId());
+            // The stock column lags behind write-behind reservations; availableStock includes them
+            if (inventoryService.availableStock(product) < item.getQuantity()) {
                 throw new IllegalStateException("Not enough stock for product: " + product.getName());
             }
         }
 
+        SalesFact before = SalesFact.of(transaction);
         transaction.markInProgress();
         transaction = transactionRepository.save(transaction);
+        salesRollupService.record(before, SalesFact.of(transaction));
+        customerTransactionCache.evict(transaction.getCustomerId());
+        ongoingRegistry.track(transaction);
 
         return TransactionDTO.fromTransaction(transaction);
     }
 
     @Override
     @Transactional
-    public int batchCompleteTransactions(List<String> transactionIds) {
-        int completedCount = 0;
-
-        for (String id : transactionIds) {
-            try {
-                Optional<Transaction> transactionOpt = transactionRepository.findById(id);
-                if (transactionOpt.isPresent()) {
-                    Transaction transaction = transactionOpt.get();
-                    if (transaction.getStatus() == TransactionStatus.PENDING) {
-                        transaction.complete();
-                        transactionRepository.save(transaction);
-                        completedCount++;
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Error completing transaction " + id + ": " + e.getMessage());
-            }
-        }
-
-        return completedCount;
+    public BatchResultDTO batchCompleteTransactions(List<String> transactionIds) {
+        return changeStatusInBatch(transactionIds, EnumSet.of(TransactionStatus.PENDING), TransactionStatus.COMPLETED);
     }
 
     @Override
     @Transactional
-    public int batchCancelTransactions(List<String> transactionIds) {
-        int canceledCount = 0;
-
-        for (String id : transactionIds) {
-            try {
-                Optional<Transaction> transactionOpt = transactionRepository.findById(id);
-                if (transactionOpt.isPresent()) {
-                    Transaction transaction = transactionOpt.get();
-                    if (transaction.getStatus() != TransactionStatus.CANCELLED) {
-                        // Restore stock
+    public BatchResultDTO batchCancelTransactions(List<String> transactionIds) {
+        return changeStatusInBatch(transactionIds,
+                EnumSet.complementOf(EnumSet.of(TransactionStatus.CANCELLED)), TransactionStatus.CANCELLED);
+    }
+
+    /**
+     * Moves every listed transaction whose status is in {@code expected} to {@code target} with one
+     * guarded UPDATE per chunk of ids. Rows are locked in id order first, so each UPDATE matches
+     * exactly the transactions found eligible. Cancelling returns their stock summed per product,
+     * one UPDATE per distinct product in {@link InventoryService#LOCK_ORDER}.
+     */
+    private BatchResultDTO changeStatusInBatch(List<String> transactionIds, Set<TransactionStatus> expected,
+                                               TransactionStatus target) {
+        BatchResultDTO result = new BatchResultDTO();
+        List<String> ids = transactionIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        Date now = new Date();
+        Map<UUID, Integer> restock = new HashMap<>();
+        Set<String> customerIds = new LinkedHashSet<>();
+        List<Contribution> balancesBefore = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            Map<String, Transaction> locked = new HashMap<>();
+            for (Transaction transaction : transactionRepository.findAllByIdForUpdate(chunk)) {
+                locked.put(transaction.getId(), transaction);
+            }
+
+            // Captured before the UPDATE clears the persistence context
+            Map<String, SalesFact> eligible = new LinkedHashMap<>();
+            for (String id : chunk) {
+                Transaction transaction = locked.get(id);
+                if (transaction == null) {
+                    result.getSkipped().put(id, "Transaction not found");
+                } else if (!expected.contains(transaction.getStatus())) {
+                    result.getSkipped().put(id, "Transaction is " + transaction.getStatus());
+                } else {
+                    eligible.put(id, SalesFact.of(transaction));
+                    customerIds.add(transaction.getCustomerId());
+                    if (target == TransactionStatus.CANCELLED) {
+                        balancesBefore.add(Contribution.of(transaction));
                         for (TransactionItem item : transaction.getItems()) {
-                            Product product = item.getProduct();
-                            product.setStock(product.getStock() + item.getQuantity());
-                            productService.editProduct(product, true);
+                            restock.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
                         }
-
-                        transaction.cancel();
-                        transactionRepository.save(transaction);
-                        canceledCount++;
                     }
                 }
-            } catch (Exception e) {
-                System.err.println("Error canceling transaction " + id + ": " + e.getMessage());
             }
+            if (eligible.isEmpty()) {
+                continue;
+            }
+
+            int updated = transactionRepository.updateStatus(eligible.keySet(), expected, target, now);
+            if (updated != eligible.size()) {
+                throw new IllegalStateException("Expected to update " + eligible.size()
+                        + " transactions but updated " + updated);
+            }
+            eligible.forEach((id, before) -> {
+                salesRollupService.record(before, before.withStatus(target));
+                // COMPLETED and CANCELLED are never ongoing
+                ongoingRegistry.untrack(id);
+                result.getProcessed().add(id);
+            });
         }
 
-        return canceledCount;
+        inventoryService.releaseAll(restock);
+        // Completing leaves spent and paid as they were; cancelling takes both out of the balance
+        if (!balancesBefore.isEmpty()) {
+            balanceLedger.record(balancesBefore, balancesBefore.stream().map(Contribution::cancelled).toList());
+        }
+        customerTransactionCache.evict(customerIds.toArray(String[]::new));
+        return result;
     }
 
-    @Override
-    @Async
-    public CompletableFuture<Integer> batchCompleteTransactionsAsync(List<String> transactionIds) {
-        int result = batchCompleteTransactions(transactionIds);
-        return CompletableFuture.completedFuture(result);
+    /**
+     * Sets the new transaction's status from the amount paid against its total and returns the
+     * matching, not yet saved, payment.
+     */
+    static Payment settle(Transaction transaction, TransactionRequestDTO requestDTO) {
+        transaction.calculateTotalAmount();
+
+        double totalAmount = transaction.getTotalAmount();
+        double paidAmount = requestDTO.getAmount();
+
+        if (totalAmount - paidAmount == 0) {
+            transaction.setStatus(TransactionStatus.COMPLETED);
+        } else {
+            transaction.setStatus(TransactionStatus.IN_PROGRESS);
+        }
+
+        String paymentStatus = "";
+        if (transaction.getStatus() == TransactionStatus.COMPLETED) {
+            paymentStatus = "LUNAS";
+        } else if (transaction.getStatus() == TransactionStatus.IN_PROGRESS) {
+            paymentStatus = "CICILAN";
+        }
+
+        return new Payment(
+                null,
+                requestDTO.getCustomerId(),
+                paidAmount,
+                requestDTO.getPaymentMethod(),
+                paymentStatus,
+                new Date()
+        );
     }
 
-    @Override
-    @Async
-    public CompletableFuture<Integer> batchCancelTransactionsAsync(List<String> transactionIds) {
-        int result = batchCancelTransactions(transactionIds);
-        return CompletableFuture.completedFuture(result);
+    /**
+     * Checks an order and returns its positive quantities. Every checkout path (single, group commit, bulk
+     * and async intake) goes through this, so the same request is accepted or rejected whichever one serves it.
+     */
+    static Map<UUID, Integer> validate(TransactionRequestDTO request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Malformed record");
+        }
+        if (isBlank(request.getCustomerId())) {
+            throw new IllegalArgumentException("customerId is required");
+        }
+        if (isBlank(request.getPaymentMethod())) {
+            throw new IllegalArgumentException("paymentMethod is required");
+        }
+        if (!PaymentMethodConverter.isValid(request.getPaymentMethod())) {
+            throw new IllegalArgumentException("Invalid paymentMethod");
+        }
+        if (request.getAmount() == null) {
+            throw new IllegalArgumentException("amount is required");
+        }
+        if (request.getProductQuantities() == null || request.getProductQuantities().values().stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("productQuantities is required");
+        }
+        Map<UUID, Integer> quantities = parseQuantities(request.getProductQuantities());
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("productQuantities must contain a positive quantity");
+        }
+        return quantities;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // Positive quantities only, keyed by product id, duplicates merged
+    static Map<UUID, Integer> parseQuantities(Map<String, Integer> productQuantities) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : productQuantities.entrySet()) {
+            if (entry.getValue() <= 0) continue;
+            quantities.merge(parseProductId(entry.getKey()), entry.getValue(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    /** Quantity per product across the transaction's items, so stock is returned once per row. */
+    private static Map<UUID, Integer> itemQuantities(Transaction transaction) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (TransactionItem item : transaction.getItems())
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        return quantities;
+    }
+
+    private static UUID parseProductId(String productId) {
+        try {
+            return UUID.fromString(productId);
+        } catch (IllegalArgumentException e) {
+            throw new NoSuchElementException(PRODUCT_NOT_FOUND_MSG + productId);
+        }
     }
 
     @Override
@@ -435,7 +645,7 @@ public class TransactionServiceImpl implements TransactionService {
                         status.put("productId", product.getId().toString());
                         status.put("productName", product.getName());
                         status.put("quantityInTransaction", item.getQuantity());
-                        status.put("currentStock", product.getStock());
+                        status.put("currentStock", inventoryService.availableStock(product));
                         return status;
                     }, customTaskExecutor))
                     .toList();
@@ -0,0 +1,117 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.enums.StreamFormat;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes transaction listings straight to an output stream instead of materialising them.
+ * Rows come off a database cursor, are mapped and written in chunks, and the persistence context
+ * is cleared after every chunk, so heap use does not grow with the size of the result.
+ */
+@Service
+public class TransactionStreamService {
+
+    static final int CHUNK_SIZE = 100;
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public TransactionStreamService(TransactionRepository transactionRepository,
+                                    ObjectMapper objectMapper,
+                                    EntityManager entityManager) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeTransactions(String customerId,
+                                  TransactionStatus status,
+                                  String paymentMethod,
+                                  Date startDate,
+                                  Date endDate,
+                                  String keyword,
+                                  StreamFormat format,
+                                  OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        try (Stream<Transaction> transactions = openStream(customerId, status, paymentMethod, startDate, endDate, keyword);
+             SequenceWriter sequence = format == StreamFormat.NDJSON
+                     ? writer.withRootValueSeparator("\n").writeValues(out)
+                     : writer.writeValuesAsArray(out)) {
+
+            List<Transaction> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, sequence);
+                }
+            }
+            writeChunk(chunk, sequence);
+        }
+
+        if (format == StreamFormat.NDJSON) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    // Same precedence as TransactionController.getAllTransactions
+    private Stream<Transaction> openStream(String customerId, TransactionStatus status, String paymentMethod,
+                                           Date startDate, Date endDate, String keyword) {
+        if (customerId != null) {
+            return transactionRepository.streamByCustomerId(customerId);
+        } else if (status != null) {
+            return transactionRepository.streamByStatus(status);
+        } else if (paymentMethod != null) {
+            return transactionRepository.streamByPaymentMethod(paymentMethod);
+        } else if (startDate != null && endDate != null) {
+            return transactionRepository.streamByDateRange(startDate, endDate);
+        } else if (keyword != null && !keyword.isEmpty()) {
+            return transactionRepository.streamByKeyword(keyword);
+        }
+        return transactionRepository.streamAll();
+    }
+
+    private void writeChunk(List<Transaction> chunk, SequenceWriter sequence) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // One graph query per chunk instead of lazy loads per row
+        Map<String, Transaction> loaded = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findByIdIn(chunk.stream().map(Transaction::getId).toList())) {
+            loaded.put(transaction.getId(), transaction);
+        }
+
+        for (Transaction transaction : chunk) {
+            sequence.write(TransactionDTO.fromTransaction(loaded.getOrDefault(transaction.getId(), transaction)));
+        }
+        sequence.flush();
+
+        chunk.clear();
+        entityManager.clear();
+    }
+}
@@ -3,8 +3,10 @@ package id.ac.ui.cs.advprog.productservice.config;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcProperties;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
@@ -17,6 +19,14 @@ class AsyncConfigTest {
     @Qualifier("customTaskExecutor")
     private Executor customTaskExecutor;
 
+    @Autowired
+    private WebMvcProperties webMvcProperties;
+
+    @Test
+    void testStreamingResponsesOutliveTheContainerDefaultTimeout() {
+        assertEquals(Duration.ofMinutes(10), webMvcProperties.getAsync().getRequestTimeout());
+    }
+
     @Test
     void testCustomTaskExecutorBeanExists() {
         assertNotNull(customTaskExecutor, "customTaskExecutor bean should not be null");
@@ -0,0 +1,103 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.productservice.dto.BulkTransactionResponseDTO;
+import id.ac.ui.cs.advprog.productservice.dto.BulkTransactionResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.service.BulkTransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkTransactionControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BulkTransactionService bulkTransactionService;
+
+    private BulkTransactionResponseDTO response;
+
+    @BeforeEach
+    void setUp() {
+        BulkTransactionController controller = new BulkTransactionController(bulkTransactionService, new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        response = new BulkTransactionResponseDTO(2, 1, 1, List.of(
+                BulkTransactionResultDTO.created(0, "transaction-1", TransactionStatus.COMPLETED),
+                BulkTransactionResultDTO.failed(1, "Malformed record")));
+    }
+
+    @Test
+    void ingest_JsonArray() throws Exception {
+        when(bulkTransactionService.ingest(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/transactions/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"customerId\":\"customer-1\",\"amount\":10.0},{\"customerId\":\"customer-2\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].transactionId").value("transaction-1"))
+                .andExpect(jsonPath("$.results[1].error").value("Malformed record"));
+
+        verify(bulkTransactionService).ingest(argThat(requests -> requests.size() == 2));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void ingest_NdjsonKeepsMalformedLinesAsRecords() throws Exception {
+        when(bulkTransactionService.ingest(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/transactions/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"customerId\":\"customer-1\"}\n\n{not json\n"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<List<TransactionRequestDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkTransactionService).ingest(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("customer-1", captor.getValue().get(0).getCustomerId());
+        assertNull(captor.getValue().get(1));
+    }
+
+    @Test
+    void ingest_OversizedRequestIsBadRequest() throws Exception {
+        when(bulkTransactionService.ingest(anyList()))
+                .thenThrow(new IllegalArgumentException("At most 10000 records are accepted per request"));
+
+        mockMvc.perform(post("/api/transactions/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ingest_NdjsonStopsAtTheFirstRecordPastTheLimit() throws Exception {
+        doThrow(new IllegalArgumentException("At most 2 records are accepted per request"))
+                .when(bulkTransactionService).requireWithinLimit(3);
+
+        mockMvc.perform(post("/api/transactions/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n{}\n{}\n{}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("At most 2 records are accepted per request"));
+
+        verify(bulkTransactionService, never()).requireWithinLimit(4);
+        verify(bulkTransactionService, never()).ingest(anyList());
+    }
+}
@@ -0,0 +1,104 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.productservice.dto.CheckoutStatusDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.enums.CheckoutStatus;
+import id.ac.ui.cs.advprog.productservice.service.CheckoutIntakeService;
+import id.ac.ui.cs.advprog.productservice.service.IdempotencyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private CheckoutIntakeService checkoutIntakeService;
+
+    private final String body = "{\"customerId\":\"customer-1\",\"amount\":10.0,\"paymentMethod\":\"CASH\"}";
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyStore idempotencyStore = new IdempotencyStore(new ObjectMapper(), 100, Duration.ofMinutes(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(new CheckoutController(checkoutIntakeService, idempotencyStore)).build();
+    }
+
+    @Test
+    void submit_AcceptedWithLocation() throws Exception {
+        when(checkoutIntakeService.submit(any(TransactionRequestDTO.class))).thenReturn(status(CheckoutStatus.QUEUED));
+
+        mockMvc.perform(post("/api/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/checkouts/checkout-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void submit_RetryWithIdempotencyKeyIsStoredOnce() throws Exception {
+        when(checkoutIntakeService.submit(any(TransactionRequestDTO.class))).thenReturn(status(CheckoutStatus.QUEUED));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/checkouts")
+                            .header(IdempotencyStore.HEADER, "retry-key")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isAccepted());
+        }
+
+        verify(checkoutIntakeService, times(1)).submit(any(TransactionRequestDTO.class));
+    }
+
+    @Test
+    void submit_InvalidRequestIsBadRequest() throws Exception {
+        when(checkoutIntakeService.submit(any(TransactionRequestDTO.class)))
+                .thenThrow(new IllegalArgumentException("productQuantities is required"));
+
+        mockMvc.perform(post("/api/checkouts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStatus() throws Exception {
+        CheckoutStatusDTO succeeded = status(CheckoutStatus.SUCCEEDED);
+        succeeded.setTransactionId("transaction-1");
+        when(checkoutIntakeService.getStatus("checkout-1")).thenReturn(Optional.of(succeeded));
+
+        mockMvc.perform(get("/api/checkouts/checkout-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.transactionId").value("transaction-1"));
+    }
+
+    @Test
+    void getStatus_UnknownIsNotFound() throws Exception {
+        when(checkoutIntakeService.getStatus("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/checkouts/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static CheckoutStatusDTO status(CheckoutStatus status) {
+        return new CheckoutStatusDTO("checkout-1", status, null, null, new Date(), new Date());
+    }
+}
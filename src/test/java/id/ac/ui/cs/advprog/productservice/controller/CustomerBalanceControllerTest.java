@@ -0,0 +1,57 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import id.ac.ui.cs.advprog.productservice.dto.CustomerBalanceDTO;
+import id.ac.ui.cs.advprog.productservice.service.CustomerBalanceLedger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBalanceControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private CustomerBalanceLedger balanceLedger;
+
+    @InjectMocks
+    private CustomerBalanceController customerBalanceController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(customerBalanceController).build();
+    }
+
+    @Test
+    void getBalance() throws Exception {
+        when(balanceLedger.getBalance("customer-1"))
+                .thenReturn(new CustomerBalanceDTO("customer-1", 500.0, 200.0, 300.0, 3));
+
+        mockMvc.perform(get("/api/customers/customer-1/balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value("customer-1"))
+                .andExpect(jsonPath("$.totalSpent").value(500.0))
+                .andExpect(jsonPath("$.totalPaid").value(200.0))
+                .andExpect(jsonPath("$.outstandingBalance").value(300.0))
+                .andExpect(jsonPath("$.transactionCount").value(3));
+    }
+
+    @Test
+    void getBalance_UnknownCustomerIsZero() throws Exception {
+        when(balanceLedger.getBalance("nobody")).thenReturn(new CustomerBalanceDTO("nobody", 0, 0, 0, 0));
+
+        mockMvc.perform(get("/api/customers/nobody/balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.outstandingBalance").value(0.0))
+                .andExpect(jsonPath("$.transactionCount").value(0));
+    }
+}
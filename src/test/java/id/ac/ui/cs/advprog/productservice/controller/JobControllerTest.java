@@ -0,0 +1,61 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import id.ac.ui.cs.advprog.productservice.dto.JobDTO;
+import id.ac.ui.cs.advprog.productservice.enums.JobStatus;
+import id.ac.ui.cs.advprog.productservice.service.BatchJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BatchJobService batchJobService;
+
+    @InjectMocks
+    private JobController jobController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(jobController).build();
+    }
+
+    @Test
+    void getJob() throws Exception {
+        JobDTO job = new JobDTO("job-1", BatchJobService.BATCH_CANCEL, JobStatus.RUNNING, 10, 4, 3,
+                Map.of("t-2", "Transaction is CANCELLED"), List.of(), new Date(), new Date(), null);
+        when(batchJobService.getJob("job-1")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.completed").value(4))
+                .andExpect(jsonPath("$.total").value(10))
+                .andExpect(jsonPath("$.skipped['t-2']").value("Transaction is CANCELLED"));
+    }
+
+    @Test
+    void getJob_UnknownOrExpired() throws Exception {
+        when(batchJobService.getJob("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -2,21 +2,29 @@ package id.ac.ui.cs.advprog.productservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import id.ac.ui.cs.advprog.productservice.config.TestSecurityConfig;
+import id.ac.ui.cs.advprog.productservice.dto.PaymentPageDTO;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.model.command.PaymentInvoker;
+import id.ac.ui.cs.advprog.productservice.service.IdempotencyStore;
 import id.ac.ui.cs.advprog.productservice.service.PaymentServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -27,9 +35,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ActiveProfiles("test")
 @WebMvcTest(PaymentController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, IdempotencyStore.class})
 public class PaymentControllerTest {
 
+    @TestConfiguration
+    static class PaymentInvokerConfig {
+        @Bean
+        PaymentInvoker paymentInvoker(PaymentServiceImpl paymentService) {
+            return new PaymentInvoker(paymentService, new SimpleMeterRegistry(), 16, 1, 50, Duration.ofSeconds(5));
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -49,8 +65,7 @@ public class PaymentControllerTest {
 
     @Test
     void testCreatePayment() throws Exception {
-        Payment paymentInput = new Payment();
-        paymentInput.setId(null);
+        Payment paymentInput = new Payment(null, "customer-1", 100.0, "OVO", "LUNAS", null);
 
 
         Payment paymentOutput = new Payment();
@@ -68,6 +83,24 @@ public class PaymentControllerTest {
                 .andExpect(header().string("Location", "/payments/" + generatedId));
     }
 
+    @Test
+    void testCreatePayment_RetryWithIdempotencyKeyIsReplayed() throws Exception {
+        Payment paymentInput = new Payment(null, "customer-1", 50.0, "CASH", "LUNAS", null);
+        Payment paymentOutput = new Payment(UUID.randomUUID().toString(), "customer-1", 50.0, "CASH", "LUNAS", new Date());
+        when(paymentService.createPayment(any(Payment.class))).thenReturn(paymentOutput);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/payments")
+                            .header(IdempotencyStore.HEADER, "payment-retry-key")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(paymentInput)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Location", "/payments/" + paymentOutput.getId()));
+        }
+
+        Mockito.verify(paymentService, Mockito.times(1)).createPayment(any(Payment.class));
+    }
+
     @Test
     void testCreatePayment_InvalidJson() throws Exception {
         mockMvc.perform(post("/payments")
@@ -76,19 +109,75 @@ public class PaymentControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testCreatePayment_InvalidStatusOrMethod() throws Exception {
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new Payment(null, "customer-1", 100.0, "OVO", "PENDING", null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid status"));
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new Payment(null, "customer-1", 100.0, " ", "LUNAS", null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid method"));
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new Payment(null, "customer-1", 100.0, "X".repeat(33), "LUNAS", null))))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(paymentService, Mockito.never()).createPayment(any(Payment.class));
+    }
+
     @Test
     void testGetPaymentsByCustomerId() throws Exception {
-        List<Payment> mockPayments = Collections.singletonList(new Payment());
-        when(paymentService.getPaymentsByCustomerId("123")).thenReturn(mockPayments);
+        PaymentPageDTO page = new PaymentPageDTO(Collections.singletonList(new Payment()), "next", true);
+        when(paymentService.getPaymentHistory("123", null, null, null, 20)).thenReturn(page);
 
         mockMvc.perform(get("/payments/customer/123"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void testGetPaymentsByCustomerId_PassesFiltersAndCursor() throws Exception {
+        when(paymentService.getPaymentHistory("123", "CICILAN", "OVO", "abc", 5))
+                .thenReturn(new PaymentPageDTO(List.of(), null, false));
+
+        mockMvc.perform(get("/payments/customer/123")
+                        .param("status", "CICILAN")
+                        .param("method", "OVO")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void testGetPaymentsByCustomerId_InvalidCursor() throws Exception {
+        when(paymentService.getPaymentHistory("123", null, null, "garbage", 20))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: garbage"));
+
+        mockMvc.perform(get("/payments/customer/123").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetPaymentsByCustomerId_InvalidFilter() throws Exception {
+        mockMvc.perform(get("/payments/customer/123").param("status", "PENDING"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/payments/customer/123").param("method", "OVO;DROP"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(paymentService, Mockito.never()).getPaymentHistory(any(), any(), any(), any(), Mockito.anyInt());
     }
 
     @Test
     void testGetPaymentsByCustomerId_NotFound() throws Exception {
-        when(paymentService.getPaymentsByCustomerId("123"))
+        when(paymentService.getPaymentHistory("123", null, null, null, 20))
                 .thenThrow(new RuntimeException("Customer not found"));
 
         mockMvc.perform(get("/payments/customer/123"))
@@ -112,6 +201,43 @@ public class PaymentControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testUpdatePaymentStatus_NotFound() throws Exception {
+        Mockito.doThrow(new NoSuchElementException("Payment not found with id: missing"))
+                .when(paymentService).updatePaymentStatus("missing", "LUNAS");
+
+        mockMvc.perform(put("/payments/missing/status")
+                        .param("status", "LUNAS"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Payment not found with id: missing"));
+    }
+
+    @Test
+    void testUpdatePaymentStatuses() throws Exception {
+        when(paymentService.updatePaymentStatuses(List.of("p1", "p2", "p1", "p3"), "LUNAS")).thenReturn(2);
+
+        mockMvc.perform(put("/payments/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paymentIds\":[\"p1\",\"p2\",\"p1\",\"p3\"],\"status\":\"LUNAS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.updated").value(2));
+    }
+
+    @Test
+    void testUpdatePaymentStatuses_Invalid() throws Exception {
+        mockMvc.perform(put("/payments/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paymentIds\":[\"p1\"],\"status\":\"invalid\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/payments/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paymentIds\":[],\"status\":\"LUNAS\"}"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(paymentService, Mockito.never()).updatePaymentStatuses(any(), any());
+    }
+
     @Test
     void testDeletePayment() throws Exception {
         mockMvc.perform(delete("/payments/abc123"))
@@ -129,6 +255,16 @@ public class PaymentControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void testDeletePayment_NotFound() throws Exception {
+        Mockito.doThrow(new NoSuchElementException("Payment not found with id: missing"))
+                .when(paymentService).deletePayment("missing");
+
+        mockMvc.perform(delete("/payments/missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Payment not found with id: missing"));
+    }
+
     @Test
     void testGetPaymentById() throws Exception {
         Payment payment = new Payment();
@@ -0,0 +1,89 @@
+package id.ac.ui.cs.advprog.productservice.controller;
+
+import id.ac.ui.cs.advprog.productservice.dto.SalesStatsDTO;
+import id.ac.ui.cs.advprog.productservice.enums.SalesGranularity;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.service.SalesRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesStatsControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @InjectMocks
+    private SalesStatsController salesStatsController;
+
+    private SalesStatsDTO stats;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(salesStatsController).build();
+        stats = new SalesStatsDTO(new Date(), new Date(), 2, 500.0, 5,
+                Map.of(TransactionStatus.COMPLETED, 2L), Map.of("CASH", 2L));
+    }
+
+    @Test
+    void getSummary() throws Exception {
+        when(salesRollupService.getSummary(any(Date.class), any(Date.class))).thenReturn(stats);
+
+        mockMvc.perform(get("/api/transactions/stats")
+                        .param("startDate", "2025-01-01T00:00:00.000Z")
+                        .param("endDate", "2025-01-02T00:00:00.000Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.revenue").value(500.0))
+                .andExpect(jsonPath("$.byStatus.COMPLETED").value(2));
+    }
+
+    @Test
+    void getBuckets_Daily() throws Exception {
+        when(salesRollupService.getBuckets(any(Date.class), any(Date.class), eq(SalesGranularity.DAY)))
+                .thenReturn(List.of(stats));
+
+        mockMvc.perform(get("/api/transactions/stats/buckets")
+                        .param("startDate", "2025-01-01T00:00:00.000Z")
+                        .param("endDate", "2025-01-08T00:00:00.000Z")
+                        .param("granularity", "day"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].itemsSold").value(5));
+    }
+
+    @Test
+    void getBuckets_UnknownGranularity() throws Exception {
+        mockMvc.perform(get("/api/transactions/stats/buckets")
+                        .param("startDate", "2025-01-01T00:00:00.000Z")
+                        .param("endDate", "2025-01-08T00:00:00.000Z")
+                        .param("granularity", "week"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rebuild() throws Exception {
+        when(salesRollupService.rebuild()).thenReturn(42L);
+
+        mockMvc.perform(post("/api/transactions/stats/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions").value(42));
+    }
+}
@@ -1,16 +1,26 @@
 package id.ac.ui.cs.advprog.productservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.productservice.dto.BatchResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.JobDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionUpdateDTO;
+import id.ac.ui.cs.advprog.productservice.enums.JobStatus;
+import id.ac.ui.cs.advprog.productservice.enums.StreamFormat;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.service.BatchJobService;
+import id.ac.ui.cs.advprog.productservice.service.GroupCommitCheckout;
+import id.ac.ui.cs.advprog.productservice.service.IdempotencyStore;
 import id.ac.ui.cs.advprog.productservice.service.TransactionService;
+import id.ac.ui.cs.advprog.productservice.service.TransactionStreamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -19,8 +29,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +50,18 @@ class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private TransactionStreamService transactionStreamService;
+
+    @Mock
+    private BatchJobService batchJobService;
+
+    @Mock
+    private GroupCommitCheckout groupCommitCheckout;
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(new ObjectMapper(), 100, Duration.ofMinutes(5));
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -118,6 +144,68 @@ class TransactionControllerTest {
         verify(transactionService).createTransaction(any(TransactionRequestDTO.class));
     }
 
+    @Test
+    void createTransaction_MalformedPaymentMethod() throws Exception {
+        requestDTO.setPaymentMethod("'; DROP TABLE payments; --");
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid paymentMethod"));
+
+        verify(transactionService, never()).createTransaction(any(TransactionRequestDTO.class));
+    }
+
+    @Test
+    void createTransaction_RetryWithIdempotencyKeyIsReplayed() throws Exception {
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class))).thenReturn(transactionDTO);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/transactions")
+                            .header(IdempotencyStore.HEADER, "retry-key")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(transactionId));
+        }
+
+        verify(transactionService, times(1)).createTransaction(any(TransactionRequestDTO.class));
+    }
+
+    @Test
+    void createTransaction_IdempotencyKeyReusedForOtherRequest() throws Exception {
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class))).thenReturn(transactionDTO);
+        mockMvc.perform(post("/api/transactions")
+                        .header(IdempotencyStore.HEADER, "reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isCreated());
+
+        requestDTO.setCustomerId("customer-456");
+        mockMvc.perform(post("/api/transactions")
+                        .header(IdempotencyStore.HEADER, "reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(transactionService, times(1)).createTransaction(any(TransactionRequestDTO.class));
+    }
+
+    @Test
+    void createTransaction_GoesThroughGroupCommitWhenEnabled() throws Exception {
+        when(groupCommitCheckout.isEnabled()).thenReturn(true);
+        when(groupCommitCheckout.createTransaction(any(TransactionRequestDTO.class))).thenReturn(transactionDTO);
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(transactionId));
+
+        verify(transactionService, never()).createTransaction(any(TransactionRequestDTO.class));
+    }
+
     @Test
     void getTransactionById_Success() throws Exception {
         when(transactionService.getTransactionById(transactionId)).thenReturn(transactionDTO);
@@ -190,6 +278,54 @@ class TransactionControllerTest {
         verify(transactionService).getTransactionsByDateRange(any(Date.class), any(Date.class));
     }
 
+    @Test
+    void streamTransactions_Ndjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(7);
+            out.write("{\"id\":\"test-transaction-id\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(transactionStreamService).writeTransactions(
+                isNull(), eq(TransactionStatus.PENDING), isNull(), isNull(), isNull(), isNull(),
+                eq(StreamFormat.NDJSON), any(OutputStream.class));
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/transactions/stream")
+                        .param("status", "PENDING")
+                        .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":\"test-transaction-id\"}\n"));
+    }
+
+    @Test
+    void streamTransactions_DefaultsToJsonArray() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/transactions/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        verify(transactionStreamService).writeTransactions(
+                isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(StreamFormat.JSON_ARRAY), any(OutputStream.class));
+    }
+
+    @Test
+    void suggestCustomerIds_Success() throws Exception {
+        when(transactionService.suggestCustomerIds("cust", 10)).thenReturn(List.of("customer-123"));
+
+        mockMvc.perform(get("/api/transactions/search/customers").param("prefix", "cust"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("customer-123"));
+
+        verify(transactionService).suggestCustomerIds("cust", 10);
+    }
+
     @Test
     void updateTransaction_Success() throws Exception {
         when(transactionService.updateTransaction(eq(transactionId), any(TransactionUpdateDTO.class))).thenReturn(transactionDTO);
@@ -258,6 +394,19 @@ class TransactionControllerTest {
         verify(transactionService).getOngoingTransactions();
     }
 
+    @Test
+    void countOngoingTransactions_Success() throws Exception {
+        Map<TransactionStatus, Long> counts = new EnumMap<>(TransactionStatus.class);
+        counts.put(TransactionStatus.PENDING, 2L);
+        counts.put(TransactionStatus.IN_PROGRESS, 1L);
+        when(transactionService.countOngoingTransactions()).thenReturn(counts);
+
+        mockMvc.perform(get("/api/transactions/ongoing/counts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING").value(2))
+                .andExpect(jsonPath("$.IN_PROGRESS").value(1));
+    }
+
     @Test
     void getPendingTransactions_Success() throws Exception {
         when(transactionService.getTransactionsByStatus(TransactionStatus.PENDING)).thenReturn(transactionList);
@@ -282,9 +431,9 @@ class TransactionControllerTest {
 
     @Test
     void filterTransactions_Success() throws Exception {
-        when(transactionService.filterTransactions(
-                anyString(), anyList(), anyList(), any(Date.class), any(Date.class), anyString(), anyString()))
-                .thenReturn(transactionList);
+        when(transactionService.filterTransactionsPage(
+                anyString(), anyList(), anyList(), any(Date.class), any(Date.class), anyString(), anyString(), isNull(), eq(20)))
+                .thenReturn(new TransactionPageDTO(transactionList, "next-cursor", true));
 
         mockMvc.perform(get("/api/transactions/filter")
                         .param("customerId", "customer-123")
@@ -295,10 +444,47 @@ class TransactionControllerTest {
                         .param("sortBy", "createdAt")
                         .param("sortDirection", "desc"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(transactionId));
+                .andExpect(jsonPath("$.items[0].id").value(transactionId))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasMore").value(true));
 
-        verify(transactionService).filterTransactions(
-                anyString(), anyList(), anyList(), any(Date.class), any(Date.class), anyString(), anyString());
+        verify(transactionService).filterTransactionsPage(
+                anyString(), anyList(), anyList(), any(Date.class), any(Date.class), anyString(), anyString(), isNull(), eq(20));
+    }
+
+    @Test
+    void filterTransactions_WithCursorAndSize() throws Exception {
+        when(transactionService.filterTransactionsPage(
+                isNull(), isNull(), isNull(), isNull(), isNull(), eq("totalAmount"), eq("asc"), eq("abc"), eq(5)))
+                .thenReturn(new TransactionPageDTO(transactionList, null, false));
+
+        mockMvc.perform(get("/api/transactions/filter")
+                        .param("sortBy", "totalAmount")
+                        .param("sortDirection", "asc")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void filterTransactions_MalformedPaymentMethod() throws Exception {
+        mockMvc.perform(get("/api/transactions/filter").param("paymentMethods", "CASH", "x".repeat(64)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid paymentMethod"));
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void filterTransactions_InvalidCursor() throws Exception {
+        when(transactionService.filterTransactionsPage(
+                any(), any(), any(), any(), any(), anyString(), anyString(), eq("bad"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/transactions/filter").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor: bad"));
     }
 
     @Test
@@ -329,13 +515,15 @@ class TransactionControllerTest {
     @Test
     void completeMultipleTransactions_Success() throws Exception {
         List<String> transactionIds = Collections.singletonList(transactionId);
-        when(transactionService.batchCompleteTransactions(anyList())).thenReturn(1);
+        when(transactionService.batchCompleteTransactions(anyList())).thenReturn(batchResult());
 
         mockMvc.perform(post("/api/transactions/batch/complete")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactionIds)))
                 .andExpect(status().isOk())
-                .andExpect(content().string("1"));
+                .andExpect(jsonPath("$.processed[0]").value(transactionId))
+                .andExpect(jsonPath("$.processedCount").value(1))
+                .andExpect(jsonPath("$.skipped['missing-id']").value("Transaction not found"));
 
         verify(transactionService).batchCompleteTransactions(anyList());
     }
@@ -343,48 +531,67 @@ class TransactionControllerTest {
     @Test
     void cancelMultipleTransactions_Success() throws Exception {
         List<String> transactionIds = Collections.singletonList(transactionId);
-        when(transactionService.batchCancelTransactions(anyList())).thenReturn(1);
+        when(transactionService.batchCancelTransactions(anyList())).thenReturn(batchResult());
 
         mockMvc.perform(post("/api/transactions/batch/cancel")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactionIds)))
                 .andExpect(status().isOk())
-                .andExpect(content().string("1"));
+                .andExpect(jsonPath("$.processedCount").value(1));
 
         verify(transactionService).batchCancelTransactions(anyList());
     }
 
     @Test
-    void completeMultipleTransactionsAsync_Success() throws Exception {
+    void completeMultipleTransactionsAsync_ReturnsJobAtOnce() throws Exception {
         List<String> transactionIds = Collections.singletonList(transactionId);
-        when(transactionService.batchCompleteTransactionsAsync(anyList()))
-                .thenReturn(CompletableFuture.completedFuture(1));
+        when(batchJobService.submitComplete(anyList())).thenReturn(queuedJob(BatchJobService.BATCH_COMPLETE));
 
-        MvcResult mvcResult = mockMvc.perform(post("/api/transactions/batch/complete/async")
+        mockMvc.perform(post("/api/transactions/batch/complete/async")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactionIds)))
-                .andExpect(request().asyncStarted())
-                .andReturn();
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/jobs/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.type").value(BatchJobService.BATCH_COMPLETE));
 
-        mockMvc.perform(asyncDispatch(mvcResult))
-                .andExpect(status().isOk())
-                .andExpect(content().string("1"));
+        verify(batchJobService).submitComplete(transactionIds);
+        verify(transactionService, never()).batchCompleteTransactions(anyList());
     }
 
     @Test
-    void cancelMultipleTransactionsAsync_Success() throws Exception {
+    void cancelMultipleTransactionsAsync_ReturnsJobAtOnce() throws Exception {
         List<String> transactionIds = Collections.singletonList(transactionId);
-        when(transactionService.batchCancelTransactionsAsync(anyList()))
-                .thenReturn(CompletableFuture.completedFuture(1));
+        when(batchJobService.submitCancel(anyList())).thenReturn(queuedJob(BatchJobService.BATCH_CANCEL));
 
-        MvcResult mvcResult = mockMvc.perform(post("/api/transactions/batch/cancel/async")
+        mockMvc.perform(post("/api/transactions/batch/cancel/async")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactionIds)))
-                .andExpect(request().asyncStarted())
-                .andReturn();
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/jobs/job-1"));
 
-        mockMvc.perform(asyncDispatch(mvcResult))
-                .andExpect(status().isOk())
-                .andExpect(content().string("1"));
+        verify(batchJobService).submitCancel(transactionIds);
+    }
+
+    @Test
+    void batchAsync_QueueFullIsServiceUnavailable() throws Exception {
+        when(batchJobService.submitCancel(anyList())).thenThrow(new RejectedExecutionException("full"));
+
+        mockMvc.perform(post("/api/transactions/batch/cancel/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"t-1\"]"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    private JobDTO queuedJob(String type) {
+        return new JobDTO("job-1", type, JobStatus.QUEUED, 1, 0, 0, Map.of(), List.of(),
+                new Date(), null, null);
+    }
+
+    private BatchResultDTO batchResult() {
+        BatchResultDTO result = new BatchResultDTO();
+        result.getProcessed().add(transactionId);
+        result.getSkipped().put("missing-id", "Transaction not found");
+        return result;
     }
-}
\ No newline at end of file
+}
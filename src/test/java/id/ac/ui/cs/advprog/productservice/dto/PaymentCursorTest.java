@@ -0,0 +1,29 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentCursorTest {
+
+    @Test
+    void testRoundTrip() {
+        Payment payment = new Payment("payment-1", "c1", 10.0, "OVO", "CICILAN", new Date(1_700_000_000_123L));
+
+        String encoded = PaymentCursor.after(payment).encode();
+        PaymentCursor decoded = PaymentCursor.decode(encoded);
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals(new Date(1_700_000_000_123L), decoded.getCreatedAt());
+        assertEquals("payment-1", decoded.getId());
+    }
+
+    @Test
+    void testDecodeRejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> PaymentCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PaymentCursor.decode("Zm9v"));
+    }
+}
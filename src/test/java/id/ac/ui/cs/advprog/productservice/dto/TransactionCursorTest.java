@@ -0,0 +1,60 @@
+package id.ac.ui.cs.advprog.productservice.dto;
+
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new Transaction();
+        transaction.setId("transaction-1");
+        transaction.setCreatedAt(new Date(1_700_000_000_123L));
+        transaction.setUpdatedAt(new Date(1_700_000_100_456L));
+        transaction.setTotalAmount(1234.5);
+        transaction.setStatus(TransactionStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void testRoundTripForEverySortField() {
+        for (TransactionSortField field : TransactionSortField.values()) {
+            TransactionCursor cursor = TransactionCursor.after(transaction, field, true);
+
+            TransactionCursor decoded = TransactionCursor.decode(cursor.encode());
+
+            assertEquals(field, decoded.getSortField());
+            assertTrue(decoded.isDescending());
+            assertEquals(cursor.getSortValue(), decoded.getSortValue());
+            assertEquals("transaction-1", decoded.getId());
+        }
+    }
+
+    @Test
+    void testEncodedCursorIsUrlSafe() {
+        String encoded = TransactionCursor.after(transaction, TransactionSortField.CREATED_AT, false).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testDecodeRejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("Zm9v"));
+    }
+
+    @Test
+    void testSortFieldFromParamDefaultsToCreatedAt() {
+        assertEquals(TransactionSortField.TOTAL_AMOUNT, TransactionSortField.fromParam("totalamount"));
+        assertEquals(TransactionSortField.CREATED_AT, TransactionSortField.fromParam(null));
+        assertEquals(TransactionSortField.CREATED_AT, TransactionSortField.fromParam("unknown"));
+    }
+}
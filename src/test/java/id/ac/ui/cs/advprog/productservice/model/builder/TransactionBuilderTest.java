@@ -8,7 +8,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -168,6 +172,30 @@ class TransactionBuilderTest {
         assertEquals(500.0, transaction.getTotalAmount());
     }
 
+    @Test
+    void testWithProductQuantities() {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(product1.getId(), 2);
+        quantities.put(product2.getId(), 0);
+
+        Transaction transaction = builder
+                .withProductQuantities(quantities, Map.of(product1.getId(), product1, product2.getId(), product2))
+                .build();
+
+        assertEquals(1, transaction.getItems().size());
+        assertEquals(product1, transaction.getItems().get(0).getProduct());
+        assertSame(transaction, transaction.getItems().get(0).getTransaction());
+        assertEquals(200.0, transaction.getTotalAmount());
+    }
+
+    @Test
+    void testWithProductQuantitiesUnresolvedProduct() {
+        Map<UUID, Integer> quantities = Map.of(product2.getId(), 1);
+        Map<UUID, Product> resolved = Map.of(product1.getId(), product1);
+
+        assertThrows(NoSuchElementException.class, () -> builder.withProductQuantities(quantities, resolved));
+    }
+
     @Test
     void testCalculateTotalAmount() {
         Transaction transaction = builder
@@ -1,28 +1,178 @@
 package id.ac.ui.cs.advprog.productservice.model.command;
 
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.service.PaymentServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 public class PaymentInvokerTest {
 
+    private final PaymentServiceImpl paymentService = mock(PaymentServiceImpl.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PaymentInvoker invoker;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (invoker != null) {
+            invoker.stop();
+        }
+    }
+
     @Test
     void testRunExecutesCommandSuccessfully() {
-        // Arrange
         PaymentCommand command = mock(PaymentCommand.class);
-        PaymentInvoker invoker = new PaymentInvoker();
-        invoker.setCommand(command);
-
-        // Act
-        invoker.run();
+        invoker = invoker(16);
 
-        // Assert
+        assertSame(command, invoker.run(command));
         verify(command, times(1)).execute();
     }
+
+    @Test
+    void testRunRethrowsTheCommandsException() {
+        PaymentCommand command = mock(PaymentCommand.class);
+        doThrow(new IllegalStateException("boom")).when(command).execute();
+        invoker = invoker(16);
+
+        assertThrows(IllegalStateException.class, () -> invoker.run(command));
+    }
+
+    @Test
+    void testConsecutiveCreatesAreCoalescedIntoOneBatch() throws Exception {
+        when(paymentService.createPayments(anyList())).thenAnswer(invocation -> invocation
+                .<List<Payment>>getArgument(0).stream().map(PaymentInvokerTest::saved).toList());
+        when(paymentService.createPayment(any(Payment.class)))
+                .thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        invoker = invoker(16);
+        CompletableFuture<PaymentCommand> blocker = invoker.submit(blocking());
+
+        List<CompletableFuture<CreatePaymentCommand>> creates = List.of(
+                invoker.submit(new CreatePaymentCommand(paymentService, payment("c1"))),
+                invoker.submit(new CreatePaymentCommand(paymentService, payment("c2"))),
+                invoker.submit(new CreatePaymentCommand(paymentService, payment("c3"))));
+        CompletableFuture<DeletePaymentCommand> delete = invoker.submit(new DeletePaymentCommand(paymentService, "p9"));
+        CompletableFuture<CreatePaymentCommand> last = invoker.submit(new CreatePaymentCommand(paymentService, payment("c4")));
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < creates.size(); i++) {
+            Payment created = creates.get(i).get(5, TimeUnit.SECONDS).getResult();
+            assertEquals("c" + (i + 1), created.getCustomerId());
+            assertNotNull(created.getId());
+        }
+        delete.get(5, TimeUnit.SECONDS);
+        assertEquals("c4", last.get(5, TimeUnit.SECONDS).getResult().getCustomerId());
+
+        InOrder order = inOrder(paymentService);
+        order.verify(paymentService).createPayments(argThat(payments -> payments.size() == 3));
+        order.verify(paymentService).deletePayment("p9");
+        order.verify(paymentService).createPayment(argThat(payment -> payment.getCustomerId().equals("c4")));
+        assertEquals(1, meterRegistry.get("payments.commands.batch_size").summary().count());
+        assertEquals(3.0, meterRegistry.get("payments.commands.batch_size").summary().totalAmount());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedOneByOne() throws Exception {
+        when(paymentService.createPayments(anyList())).thenThrow(new IllegalStateException("constraint violated"));
+        when(paymentService.createPayment(argThat(payment -> payment.getCustomerId().equals("good"))))
+                .thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(paymentService.createPayment(argThat(payment -> payment.getCustomerId().equals("bad"))))
+                .thenThrow(new IllegalStateException("constraint violated"));
+        invoker = invoker(16);
+        invoker.submit(blocking());
+
+        CompletableFuture<CreatePaymentCommand> good = invoker.submit(new CreatePaymentCommand(paymentService, payment("good")));
+        CompletableFuture<CreatePaymentCommand> bad = invoker.submit(new CreatePaymentCommand(paymentService, payment("bad")));
+        release.countDown();
+
+        assertEquals("good", good.get(5, TimeUnit.SECONDS).getResult().getCustomerId());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
     @Test
-    void testRunWithoutSettingCommandThrowsException() {
-        PaymentInvoker invoker = new PaymentInvoker();
+    void testSubmitRejectedWhenQueueIsFull() throws Exception {
+        invoker = invoker(1);
+        CountDownLatch started = new CountDownLatch(1);
+        invoker.submit(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        invoker.submit(mock(PaymentCommand.class));
+
+        assertThrows(RejectedExecutionException.class, () -> invoker.submit(mock(PaymentCommand.class)));
+        assertEquals(1.0, meterRegistry.get("payments.commands.queue_depth").gauge().value());
+    }
+
+    @Test
+    void testRunWithdrawsACommandStillQueuedAtTheTimeout() throws Exception {
+        invoker = invoker(16, Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        invoker.submit(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        PaymentCommand queued = mock(PaymentCommand.class);
+
+        assertThrows(RejectedExecutionException.class, () -> invoker.run(queued));
+        release.countDown();
+
+        verify(queued, after(200).never()).execute();
+    }
+
+    @Test
+    void testRunStopsWaitingForACommandThatOverruns() {
+        invoker = invoker(16, Duration.ofMillis(500));
+
+        assertThrows(PaymentInvoker.CommandTimeoutException.class, () -> invoker.run(blocking()));
+    }
+
+    private PaymentInvoker invoker(int queueCapacity) {
+        return invoker(queueCapacity, Duration.ofSeconds(5));
+    }
+
+    private PaymentInvoker invoker(int queueCapacity, Duration timeout) {
+        return new PaymentInvoker(paymentService, meterRegistry, queueCapacity, 1, 50, timeout);
+    }
+
+    // Holds the single worker so that commands submitted meanwhile are taken as one batch
+    private PaymentCommand blocking() {
+        return this::awaitRelease;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Payment payment(String customerId) {
+        return new Payment(null, customerId, 10.0, "OVO", "LUNAS", new Date());
+    }
 
-        // Assert
-        org.junit.jupiter.api.Assertions.assertThrows(NullPointerException.class, invoker::run);
+    private static Payment saved(Payment payment) {
+        return new Payment("id-" + payment.getCustomerId(), payment.getCustomerId(), payment.getAmount(),
+                payment.getMethod(), payment.getStatus(), payment.getCreatedAt());
     }
 }
@@ -0,0 +1,145 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Before/after benchmark for dictionary encoding: fills the payment and transaction columns as they were
+ * (VARCHAR labels), measures table size and a filter and a group-by on each table, runs
+ * {@link EncodedColumnMigration} over the same rows and measures again. Results must match exactly.
+ * Run with {@code ./gradlew functionalTest}; results are printed to stdout. H2 reports table plus index
+ * pages; on PostgreSQL compare {@code pg_table_size} and {@code pg_indexes_size} instead.
+ */
+class EncodedColumnFunctionalTest {
+
+    private static final int ROWS = 100_000;
+    private static final int BATCH = 1_000;
+    private static final int RUNS = 20;
+    private static final String[] METHODS = {"CASH", "CARD", "OVO", "GoPay", "DANA", "BANK_TRANSFER"};
+    private static final String[] STATUSES = {"LUNAS", "CICILAN"};
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:encoded-column-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void compareVarcharAndEncodedColumns() {
+        createLegacySchema();
+        fill();
+        Result before = measure("payment_method", "status", "method", "OVO", "CICILAN");
+
+        assertEquals(3, new EncodedColumnMigration(dataSource).migrate());
+        // What ddl-auto=update recreates on the next start
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_payment_method_created "
+                + "ON transactions (payment_method_code, created_at)");
+        short ovo = new ValueDictionary(dataSource, PaymentMethodConverter.DICTIONARY).lookup("OVO");
+        short cicilan = PaymentStatus.CICILAN.getCode();
+        Result after = measure("payment_method_code", "status_code", "method_code", ovo, cicilan);
+
+        print("VARCHAR", before);
+        print("SMALLINT", after);
+        assertEquals(before.filteredTransactions(), after.filteredTransactions());
+        assertEquals(before.filteredPayments(), after.filteredPayments());
+        assertEquals(before.groups(), after.groups());
+    }
+
+    private Result measure(String paymentMethodColumn, String statusColumn, String methodColumn,
+                           Object method, Object status) {
+        Timestamp since = new Timestamp(0);
+        long filteredTransactions = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE "
+                + paymentMethodColumn + " = ? AND created_at >= ?", Long.class, method, since);
+        double transactionFilterMillis = medianMillis(() -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE " + paymentMethodColumn + " = ? AND created_at >= ?",
+                Long.class, method, since));
+
+        long filteredPayments = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE "
+                + statusColumn + " = ? AND " + methodColumn + " <> ?", Long.class, status, method);
+        double paymentFilterMillis = medianMillis(() -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE " + statusColumn + " = ? AND " + methodColumn + " <> ?",
+                Long.class, status, method));
+
+        String groupBy = "SELECT COUNT(*), SUM(total_amount) FROM transactions GROUP BY " + paymentMethodColumn
+                + " ORDER BY COUNT(*), SUM(total_amount)";
+        List<String> groups = jdbcTemplate.query(groupBy, (row, index) -> row.getLong(1) + "/" + row.getDouble(2));
+        double groupByMillis = medianMillis(() -> jdbcTemplate.queryForList(groupBy));
+        double paymentGroupByMillis = medianMillis(() -> jdbcTemplate.queryForList(
+                "SELECT " + statusColumn + ", " + methodColumn + ", COUNT(*) FROM payments GROUP BY "
+                        + statusColumn + ", " + methodColumn));
+
+        return new Result(tableSize("TRANSACTIONS"), tableSize("PAYMENTS"), filteredTransactions, filteredPayments,
+                groups, transactionFilterMillis, paymentFilterMillis, groupByMillis, paymentGroupByMillis);
+    }
+
+    private static void print(String encoding, Result result) {
+        System.out.printf("%s: transactions %d bytes, payments %d bytes; filter %.2f ms (transactions), "
+                        + "%.2f ms (payments); group-by %.2f ms (transactions), %.2f ms (payments)%n",
+                encoding, result.transactionBytes(), result.paymentBytes(), result.transactionFilterMillis(),
+                result.paymentFilterMillis(), result.groupByMillis(), result.paymentGroupByMillis());
+    }
+
+    private static double medianMillis(Supplier<?> query) {
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            assertNotNull(query.get());
+            nanos[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2] / 1_000_000.0;
+    }
+
+    private long tableSize(String table) {
+        return jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED('" + table + "')", Long.class);
+    }
+
+    private void fill() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < ROWS; from += BATCH) {
+            List<Object[]> payments = new ArrayList<>(BATCH);
+            List<Object[]> transactions = new ArrayList<>(BATCH);
+            for (int i = from; i < from + BATCH; i++) {
+                String method = METHODS[i % METHODS.length];
+                payments.add(new Object[]{"p" + i, "customer-" + i % 1_000, 10.0 + i % 97, method,
+                        STATUSES[i % 7 == 0 ? 1 : 0], now});
+                transactions.add(new Object[]{"t" + i, "customer-" + i % 1_000, 10.0 + i % 97, method,
+                        "COMPLETED", now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO payments VALUES (?, ?, ?, ?, ?, ?)", payments);
+            jdbcTemplate.batchUpdate("INSERT INTO transactions VALUES (?, ?, ?, ?, ?, ?)", transactions);
+        }
+    }
+
+    // The columns and indexes as they were before encoding
+    private void createLegacySchema() {
+        jdbcTemplate.execute("CREATE TABLE payments (id VARCHAR(36) PRIMARY KEY, customer_id VARCHAR(255) NOT NULL, "
+                + "amount DOUBLE PRECISION NOT NULL, method VARCHAR(255) NOT NULL, status VARCHAR(255) NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_payments_customer_created ON payments (customer_id, created_at)");
+        jdbcTemplate.execute("CREATE TABLE transactions (id VARCHAR(36) PRIMARY KEY, customer_id VARCHAR(255) NOT NULL, "
+                + "total_amount DOUBLE PRECISION NOT NULL, payment_method VARCHAR(255) NOT NULL, "
+                + "status VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_payment_method_created "
+                + "ON transactions (payment_method, created_at)");
+    }
+
+    private record Result(long transactionBytes, long paymentBytes, long filteredTransactions, long filteredPayments,
+                          List<String> groups, double transactionFilterMillis, double paymentFilterMillis,
+                          double groupByMillis, double paymentGroupByMillis) {
+    }
+}
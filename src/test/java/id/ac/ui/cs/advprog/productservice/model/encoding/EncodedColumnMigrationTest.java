@@ -0,0 +1,115 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedColumnMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:encoded-column-migration;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void migrate_RewritesLegacyColumnsAsCodes() {
+        createLegacySchema();
+        jdbcTemplate.update("INSERT INTO payments VALUES ('p1', 'c1', 100.0, 'OVO', 'LUNAS', CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO payments VALUES ('p2', 'c1', 50.0, 'CASH', 'CICILAN', CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO transactions VALUES ('t1', 'c1', 100.0, 'OVO', 'COMPLETED', CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO transactions VALUES ('t2', 'c2', 80.0, 'GoPay', 'PENDING', CURRENT_TIMESTAMP)");
+
+        assertEquals(3, new EncodedColumnMigration(dataSource).migrate());
+
+        ValueDictionary methods = new ValueDictionary(dataSource, PaymentMethodConverter.DICTIONARY);
+        Map<String, Object> p2 = jdbcTemplate.queryForMap("SELECT * FROM payments WHERE id = 'p2'");
+        assertEquals("CASH", methods.decode(((Number) p2.get("METHOD_CODE")).shortValue()));
+        assertEquals(PaymentStatus.CICILAN.getCode(), ((Number) p2.get("STATUS_CODE")).shortValue());
+        assertFalse(p2.containsKey("METHOD"));
+        assertFalse(p2.containsKey("STATUS"));
+
+        // Both tables share the method dictionary, so OVO has one code in both
+        Short paymentOvo = jdbcTemplate.queryForObject("SELECT method_code FROM payments WHERE id = 'p1'", Short.class);
+        Short transactionOvo = jdbcTemplate.queryForObject(
+                "SELECT payment_method_code FROM transactions WHERE id = 't1'", Short.class);
+        assertEquals(paymentOvo, transactionOvo);
+        assertEquals("GoPay", methods.decode(jdbcTemplate.queryForObject(
+                "SELECT payment_method_code FROM transactions WHERE id = 't2'", Short.class)));
+
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_name = 'TRANSACTIONS'", String.class);
+        assertFalse(indexes.contains("IDX_TRANSACTIONS_PAYMENT_METHOD_CREATED"));
+        assertThrows(RuntimeException.class, () -> jdbcTemplate.update(
+                "INSERT INTO payments (id, customer_id, amount, created_at) VALUES ('p3', 'c1', 1.0, CURRENT_TIMESTAMP)"));
+    }
+
+    @Test
+    void migrate_SecondRunDoesNothing() {
+        createLegacySchema();
+        jdbcTemplate.update("INSERT INTO payments VALUES ('p1', 'c1', 100.0, 'OVO', 'LUNAS', CURRENT_TIMESTAMP)");
+        EncodedColumnMigration migration = new EncodedColumnMigration(dataSource);
+        migration.migrate();
+
+        assertEquals(0, migration.migrate());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM value_dictionary", Integer.class));
+    }
+
+    @Test
+    void migrate_RenumbersStatusesEncodedThroughTheDictionary() {
+        jdbcTemplate.execute("CREATE TABLE payments (id VARCHAR(36) PRIMARY KEY, status_code SMALLINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE value_dictionary (dictionary VARCHAR(32) NOT NULL, code SMALLINT NOT NULL, "
+                + "label VARCHAR(255) NOT NULL, PRIMARY KEY (dictionary, code))");
+        // First seen in the opposite order of the fixed codes
+        jdbcTemplate.update("INSERT INTO value_dictionary VALUES ('payment_status', 1, 'CICILAN')");
+        jdbcTemplate.update("INSERT INTO value_dictionary VALUES ('payment_status', 2, 'LUNAS')");
+        jdbcTemplate.update("INSERT INTO value_dictionary VALUES ('payment_method', 1, 'OVO')");
+        jdbcTemplate.update("INSERT INTO payments VALUES ('p1', 1)");
+        jdbcTemplate.update("INSERT INTO payments VALUES ('p2', 2)");
+
+        new EncodedColumnMigration(dataSource).migrate();
+
+        assertEquals(PaymentStatus.CICILAN.getCode(), jdbcTemplate.queryForObject(
+                "SELECT status_code FROM payments WHERE id = 'p1'", Short.class));
+        assertEquals(PaymentStatus.LUNAS.getCode(), jdbcTemplate.queryForObject(
+                "SELECT status_code FROM payments WHERE id = 'p2'", Short.class));
+        assertEquals(List.of("payment_method"), jdbcTemplate.queryForList(
+                "SELECT dictionary FROM value_dictionary", String.class));
+    }
+
+    @Test
+    void migrate_FreshDatabaseIsLeftAlone() {
+        assertEquals(0, new EncodedColumnMigration(dataSource).migrate());
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'VALUE_DICTIONARY'", Integer.class));
+    }
+
+    // The columns as they were before encoding
+    private void createLegacySchema() {
+        jdbcTemplate.execute("CREATE TABLE payments (id VARCHAR(36) PRIMARY KEY, customer_id VARCHAR(255) NOT NULL, "
+                + "amount DOUBLE PRECISION NOT NULL, method VARCHAR(255) NOT NULL, status VARCHAR(255) NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE transactions (id VARCHAR(36) PRIMARY KEY, customer_id VARCHAR(255) NOT NULL, "
+                + "total_amount DOUBLE PRECISION NOT NULL, payment_method VARCHAR(255) NOT NULL, "
+                + "status VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_payment_method_created "
+                + "ON transactions (payment_method, created_at)");
+    }
+}
@@ -0,0 +1,123 @@
+package id.ac.ui.cs.advprog.productservice.model.encoding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueDictionaryTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:value-dictionary;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE value_dictionary (dictionary VARCHAR(32) NOT NULL, "
+                + "code SMALLINT NOT NULL, label VARCHAR(255) NOT NULL, PRIMARY KEY (dictionary, code), "
+                + "CONSTRAINT uk_value_dictionary_label UNIQUE (dictionary, label))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS value_dictionary");
+    }
+
+    @Test
+    void encode_AssignsTheNextCodeOncePerLabel() {
+        ValueDictionary dictionary = new ValueDictionary(dataSource, "payment_method");
+
+        assertEquals(1, encode(dictionary, "OVO"));
+        assertEquals(2, encode(dictionary, "CASH"));
+        assertEquals(1, encode(dictionary, "OVO"));
+        assertEquals("CASH", dictionary.decode((short) 2));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM value_dictionary", Integer.class));
+    }
+
+    @Test
+    void encode_DictionariesAreNumberedSeparately() {
+        ValueDictionary methods = new ValueDictionary(dataSource, "payment_method");
+        ValueDictionary others = new ValueDictionary(dataSource, "other");
+
+        assertEquals(1, encode(methods, "OVO"));
+        assertEquals(1, encode(others, "OVO"));
+        assertEquals("OVO", methods.decode((short) 1));
+        assertEquals("OVO", others.decode((short) 1));
+    }
+
+    @Test
+    void encode_CodeRollsBackWithTheCallersTransaction() {
+        ValueDictionary dictionary = new ValueDictionary(dataSource, "payment_method");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            short code = dictionary.encode("GoPay");
+            assertEquals(code, dictionary.lookup("GoPay"));
+            assertEquals("GoPay", dictionary.decode(code));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(ValueDictionary.UNKNOWN, dictionary.lookup("GoPay"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM value_dictionary", Integer.class));
+    }
+
+    @Test
+    void encode_OutsideATransactionFails() {
+        ValueDictionary dictionary = new ValueDictionary(dataSource, "payment_method");
+
+        assertThrows(IllegalStateException.class, () -> dictionary.encode("OVO"));
+    }
+
+    @Test
+    void lookup_MissIsAnsweredFromMemory() throws Exception {
+        ValueDictionary dictionary = new ValueDictionary(dataSource, "payment_method");
+        short code = encode(dictionary, "OVO");
+        try (Connection connection = dataSource.getConnection()) {
+            dictionary.load(connection);
+        }
+        jdbcTemplate.execute("DROP TABLE value_dictionary");
+
+        assertEquals(code, dictionary.lookup("OVO"));
+        assertEquals(ValueDictionary.UNKNOWN, dictionary.lookup("not-a-method"));
+    }
+
+    @Test
+    void codesAssignedElsewhereArePickedUp() {
+        ValueDictionary first = new ValueDictionary(dataSource, "payment_method");
+        ValueDictionary second = new ValueDictionary(dataSource, "payment_method");
+        assertEquals(ValueDictionary.UNKNOWN, second.lookup("GoPay"));
+
+        short code = encode(first, "GoPay");
+
+        assertEquals("GoPay", second.decode(code));
+        assertEquals(code, second.lookup("GoPay"));
+        assertEquals(code + 1, encode(second, "DANA"));
+        assertEquals(code + 1, encode(first, "DANA"));
+    }
+
+    @Test
+    void decode_UnknownCodeFails() {
+        ValueDictionary dictionary = new ValueDictionary(dataSource, "payment_method");
+
+        assertThrows(IllegalStateException.class, () -> dictionary.decode((short) 42));
+    }
+
+    @Test
+    void of_SharesOneInstancePerDataSourceAndName() {
+        assertSame(ValueDictionary.of(dataSource, "payment_method"), ValueDictionary.of(dataSource, "payment_method"));
+        assertNotSame(ValueDictionary.of(dataSource, "payment_method"), ValueDictionary.of(dataSource, "other"));
+    }
+
+    private short encode(ValueDictionary dictionary, String label) {
+        return transactionTemplate.execute(status -> dictionary.encode(label));
+    }
+}
@@ -0,0 +1,128 @@
+package id.ac.ui.cs.advprog.productservice.model.id;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Before/after benchmark for the id generators: contended generation throughput, then insert
+ * throughput and on-disk size of the product table keyed by each generator's ids.
+ * Run with {@code ./gradlew functionalTest}; results are printed to stdout.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdGenerationFunctionalTest {
+
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 200_000;
+    private static final int ROWS = 20_000;
+    private static final int FLUSH_EVERY = 1_000;
+    private static final String CATEGORY = "id-benchmark";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final IdGenerator original = Ids.current();
+
+    @AfterEach
+    void tearDown() {
+        Ids.use(original);
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("DELETE FROM Product p WHERE p.category = :category")
+                .setParameter("category", CATEGORY)
+                .executeUpdate());
+    }
+
+    @Test
+    void compareRandomAndTimeOrderedIds() throws Exception {
+        for (IdGenerator generator : List.of(new RandomUuidGenerator(), new UuidV7Generator())) {
+            String name = generator.getClass().getSimpleName();
+            Ids.use(generator);
+
+            double idsPerSecond = generateConcurrently(generator);
+            double rowsPerSecond = insertProducts();
+            String tableSize = tableSize();
+
+            System.out.printf("%s: %.0f ids/s over %d threads, %.0f inserts/s, product table %s%n",
+                    name, idsPerSecond, THREADS, rowsPerSecond, tableSize);
+
+            tearDown();
+        }
+    }
+
+    private double generateConcurrently(IdGenerator generator) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int n = 0; n < IDS_PER_THREAD; n++) {
+                    assertNotNull(generator.next());
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        pool.shutdown();
+
+        return (double) THREADS * IDS_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private double insertProducts() {
+        long begin = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(new Product("Benchmark " + i, CATEGORY, 1, 1.0));
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        long elapsedNanos = System.nanoTime() - begin;
+
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"product\" WHERE category = ?", Long.class, CATEGORY);
+        assertEquals(ROWS, rows);
+        return ROWS / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    // H2 reports table plus index pages; on PostgreSQL compare pg_relation_size of the primary key instead
+    private String tableSize() {
+        try {
+            Long bytes = jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED('\"product\"')", Long.class);
+            return bytes + " bytes";
+        } catch (RuntimeException e) {
+            return "n/a (" + e.getMessage() + ")";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package id.ac.ui.cs.advprog.productservice.model.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    private final UuidV7Generator generator = new UuidV7Generator();
+
+    @Test
+    void next_HasVersion7AndRfcVariant() {
+        UUID id = generator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void next_EmbedsCurrentMillis() {
+        long before = System.currentTimeMillis();
+        UUID id = generator.next();
+        long after = System.currentTimeMillis();
+
+        long embedded = id.getMostSignificantBits() >>> 16;
+        assertTrue(embedded >= before && embedded <= after);
+    }
+
+    @Test
+    void next_SortsByCreationTimeAcrossMilliseconds() throws InterruptedException {
+        UUID earlier = generator.next();
+        Thread.sleep(2);
+        UUID later = generator.next();
+
+        // Both the String form (transaction ids) and the byte form (uuid columns) must order by time
+        assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+        assertTrue(Long.compareUnsigned(earlier.getMostSignificantBits(), later.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    void next_IsUnique() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(ids.add(generator.next()));
+        }
+    }
+
+    @Test
+    void ids_UsesConfiguredGenerator() {
+        IdGenerator previous = Ids.current();
+        try {
+            Ids.use(new RandomUuidGenerator());
+            assertEquals(4, Ids.next().version());
+        } finally {
+            Ids.use(previous);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import id.ac.ui.cs.advprog.productservice.security.JwtService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -76,48 +77,49 @@ public class ProductControllerTest {
 
     @Test
     void testGetProductByName() throws Exception {
-        List<Product> products = Arrays.asList(testProduct);
-        when(productService.getAllProducts()).thenReturn(products);
+        when(productService.getProductByName("Test Laptop")).thenReturn(Optional.of(testProduct));
 
         mockMvc.perform(get("/product/Test Laptop"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Test Laptop"))
                 .andExpect(jsonPath("$.category").value("Electronics"))
                 .andExpect(jsonPath("$.id").value(testProductId.toString()));
-        verify(productService, times(1)).getAllProducts();
+        verify(productService, times(1)).getProductByName("Test Laptop");
+        verify(productService, times(0)).getAllProducts();
     }
 
     @Test
     void testGetProductByNameNotFound() throws Exception {
-        when(productService.getAllProducts()).thenReturn(Arrays.asList());
+        when(productService.getProductByName("NonExistent")).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/product/NonExistent"))
                 .andExpect(status().isNotFound());
-        verify(productService, times(1)).getAllProducts();
+        verify(productService, times(1)).getProductByName("NonExistent");
     }
 
     @Test
     void testGetProductByIdSuccess() throws Exception {
         String productId = testProductId.toString();
-        List<Product> products = Arrays.asList(testProduct);
-        when(productService.getAllProducts()).thenReturn(products);
+        when(productService.getCatalogProductById(testProductId)).thenReturn(Optional.of(testProduct));
 
         mockMvc.perform(get("/product/id/{id}", productId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Test Laptop"))
                 .andExpect(jsonPath("$.id").value(testProductId.toString()));
-        verify(productService, times(1)).getAllProducts();
+        verify(productService, times(1)).getCatalogProductById(testProductId);
+        verify(productService, times(0)).getAllProducts();
     }
 
     @Test
     void testGetProductByIdNotFound() throws Exception {
-        String productId = UUID.randomUUID().toString();
-        when(productService.getAllProducts()).thenReturn(Arrays.asList());
+        UUID missingId = UUID.randomUUID();
+        String productId = missingId.toString();
+        when(productService.getCatalogProductById(missingId)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/product/id/{id}", productId))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("Product with ID '" + productId + "' not found")); // Match controller message
-        verify(productService, times(1)).getAllProducts();
+        verify(productService, times(1)).getCatalogProductById(missingId);
     }
 
     @Test
@@ -125,7 +127,36 @@ public class ProductControllerTest {
         mockMvc.perform(get("/product/id/{id}", "invalid-uuid"))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Invalid UUID format: invalid-uuid")); // Match controller message
-        verify(productService, times(0)).getAllProducts();
+        verify(productService, times(0)).getCatalogProductById(any());
+    }
+
+    @Test
+    void testGetProductsByCategory() throws Exception {
+        when(productService.getProductsByCategory("Electronics")).thenReturn(List.of(testProduct));
+
+        mockMvc.perform(get("/product/category/{category}", "Electronics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Test Laptop"));
+        verify(productService, times(1)).getProductsByCategory("Electronics");
+    }
+
+    @Test
+    void testGetProductsBySupplier() throws Exception {
+        UUID supplierId = UUID.randomUUID();
+        testProduct.setSupplierId(supplierId);
+        when(productService.getProductsBySupplierId(supplierId)).thenReturn(List.of(testProduct));
+
+        mockMvc.perform(get("/product/supplier/{supplierId}", supplierId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testProductId.toString()));
+        verify(productService, times(1)).getProductsBySupplierId(supplierId);
+    }
+
+    @Test
+    void testGetProductsBySupplierInvalidFormat() throws Exception {
+        mockMvc.perform(get("/product/supplier/{supplierId}", "invalid-uuid"))
+                .andExpect(status().isBadRequest());
+        verify(productService, times(0)).getProductsBySupplierId(any());
     }
 
     @Test
@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.productservice.productmanagement.repository;
 
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.InventoryJournalEntry;
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -135,4 +136,41 @@ public class ProductRepositoryTest {
         List<Product> products = repository.findAll();
         assertTrue(products.size() >= 2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDecrementStockGuardedByAvailableStock() {
+        Product product = new Product("Laptop", "Electronics", 10, 999.99);
+        entityManager.persistAndFlush(product);
+
+        assertEquals(1, repository.decrementStock(product.getId(), 4));
+        assertEquals(0, repository.decrementStock(product.getId(), 7));
+        entityManager.clear();
+
+        assertEquals(6, repository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void testIncrementStock() {
+        Product product = new Product("Laptop", "Electronics", 10, 999.99);
+        entityManager.persistAndFlush(product);
+
+        assertEquals(1, repository.incrementStock(product.getId(), 5));
+        assertEquals(0, repository.incrementStock(UUID.randomUUID(), 5));
+        entityManager.clear();
+
+        assertEquals(15, repository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void testStockLevelAddsUnflushedJournal() {
+        Product product = repository.save(new Product("Laptop", "Electronics", 10, 999.99));
+        Product untouched = repository.save(new Product("Mouse", "Electronics", 4, 9.99));
+        entityManager.persist(new InventoryJournalEntry(product.getId(), -3));
+        entityManager.persist(new InventoryJournalEntry(product.getId(), 1));
+        entityManager.flush();
+
+        assertEquals(8L, repository.findStockLevel(product.getId()).orElseThrow().getStock());
+        assertEquals(4L, repository.findStockLevel(untouched.getId()).orElseThrow().getStock());
+        assertEquals(2, repository.findAllStockLevels().size());
+    }
+}
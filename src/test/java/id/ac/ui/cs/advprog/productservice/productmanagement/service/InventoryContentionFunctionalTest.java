@@ -0,0 +1,117 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.InventoryJournalRepository;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hot-row benchmark: many threads reserving one unit at a time from a single product, against the
+ * row itself and against the write-behind counters.
+ * Run with {@code ./gradlew functionalTest}; the throughput line is printed to stdout.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryContentionFunctionalTest {
+
+    private static final int THREADS = 32;
+    private static final int INITIAL_STOCK = 5_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InventoryJournalRepository journalRepository;
+
+    @Autowired
+    private ProductCatalog catalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void hotProductIsNeverOversold() throws Exception {
+        Product product = productRepository.save(new Product("Hot Item", "Benchmark", INITIAL_STOCK, 1.0));
+
+        double opsPerSecond = drain(inventoryService, product);
+
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStock());
+        System.out.printf("Inventory contention: %d threads, %d reservations (%.0f ops/s)%n",
+                THREADS, INITIAL_STOCK, opsPerSecond);
+    }
+
+    @Test
+    void hotProductIsNeverOversoldWithWriteBehind() throws Exception {
+        Product product = productRepository.save(new Product("Hot Item Write-Behind", "Benchmark", INITIAL_STOCK, 1.0));
+        WriteBehindInventory writeBehind = new WriteBehindInventory(productRepository, journalRepository,
+                transactionManager, true, 64, 5_000);
+        InventoryService writeBehindService = new InventoryService(productRepository, catalog, writeBehind);
+
+        double opsPerSecond = drain(writeBehindService, product);
+
+        // The row is untouched until the journal is flushed into it
+        assertEquals(INITIAL_STOCK, productRepository.findById(product.getId()).orElseThrow().getStock());
+        writeBehind.flush();
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertEquals(0, journalRepository.count());
+        System.out.printf("Inventory contention (write-behind): %d threads, %d reservations (%.0f ops/s)%n",
+                THREADS, INITIAL_STOCK, opsPerSecond);
+    }
+
+    private double drain(InventoryService service, Product product) throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                while (true) {
+                    Boolean ok = transactionTemplate.execute(status -> service.reserve(product.getId(), 1));
+                    if (Boolean.TRUE.equals(ok)) {
+                        reserved.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                        return null;
+                    }
+                }
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        pool.shutdown();
+
+        assertEquals(INITIAL_STOCK, reserved.get());
+        assertEquals(THREADS, rejected.get());
+        return reserved.get() / (elapsedNanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,161 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private WriteBehindInventory writeBehindInventory;
+
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    @Test
+    void testReserveSuccess() {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.decrementStock(productId, 3)).thenReturn(1);
+
+        assertTrue(inventoryService.reserve(productId, 3));
+        verify(productCatalog).adjustStock(productId, -3);
+    }
+
+    @Test
+    void testReserveInsufficientStock() {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.decrementStock(productId, 3)).thenReturn(0);
+
+        assertFalse(inventoryService.reserve(productId, 3));
+        verify(productCatalog, never()).adjustStock(any(), anyInt());
+    }
+
+    @Test
+    void testReserveNonPositiveQuantityIsNoop() {
+        assertTrue(inventoryService.reserve(UUID.randomUUID(), 0));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testReserveAllReportsPerItemInIdOrder() {
+        UUID first = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID second = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        Map<UUID, Integer> quantities = new HashMap<>();
+        quantities.put(second, 5);
+        quantities.put(first, 2);
+        when(productRepository.decrementStock(first, 2)).thenReturn(1);
+        when(productRepository.decrementStock(second, 5)).thenReturn(0);
+
+        Map<UUID, Boolean> results = inventoryService.reserveAll(quantities);
+
+        assertEquals(Map.of(first, true, second, false), results);
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementStock(first, 2);
+        inOrder.verify(productRepository).decrementStock(second, 5);
+    }
+
+    @Test
+    void testRelease() {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.incrementStock(productId, 2)).thenReturn(1);
+
+        inventoryService.release(productId, 2);
+
+        verify(productCatalog).adjustStock(productId, 2);
+    }
+
+    @Test
+    void testWriteBehindLeavesProductRowAlone() {
+        UUID productId = UUID.randomUUID();
+        when(writeBehindInventory.isEnabled()).thenReturn(true);
+        when(writeBehindInventory.reserve(productId, 3)).thenReturn(true);
+        when(writeBehindInventory.release(productId, 1)).thenReturn(true);
+
+        assertTrue(inventoryService.reserve(productId, 3));
+        inventoryService.release(productId, 1);
+
+        verify(productRepository, never()).decrementStock(any(), anyInt());
+        verify(productRepository, never()).incrementStock(any(), anyInt());
+        verify(productCatalog).adjustStock(productId, -3);
+        verify(productCatalog).adjustStock(productId, 1);
+    }
+
+    @Test
+    void testReleaseAllInIdOrder() {
+        UUID first = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID second = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        Map<UUID, Integer> quantities = new HashMap<>();
+        quantities.put(second, 4);
+        quantities.put(first, 1);
+        when(productRepository.incrementStock(any(), anyInt())).thenReturn(1);
+
+        inventoryService.releaseAll(quantities);
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).incrementStock(first, 1);
+        inOrder.verify(productRepository).incrementStock(second, 4);
+        verify(productCatalog).adjustStock(second, 4);
+    }
+
+    @Test
+    void testLockProductsLocksInIdOrder() {
+        Product first = new Product("First", "Category", 1, 1.0);
+        Product second = new Product("Second", "Category", 1, 1.0);
+        first.setId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        second.setId(UUID.fromString("00000000-0000-0000-0000-000000000002"));
+        when(productRepository.findAllByIdForUpdate(List.of(first.getId(), second.getId())))
+                .thenReturn(List.of(first, second));
+
+        Map<UUID, Product> locked = inventoryService.lockProducts(Set.of(second.getId(), first.getId()));
+
+        assertEquals(List.of(first.getId(), second.getId()), List.copyOf(locked.keySet()));
+    }
+
+    @Test
+    void testLockOrderFollowsTheStoredIdNotUuidCompareTo() {
+        // UUID.compareTo is signed, so 8... sorts before 1...; the CHAR column sorts 1... first
+        UUID low = UUID.fromString("10000000-0000-0000-0000-000000000000");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        assertTrue(high.compareTo(low) < 0);
+        Map<UUID, Integer> quantities = new HashMap<>();
+        quantities.put(high, 2);
+        quantities.put(low, 3);
+        when(productRepository.decrementStock(any(), anyInt())).thenReturn(1);
+        when(productRepository.incrementStock(any(), anyInt())).thenReturn(1);
+        when(productRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of());
+
+        inventoryService.reserveAll(quantities);
+        inventoryService.releaseAll(quantities);
+        inventoryService.lockProducts(Set.of(high, low));
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementStock(low, 3);
+        inOrder.verify(productRepository).decrementStock(high, 2);
+        inOrder.verify(productRepository).incrementStock(low, 3);
+        inOrder.verify(productRepository).incrementStock(high, 2);
+        inOrder.verify(productRepository).findAllByIdForUpdate(List.of(low, high));
+    }
+}
@@ -0,0 +1,140 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductCatalog catalog;
+
+    private Product laptop;
+    private Product mouse;
+    private UUID supplierId;
+
+    @BeforeEach
+    void setUp() {
+        supplierId = UUID.randomUUID();
+        laptop = new Product("Laptop", "Electronics", 10, 999.99);
+        laptop.setSupplierId(supplierId);
+        mouse = new Product("Mouse", "Electronics", 50, 29.99);
+        when(productRepository.findAll()).thenReturn(List.of(laptop, mouse));
+    }
+
+    @Test
+    void testLoadsOnceAndIndexesAllKeys() {
+        assertEquals("Laptop", catalog.findById(laptop.getId()).orElseThrow().getName());
+        assertEquals(mouse.getId(), catalog.findByName("Mouse").orElseThrow().getId());
+        assertEquals(2, catalog.findByCategory("Electronics").size());
+        assertEquals(1, catalog.findBySupplierId(supplierId).size());
+        assertTrue(catalog.findByCategory("Books").isEmpty());
+
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testPutPublishesNewVersion() {
+        Optional<Product> before = catalog.findById(laptop.getId());
+
+        laptop.setStock(3);
+        laptop.setCategory("Computing");
+        catalog.put(laptop);
+
+        assertEquals(10, before.orElseThrow().getStock());
+        assertEquals(3, catalog.findById(laptop.getId()).orElseThrow().getStock());
+        assertEquals(1, catalog.findByCategory("Electronics").size());
+        assertEquals(1, catalog.findByCategory("Computing").size());
+    }
+
+    @Test
+    void testSnapshotIsIsolatedFromEntityMutation() {
+        catalog.put(laptop);
+        laptop.setStock(0);
+
+        assertEquals(10, catalog.findById(laptop.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void testAdjustStockIsSeenThroughEveryIndex() {
+        Product before = catalog.findById(laptop.getId()).orElseThrow();
+
+        catalog.adjustStock(laptop.getId(), -4);
+
+        assertEquals(10, before.getStock());
+        assertEquals(6, catalog.findById(laptop.getId()).orElseThrow().getStock());
+        assertEquals(6, catalog.findByName("Laptop").orElseThrow().getStock());
+        assertEquals(6, catalog.findBySupplierId(supplierId).get(0).getStock());
+    }
+
+    @Test
+    void testConcurrentAdjustmentsAreNotLost() throws InterruptedException {
+        catalog.findById(laptop.getId());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> catalog.adjustStock(laptop.getId(), 1));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1010, catalog.findById(laptop.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void testRemove() {
+        catalog.remove(mouse.getId());
+
+        assertTrue(catalog.findById(mouse.getId()).isEmpty());
+        assertTrue(catalog.findByName("Mouse").isEmpty());
+        assertEquals(1, catalog.findByCategory("Electronics").size());
+    }
+
+    @Test
+    void testDuplicateNamesResolveToTheLowestIdWhateverTheLoadOrder() {
+        Product first = new Product("Laptop", "Computing", 1, 10.0);
+        first.setId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        Product second = new Product("Laptop", "Computing", 2, 20.0);
+        second.setId(UUID.fromString("f0000000-0000-0000-0000-000000000002"));
+        catalog.findById(laptop.getId());
+        when(productRepository.findAll()).thenReturn(List.of(second, first));
+        catalog.reload();
+
+        assertEquals(first.getId(), catalog.findByName("Laptop").orElseThrow().getId());
+
+        catalog.put(second);
+        assertEquals(first.getId(), catalog.findByName("Laptop").orElseThrow().getId());
+
+        catalog.remove(first.getId());
+        assertEquals(second.getId(), catalog.findByName("Laptop").orElseThrow().getId());
+    }
+
+    @Test
+    void testReloadReplacesSnapshot() {
+        catalog.findById(laptop.getId());
+        when(productRepository.findAll()).thenReturn(List.of(mouse));
+
+        catalog.reload();
+
+        assertTrue(catalog.findById(laptop.getId()).isEmpty());
+        assertTrue(catalog.findBySupplierId(supplierId).isEmpty());
+    }
+}
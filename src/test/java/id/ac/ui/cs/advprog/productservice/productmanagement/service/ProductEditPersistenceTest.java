@@ -0,0 +1,81 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Edits against the real product table, with a write-behind flush landing between the service
+ * loading the product and writing the edit.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ProductEditPersistenceTest {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private WriteBehindInventory writeBehind;
+    private ProductService productService;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = mock(WriteBehindInventory.class);
+        productService = new ProductService(repository, mock(ProductCatalog.class), writeBehind);
+        product = entityManager.persistFlushFind(new Product("Laptop", "Electronics", 10, 999.99));
+        entityManager.clear();
+    }
+
+    @Test
+    void editProduct_KeepsStockFlushedAfterTheLoad() throws Exception {
+        when(writeBehind.isEnabled()).thenReturn(true);
+        // The flush folds a journaled reservation of 3 into the column after the service loaded the product
+        doAnswer(invocation -> repository.incrementStock(product.getId(), -3))
+                .when(writeBehind).set(eq(product.getId()), anyInt());
+
+        Product edit = new Product("Laptop", "Computing", 15, 1199.99);
+        edit.setId(product.getId());
+        assertTrue(productService.editProduct(edit, true).get());
+        entityManager.flush();
+        entityManager.clear();
+
+        // The journaled 15 is the write-behind's business; the column only moved by the flush
+        Product stored = repository.findById(product.getId()).orElseThrow();
+        assertEquals(7, stored.getStock());
+        assertEquals("Computing", stored.getCategory());
+        assertEquals(1199.99, stored.getPrice());
+    }
+
+    @Test
+    void assignSupplier_KeepsStockFlushedAfterTheLoad() throws Exception {
+        UUID supplierId = UUID.randomUUID();
+        Product loaded = repository.findById(product.getId()).orElseThrow();
+        repository.incrementStock(product.getId(), -4);
+
+        // The service is handed this same managed instance, still holding the stock from before the flush
+        assertEquals(10, loaded.getStock());
+        assertTrue(productService.assignSupplierToProduct(product.getId(), supplierId).get());
+        entityManager.flush();
+        entityManager.clear();
+
+        Product stored = repository.findById(product.getId()).orElseThrow();
+        assertEquals(6, stored.getStock());
+        assertEquals(supplierId, stored.getSupplierId());
+    }
+}
@@ -8,9 +8,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks; // New import
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture; // New import
@@ -18,6 +22,8 @@ import java.util.concurrent.ExecutionException; // New import
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +32,12 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private WriteBehindInventory writeBehindInventory;
+
     @InjectMocks // Inject mocks into this instance
     private ProductService productService;
 
@@ -43,6 +55,7 @@ public class ProductServiceTest {
 
         assertTrue(futureResult.get()); // Get the result from CompletableFuture
         verify(productRepository).save(product);
+        verify(productCatalog).put(product);
     }
 
     @Test
@@ -75,18 +88,65 @@ public class ProductServiceTest {
         updatedProduct.setId(productId);
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(existingProduct); // Mock the save
 
         CompletableFuture<Boolean> futureResult = productService.editProduct(updatedProduct, true);
 
         assertTrue(futureResult.get()); // Get the result from CompletableFuture
         verify(productRepository).findById(productId);
-        verify(productRepository).save(existingProduct);
+        verify(productRepository).updateDetails(productId, "Computing", 1199.99);
+        verify(productRepository).overwriteStock(productId, 15);
+        verify(productRepository, never()).save(any());
         assertEquals("Computing", existingProduct.getCategory());
         assertEquals(15, existingProduct.getStock());
         assertEquals(1199.99, existingProduct.getPrice());
     }
 
+    @Test
+    void testEditProductWithWriteBehindJournalsStock() throws ExecutionException, InterruptedException {
+        UUID productId = UUID.randomUUID();
+        Product existingProduct = new Product("Laptop", "Electronics", 10, 999.99);
+        existingProduct.setId(productId);
+
+        Product updatedProduct = new Product("Laptop", "Computing", 15, 1199.99);
+        updatedProduct.setId(productId);
+
+        when(writeBehindInventory.isEnabled()).thenReturn(true);
+        when(writeBehindInventory.available(productId)).thenReturn(15);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
+
+        assertTrue(productService.editProduct(updatedProduct, true).get());
+
+        verify(writeBehindInventory).set(productId, 15);
+        verify(productRepository).updateDetails(productId, "Computing", 1199.99);
+        verify(productRepository, never()).overwriteStock(any(), anyInt());
+        verify(productRepository, never()).save(any());
+        assertEquals(10, existingProduct.getStock());
+        verify(productCatalog).adjustStock(productId, 5);
+    }
+
+    @Test
+    void testEditProductPublishesToTheCatalogOnlyAfterCommit() throws ExecutionException, InterruptedException {
+        UUID productId = UUID.randomUUID();
+        Product existingProduct = new Product("Laptop", "Electronics", 10, 999.99);
+        existingProduct.setId(productId);
+
+        Product updatedProduct = new Product("Laptop", "Computing", 15, 1199.99);
+        updatedProduct.setId(productId);
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(productService.editProduct(updatedProduct, true).get());
+            verify(productCatalog, never()).put(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(productCatalog).put(existingProduct);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void testEditProductNotConfirmed() throws ExecutionException, InterruptedException { // Added throws
         Product updatedProduct = new Product("Laptop", "Computing", 15, 1199.99);
@@ -124,6 +184,7 @@ public class ProductServiceTest {
         assertTrue(futureResult.get()); // Get the result from CompletableFuture
         verify(productRepository).findByName("Laptop");
         verify(productRepository).delete(product);
+        verify(productCatalog).remove(product.getId());
     }
 
     @Test
@@ -177,6 +238,36 @@ public class ProductServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testGetProductsByIdsSingleQueryKeyedById() {
+        Product laptop = new Product("Laptop", "Electronics", 10, 999.99);
+        Product mouse = new Product("Mouse", "Electronics", 50, 29.99);
+        UUID missing = UUID.randomUUID();
+        List<UUID> ids = List.of(laptop.getId(), mouse.getId(), laptop.getId(), missing);
+        when(productRepository.findAllById(List.of(laptop.getId(), mouse.getId(), missing)))
+                .thenReturn(List.of(laptop, mouse));
+
+        Map<UUID, Product> result = productService.getProductsByIds(ids);
+
+        assertEquals(2, result.size());
+        assertSame(laptop, result.get(laptop.getId()));
+        assertSame(mouse, result.get(mouse.getId()));
+        assertFalse(result.containsKey(missing));
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void testGetProductsByIdsChunksLargeLookups() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < ProductService.BULK_LOOKUP_CHUNK_SIZE + 1; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+
+        assertTrue(productService.getProductsByIds(ids).isEmpty());
+        verify(productRepository, times(2)).findAllById(any());
+    }
+
     @Test
     void testGetAllProducts() {
         List<Product> products = Arrays.asList(
@@ -191,4 +282,53 @@ public class ProductServiceTest {
         assertEquals("Laptop", result.get(0).getName());
         assertEquals("Mouse", result.get(1).getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEditProductPublishesToCatalog() throws ExecutionException, InterruptedException {
+        UUID productId = UUID.randomUUID();
+        Product existingProduct = new Product("Laptop", "Electronics", 10, 999.99);
+        existingProduct.setId(productId);
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
+
+        productService.editProduct(existingProduct, true).get();
+
+        verify(productCatalog).put(existingProduct);
+    }
+
+    @Test
+    void testAssignSupplierUpdatesOnlyTheSupplier() throws ExecutionException, InterruptedException {
+        Product product = new Product("Laptop", "Electronics", 10, 999.99);
+        UUID supplierId = UUID.randomUUID();
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+
+        assertTrue(productService.assignSupplierToProduct(product.getId(), supplierId).get());
+
+        verify(productRepository).updateSupplier(product.getId(), supplierId);
+        verify(productRepository, never()).save(any());
+        verify(productCatalog).put(argThat(published -> supplierId.equals(published.getSupplierId())));
+    }
+
+    @Test
+    void testGetProductByNameUsesCatalog() {
+        Product product = new Product("Laptop", "Electronics", 10, 999.99);
+        when(productCatalog.findByName("Laptop")).thenReturn(Optional.of(product));
+
+        Optional<Product> result = productService.getProductByName("Laptop");
+
+        assertTrue(result.isPresent());
+        verify(productRepository, never()).findAll();
+        verify(productRepository, never()).findByName(any());
+    }
+
+    @Test
+    void testGetCatalogProductById() {
+        Product product = new Product("Laptop", "Electronics", 10, 999.99);
+        when(productCatalog.findById(product.getId())).thenReturn(Optional.of(product));
+
+        Optional<Product> result = productService.getCatalogProductById(product.getId());
+
+        assertTrue(result.isPresent());
+        verify(productRepository, never()).findById(any());
+    }
+}
@@ -0,0 +1,96 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockCountersTest {
+
+    @Test
+    void tryReserve_NeverGoesBelowZero() {
+        StockCounters counters = new StockCounters(4);
+        UUID id = UUID.randomUUID();
+        counters.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), 5);
+
+        assertEquals(2, counters.tryReserve(id.getMostSignificantBits(), id.getLeastSignificantBits(), 3));
+        assertTrue(counters.tryReserve(id.getMostSignificantBits(), id.getLeastSignificantBits(), 3) < 0);
+        assertEquals(2, counters.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+    }
+
+    @Test
+    void unknownKeyIsMissing() {
+        StockCounters counters = new StockCounters(4);
+
+        assertEquals(StockCounters.MISSING, counters.get(1L, 2L));
+        assertEquals(StockCounters.MISSING, counters.tryReserve(1L, 2L, 1));
+        assertEquals(StockCounters.MISSING, counters.add(1L, 2L, 1));
+    }
+
+    @Test
+    void putIfAbsent_KeepsExistingCounter() {
+        StockCounters counters = new StockCounters(4);
+        counters.put(1L, 2L, 7);
+
+        assertEquals(7, counters.putIfAbsent(1L, 2L, 100));
+        assertEquals(7, counters.get(1L, 2L));
+    }
+
+    @Test
+    void growsAndRemovesWithoutLosingKeys() {
+        StockCounters counters = new StockCounters(2);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            counters.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), i);
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            counters.remove(ids.get(i).getMostSignificantBits(), ids.get(i).getLeastSignificantBits());
+        }
+
+        assertEquals(5_000, counters.size());
+        for (int i = 0; i < ids.size(); i++) {
+            int expected = i % 2 == 0 ? StockCounters.MISSING : i;
+            assertEquals(expected, counters.get(ids.get(i).getMostSignificantBits(), ids.get(i).getLeastSignificantBits()));
+        }
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        StockCounters counters = new StockCounters(8);
+        UUID id = UUID.randomUUID();
+        counters.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), 1_000);
+
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                while (counters.tryReserve(id.getMostSignificantBits(), id.getLeastSignificantBits(), 1) >= 0) {
+                    reserved.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(1_000, reserved.get());
+        assertEquals(0, counters.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+    }
+}
@@ -0,0 +1,192 @@
+package id.ac.ui.cs.advprog.productservice.productmanagement.service;
+
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.InventoryJournalEntry;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.InventoryJournalRepository;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.StockLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WriteBehindInventoryTest {
+
+    private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID SECOND = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private InventoryJournalRepository journalRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WriteBehindInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new WriteBehindInventory(productRepository, journalRepository, transactionManager, true, 4, 3);
+        when(productRepository.findStockLevel(FIRST)).thenReturn(Optional.of(level(FIRST, 5)));
+        when(productRepository.findStockLevel(SECOND)).thenReturn(Optional.of(level(SECOND, 1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reserve_TakesFromCounterAndJournalsInsteadOfUpdatingTheRow() {
+        assertTrue(inventory.reserve(FIRST, 3));
+        assertFalse(inventory.reserve(FIRST, 3));
+
+        assertEquals(2, inventory.available(FIRST));
+        verify(journalRepository, times(1)).save(argThat(entry -> entry.getDelta() == -3));
+        verify(productRepository, never()).decrementStock(any(), anyInt());
+        // Loaded once, then served from memory
+        verify(productRepository, times(1)).findStockLevel(FIRST);
+    }
+
+    @Test
+    void reserve_UnknownProductIsRejected() {
+        UUID unknown = UUID.randomUUID();
+        when(productRepository.findStockLevel(unknown)).thenReturn(Optional.empty());
+
+        assertFalse(inventory.reserve(unknown, 1));
+        verifyNoInteractions(journalRepository);
+    }
+
+    @Test
+    void reserve_RolledBackTransactionGivesStockBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(inventory.reserve(FIRST, 4));
+        assertEquals(1, inventory.available(FIRST));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(5, inventory.available(FIRST));
+    }
+
+    @Test
+    void release_OnlyVisibleAfterCommit() {
+        inventory.available(FIRST);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(inventory.release(FIRST, 2));
+        assertEquals(5, inventory.available(FIRST));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(7, inventory.available(FIRST));
+        verify(journalRepository).save(argThat(entry -> entry.getDelta() == 2));
+    }
+
+    @Test
+    void set_JournalsTheDifference() {
+        inventory.set(FIRST, 9);
+
+        assertEquals(9, inventory.available(FIRST));
+        verify(journalRepository).save(argThat(entry -> entry.getDelta() == 4));
+    }
+
+    @Test
+    void set_CounterOnlyMovesOnceTheJournalRowCommits() {
+        inventory.available(FIRST);
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventory.set(FIRST, 9);
+        assertTrue(inventory.reserve(FIRST, 2));
+        assertEquals(3, inventory.available(FIRST));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // The journaled +4 lands on top of the reservation taken meanwhile
+        assertEquals(7, inventory.available(FIRST));
+    }
+
+    @Test
+    void set_FailedJournalWriteLeavesTheCounter() {
+        when(journalRepository.save(any())).thenThrow(new IllegalStateException("down"));
+
+        assertThrows(IllegalStateException.class, () -> inventory.set(FIRST, 9));
+
+        assertEquals(5, inventory.available(FIRST));
+    }
+
+    @Test
+    void flush_AppliesNetDeltaPerProductInIdOrderAndDeletesWhatItRead() {
+        when(journalRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(entry(1L, SECOND, -1), entry(2L, FIRST, -2), entry(3L, FIRST, -1)))
+                .thenReturn(List.of(entry(4L, FIRST, 3)));
+
+        inventory.flush();
+
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).incrementStock(FIRST, -3);
+        inOrder.verify(productRepository).incrementStock(SECOND, -1);
+        verify(journalRepository).deleteAllByIdIn(List.of(1L, 2L, 3L));
+        // A full batch means more may be waiting; the second, partial one ends the run
+        verify(productRepository).incrementStock(FIRST, 3);
+        verify(journalRepository).deleteAllByIdIn(List.of(4L));
+        verify(journalRepository, times(2)).findAllByOrderByIdAsc(any(Pageable.class));
+    }
+
+    @Test
+    void disabled_DoesNothing() {
+        WriteBehindInventory disabled = new WriteBehindInventory(productRepository, journalRepository,
+                transactionManager, false, 4, 3);
+
+        disabled.load();
+        disabled.flush();
+
+        assertFalse(disabled.isEnabled());
+        verifyNoInteractions(journalRepository);
+        verify(productRepository, never()).findAllStockLevels();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static InventoryJournalEntry entry(long id, UUID productId, int delta) {
+        InventoryJournalEntry entry = new InventoryJournalEntry(productId, delta);
+        entry.setId(id);
+        return entry;
+    }
+
+    private static StockLevel level(UUID productId, long stock) {
+        return new StockLevel() {
+            @Override
+            public UUID getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getStock() {
+                return stock;
+            }
+        };
+    }
+}
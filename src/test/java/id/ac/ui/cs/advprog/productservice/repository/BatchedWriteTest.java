@@ -0,0 +1,121 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.model.TransactionItem;
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while flushing a checkout, using the same
+ * repository calls as {@code TransactionServiceImpl}. With batching enabled each table costs one
+ * statement per batch, however many rows go into it.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class BatchedWriteTest {
+
+    // Matches spring.jpa.properties.hibernate.jdbc.batch_size
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        products = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Product product = new Product("Product " + i, "Category", 100, 10.0);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void saveOrder_PreparesSameStatementsRegardlessOfItemCount() {
+        long single = statementsToSaveOrder(1);
+        long full = statementsToSaveOrder(BATCH_SIZE);
+
+        // payments, transactions, transaction_items: one batch each and no merge SELECTs
+        assertEquals(3, single);
+        assertEquals(single, full);
+    }
+
+    @Test
+    void saveOrder_WritesEveryRow() {
+        statistics.clear();
+
+        statementsToSaveOrder(BATCH_SIZE);
+
+        assertEquals(BATCH_SIZE + 2, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void statusUpdates_AreBatched() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(saveOrder(2).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Transaction> transactions = transactionRepository.findAllById(ids);
+
+        statistics.clear();
+        transactions.forEach(Transaction::complete);
+        entityManager.flush();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(10, statistics.getEntityUpdateCount());
+        entityManager.clear();
+        assertTrue(transactionRepository.findAllById(ids).stream()
+                .allMatch(transaction -> transaction.getStatus() == TransactionStatus.COMPLETED));
+    }
+
+    private long statementsToSaveOrder(int itemCount) {
+        long before = statistics.getPrepareStatementCount();
+        saveOrder(itemCount);
+        entityManager.flush();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private Transaction saveOrder(int itemCount) {
+        Transaction transaction = new Transaction();
+        transaction.setCustomerId("customer-1");
+        transaction.setPaymentMethod("CASH");
+        for (int i = 0; i < itemCount; i++) {
+            transaction.addItem(new TransactionItem(products.get(i), 1));
+        }
+
+        Payment payment = new Payment(null, "customer-1", transaction.getTotalAmount(), "CASH", "LUNAS", new Date());
+        transaction.setPayment(paymentRepository.save(payment));
+        return transactionRepository.save(transaction);
+    }
+}
@@ -0,0 +1,84 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.enums.CheckoutStatus;
+import id.ac.ui.cs.advprog.productservice.model.CheckoutRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CheckoutRequestRepositoryTest {
+
+    @Autowired
+    private CheckoutRequestRepository repository;
+
+    @Test
+    void findQueued_OldestFirst() {
+        CheckoutRequest newer = repository.save(new CheckoutRequest("{}", new Date(2_000)));
+        CheckoutRequest older = repository.save(new CheckoutRequest("{}", new Date(1_000)));
+
+        List<CheckoutRequest> queued = repository.findByStatusOrderByCreatedAtAscIdAsc(
+                CheckoutStatus.QUEUED, PageRequest.of(0, 10));
+
+        assertEquals(List.of(older.getId(), newer.getId()), queued.stream().map(CheckoutRequest::getId).toList());
+    }
+
+    @Test
+    void claim_OnlyOnceAndBumpsAttempts() {
+        CheckoutRequest checkout = repository.save(new CheckoutRequest("{}", new Date(1_000)));
+
+        assertEquals(1, repository.claim(checkout.getId(), 0, new Date(2_000)));
+        assertEquals(0, repository.claim(checkout.getId(), 0, new Date(2_000)));
+
+        CheckoutRequest claimed = repository.findById(checkout.getId()).orElseThrow();
+        assertEquals(CheckoutStatus.PROCESSING, claimed.getStatus());
+        assertEquals(1, claimed.getAttempts());
+    }
+
+    @Test
+    void finish_IgnoresStaleAttempt() {
+        CheckoutRequest checkout = repository.save(new CheckoutRequest("{}", new Date(1_000)));
+        repository.claim(checkout.getId(), 0, new Date(2_000));
+
+        assertEquals(0, repository.finish(checkout.getId(), 2, CheckoutStatus.SUCCEEDED, "t-1", null, new Date(3_000)));
+        assertEquals(1, repository.finish(checkout.getId(), 1, CheckoutStatus.SUCCEEDED, "t-1", null, new Date(3_000)));
+
+        CheckoutRequest finished = repository.findById(checkout.getId()).orElseThrow();
+        assertEquals(CheckoutStatus.SUCCEEDED, finished.getStatus());
+        assertEquals("t-1", finished.getTransactionId());
+    }
+
+    @Test
+    void requeueStale_OnlyClaimsOlderThanTheCutoff() {
+        CheckoutRequest stale = repository.save(new CheckoutRequest("{}", new Date(1_000)));
+        CheckoutRequest fresh = repository.save(new CheckoutRequest("{}", new Date(1_000)));
+        repository.claim(stale.getId(), 0, new Date(2_000));
+        repository.claim(fresh.getId(), 0, new Date(9_000));
+
+        assertEquals(1, repository.requeueStale(new Date(5_000), 3, new Date(10_000)));
+
+        assertEquals(CheckoutStatus.QUEUED, repository.findById(stale.getId()).orElseThrow().getStatus());
+        assertEquals(CheckoutStatus.PROCESSING, repository.findById(fresh.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void requeueStale_FailsRequestsOutOfAttempts() {
+        CheckoutRequest poison = repository.save(new CheckoutRequest("{}", new Date(1_000)));
+        repository.claim(poison.getId(), 0, new Date(2_000));
+
+        assertEquals(0, repository.requeueStale(new Date(5_000), 1, new Date(10_000)));
+        assertEquals(1, repository.failStale(new Date(5_000), 1, "Gave up", new Date(10_000)));
+
+        CheckoutRequest failed = repository.findById(poison.getId()).orElseThrow();
+        assertEquals(CheckoutStatus.FAILED, failed.getStatus());
+        assertEquals("Gave up", failed.getError());
+    }
+}
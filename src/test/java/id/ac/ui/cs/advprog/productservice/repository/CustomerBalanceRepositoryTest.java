@@ -0,0 +1,78 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.CustomerBalance;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CustomerBalanceRepositoryTest {
+
+    @Autowired
+    private CustomerBalanceRepository repository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void testAddToIsRelativeAndBumpsRevision() {
+        repository.saveAndFlush(new CustomerBalance("customer-1"));
+        long initialRevision = repository.findSnapshot("customer-1").orElseThrow().getRevision();
+
+        assertEquals(1, repository.addTo("customer-1", 300.0, 100.0, 1));
+        assertEquals(1, repository.addTo("customer-1", -50.0, 25.0, 0));
+
+        CustomerBalanceSnapshot snapshot = repository.findSnapshot("customer-1").orElseThrow();
+        assertEquals(250.0, snapshot.getTotalSpent());
+        assertEquals(125.0, snapshot.getTotalPaid());
+        assertEquals(1L, snapshot.getTransactionCount());
+        assertEquals(initialRevision + 2, snapshot.getRevision());
+    }
+
+    @Test
+    void testAddToMissingCustomerTouchesNothing() {
+        assertEquals(0, repository.addTo("missing", 10.0, 10.0, 1));
+        assertTrue(repository.findSnapshot("missing").isEmpty());
+    }
+
+    @Test
+    void testSumTransactionsByCustomerLeavesCancelledAmountsOut() {
+        transactionRepository.save(transaction("customer-1", 300.0, 100.0, TransactionStatus.IN_PROGRESS));
+        transactionRepository.save(transaction("customer-1", 200.0, 200.0, TransactionStatus.CANCELLED));
+        transactionRepository.save(transaction("customer-2", 50.0, 50.0, TransactionStatus.COMPLETED));
+        transactionRepository.flush();
+
+        Map<String, CustomerTotals> totals = repository.sumTransactionsByCustomer().stream()
+                .collect(Collectors.toMap(CustomerTotals::getCustomerId, Function.identity()));
+
+        assertEquals(300.0, totals.get("customer-1").getTotalSpent());
+        assertEquals(100.0, totals.get("customer-1").getTotalPaid());
+        assertEquals(2L, totals.get("customer-1").getTransactionCount());
+        assertEquals(50.0, totals.get("customer-2").getTotalPaid());
+        assertEquals(1L, totals.get("customer-2").getTransactionCount());
+    }
+
+    private static Transaction transaction(String customerId, double total, double paid, TransactionStatus status) {
+        Transaction transaction = new Transaction();
+        transaction.setCustomerId(customerId);
+        transaction.setPaymentMethod("CASH");
+        transaction.setStatus(status);
+        transaction.setTotalAmount(total);
+        transaction.setPayment(new Payment(null, customerId, paid, "CASH",
+                paid == total ? "LUNAS" : "CICILAN", new Date()));
+        return transaction;
+    }
+}
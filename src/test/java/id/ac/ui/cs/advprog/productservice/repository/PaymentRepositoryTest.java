@@ -1,11 +1,15 @@
 package id.ac.ui.cs.advprog.productservice.repository;
 
+import id.ac.ui.cs.advprog.productservice.dto.PaymentCursor;
+import id.ac.ui.cs.advprog.productservice.enums.PaymentStatus;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +22,9 @@ public class PaymentRepositoryTest {
     @Autowired
     private PaymentRepository repository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         repository.deleteAll();
@@ -41,9 +48,58 @@ public class PaymentRepositoryTest {
         assertEquals("LUNAS", saved.getStatus());
     }
 
+    @Test
+    void testStatusAndMethodAreStoredAsDictionaryCodes() {
+        Payment saved = repository.saveAndFlush(new Payment(null, "c-codes", 10.0, "GoPay", "CICILAN", new Date()));
+
+        Short methodCode = jdbcTemplate.queryForObject(
+                "SELECT method_code FROM payments WHERE id = ?", Short.class, saved.getId());
+        Short statusCode = jdbcTemplate.queryForObject(
+                "SELECT status_code FROM payments WHERE id = ?", Short.class, saved.getId());
+        assertEquals("GoPay", jdbcTemplate.queryForObject(
+                "SELECT label FROM value_dictionary WHERE dictionary = 'payment_method' AND code = ?",
+                String.class, methodCode));
+        assertEquals(PaymentStatus.CICILAN.getCode(), statusCode);
+
+        List<Payment> found = repository.findHistoryAfter("c-codes", "CICILAN", "GoPay", null, 10);
+        assertEquals(1, found.size());
+        assertEquals("GoPay", found.get(0).getMethod());
+    }
+
+    @Test
+    void testFilterByUnknownLabelMatchesNothingAndAssignsNoCode() {
+        repository.saveAndFlush(new Payment(null, "c-unknown", 10.0, "OVO", "LUNAS", new Date()));
+        Integer codes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM value_dictionary", Integer.class);
+
+        assertTrue(repository.findHistoryAfter("c-unknown", null, "never-stored", null, 10).isEmpty());
+        assertTrue(repository.findHistoryAfter("c-unknown", "never-stored", null, null, 10).isEmpty());
+        assertEquals(codes, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM value_dictionary", Integer.class));
+    }
+
+    @Test
+    void testUpdateStatusStoresTheFixedCode() {
+        Payment saved = repository.saveAndFlush(new Payment(null, "c-new-status", 10.0, "OVO", "CICILAN", new Date()));
+
+        assertEquals(1, repository.updateStatus(saved.getId(), "LUNAS"));
+        assertEquals("LUNAS", repository.findById(saved.getId()).orElseThrow().getStatus());
+        assertThrows(IllegalArgumentException.class, () -> repository.updateStatus(saved.getId(), "first-seen-status"));
+    }
+
+    @Test
+    void testNewMethodGetsItsCodeInTheWritingTransaction() {
+        Payment saved = repository.saveAndFlush(new Payment(null, "c-new-method", 10.0, "ShopeePay", "LUNAS", new Date()));
+
+        Short methodCode = jdbcTemplate.queryForObject(
+                "SELECT method_code FROM payments WHERE id = ?", Short.class, saved.getId());
+        assertEquals("ShopeePay", jdbcTemplate.queryForObject(
+                "SELECT label FROM value_dictionary WHERE dictionary = 'payment_method' AND code = ?",
+                String.class, methodCode));
+        assertEquals(1, repository.findHistoryAfter("c-new-method", null, "ShopeePay", null, 10).size());
+    }
+
     @Test
     void testFindByIdSuccessfully() {
-        Payment paymentToSave = new Payment(null, "c1-find", 100.0, "OVO", "PENDING", new Date());
+        Payment paymentToSave = new Payment(null, "c1-find", 100.0, "OVO", "CICILAN", new Date());
         Payment savedPayment = repository.save(paymentToSave);
         String generatedId = savedPayment.getId();
 
@@ -56,7 +112,7 @@ public class PaymentRepositoryTest {
 
     @Test
     void testFindByCustomerIdSuccessfully() {
-        Payment payment1 = new Payment(null, "c1-cust", 100.0, "OVO", "PENDING", new Date());
+        Payment payment1 = new Payment(null, "c1-cust", 100.0, "OVO", "CICILAN", new Date());
         repository.save(payment1);
         Payment payment2 = new Payment(null, "c1-cust", 200.0, "GOPAY", "LUNAS", new Date());
         Payment savedPayment2 = repository.save(payment2);
@@ -69,32 +125,71 @@ public class PaymentRepositoryTest {
         assertTrue(foundPayments.stream().anyMatch(p -> p.getId().equals(savedPayment2.getId())));
     }
 
+    @Test
+    void testFindHistoryAfterPagesNewestFirst() {
+        for (int i = 0; i < 5; i++) {
+            repository.save(new Payment(null, "c1-history", 10.0 * i, "OVO", "CICILAN", new Date(1_000L * i)));
+        }
+        // Same timestamp as the newest: the id breaks the tie
+        repository.save(new Payment(null, "c1-history", 99.0, "OVO", "CICILAN", new Date(4_000L)));
+        repository.save(new Payment(null, "other-customer", 1.0, "OVO", "CICILAN", new Date(9_000L)));
+
+        List<Payment> first = repository.findHistoryAfter("c1-history", null, null, null, 4);
+        List<Payment> second = repository.findHistoryAfter("c1-history", null, null,
+                PaymentCursor.after(first.get(first.size() - 1)), 4);
+
+        assertEquals(4, first.size());
+        assertEquals(2, second.size());
+        List<Payment> all = new ArrayList<>(first);
+        all.addAll(second);
+        assertEquals(6, all.stream().map(Payment::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            Payment newer = all.get(i - 1);
+            Payment older = all.get(i);
+            assertTrue(newer.getCreatedAt().after(older.getCreatedAt())
+                    || newer.getCreatedAt().equals(older.getCreatedAt()) && newer.getId().compareTo(older.getId()) > 0);
+        }
+    }
+
+    @Test
+    void testFindHistoryAfterAppliesStatusAndMethod() {
+        repository.save(new Payment(null, "c1-filter", 10.0, "OVO", "CICILAN", new Date(1_000L)));
+        repository.save(new Payment(null, "c1-filter", 20.0, "DANA", "CICILAN", new Date(2_000L)));
+        repository.save(new Payment(null, "c1-filter", 30.0, "OVO", "LUNAS", new Date(3_000L)));
+
+        assertEquals(2, repository.findHistoryAfter("c1-filter", "CICILAN", null, null, 10).size());
+        assertEquals(2, repository.findHistoryAfter("c1-filter", null, "OVO", null, 10).size());
+        List<Payment> both = repository.findHistoryAfter("c1-filter", "CICILAN", "OVO", null, 10);
+        assertEquals(1, both.size());
+        assertEquals(10.0, both.get(0).getAmount());
+    }
+
     @Test
     void testUpdateSuccessfully() {
-        Payment paymentToSave = new Payment(null, "c1-update", 100.0, "OVO", "PENDING", new Date());
+        Payment paymentToSave = new Payment(null, "c1-update", 100.0, "OVO", "CICILAN", new Date());
         Payment savedPayment = repository.save(paymentToSave);
         String generatedId = savedPayment.getId();
 
         Payment paymentToUpdate = repository.findById(generatedId).orElseThrow(() -> new AssertionError("Payment not found for update"));
 
-        paymentToUpdate.setStatus("COMPLETED");
+        paymentToUpdate.setStatus("LUNAS");
         paymentToUpdate.setAmount(120.0);
         Payment updatedPayment = repository.save(paymentToUpdate);
 
         assertNotNull(updatedPayment);
         assertEquals(generatedId, updatedPayment.getId(), "ID should remain the same after update");
-        assertEquals("COMPLETED", updatedPayment.getStatus());
+        assertEquals("LUNAS", updatedPayment.getStatus());
         assertEquals(120.0, updatedPayment.getAmount());
 
         Optional<Payment> verifiedPayment = repository.findById(generatedId);
         assertTrue(verifiedPayment.isPresent());
-        assertEquals("COMPLETED", verifiedPayment.get().getStatus());
+        assertEquals("LUNAS", verifiedPayment.get().getStatus());
         assertEquals(120.0, verifiedPayment.get().getAmount());
     }
 
     @Test
     void testDeleteSuccessfully() {
-        Payment paymentToSave = new Payment(null, "c1-delete", 100.0, "OVO", "PENDING", new Date());
+        Payment paymentToSave = new Payment(null, "c1-delete", 100.0, "OVO", "CICILAN", new Date());
         Payment savedPayment = repository.save(paymentToSave);
         String generatedId = savedPayment.getId();
 
@@ -106,6 +201,33 @@ public class PaymentRepositoryTest {
         assertFalse(deletedPayment.isPresent(), "Payment should not be found after deletion");
     }
 
+    @Test
+    void testUpdateStatusReportsAffectedRows() {
+        Payment saved = repository.save(new Payment(null, "c1-status", 100.0, "OVO", "CICILAN", new Date()));
+
+        assertEquals(1, repository.updateStatus(saved.getId(), "LUNAS"));
+        assertEquals(0, repository.updateStatus("missing-id", "LUNAS"));
+        assertEquals("LUNAS", repository.findById(saved.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testUpdateStatusInSkipsUnknownIds() {
+        Payment first = repository.save(new Payment(null, "c1-bulk", 100.0, "OVO", "CICILAN", new Date()));
+        Payment second = repository.save(new Payment(null, "c1-bulk", 200.0, "OVO", "CICILAN", new Date()));
+
+        assertEquals(2, repository.updateStatusIn(List.of(first.getId(), second.getId(), "missing-id"), "LUNAS"));
+        assertTrue(repository.findByCustomerId("c1-bulk").stream().allMatch(p -> p.getStatus().equals("LUNAS")));
+    }
+
+    @Test
+    void testDeletePaymentByIdReportsAffectedRows() {
+        Payment saved = repository.save(new Payment(null, "c1-delete-count", 100.0, "OVO", "LUNAS", new Date()));
+
+        assertEquals(1, repository.deletePaymentById(saved.getId()));
+        assertEquals(0, repository.deletePaymentById(saved.getId()));
+        assertFalse(repository.existsById(saved.getId()));
+    }
+
     @Test
     void testFindByIdNotFound() {
         Optional<Payment> notFound = repository.findById("nonexistent-uuid-format-if-you-want");
@@ -121,7 +243,7 @@ public class PaymentRepositoryTest {
 
     @Test
     void testUpdateNonExistentPayment() {
-        Payment newPaymentWithFakeId = new Payment(null, "cx-nonexistent", 0.0, "GOPAY", "PENDING", new Date());
+        Payment newPaymentWithFakeId = new Payment(null, "cx-nonexistent", 0.0, "GOPAY", "CICILAN", new Date());
 
         Payment result = repository.save(newPaymentWithFakeId);
         assertNotNull(result.getId(), "ID should be generated even if we intended to simulate update on non-existent");
@@ -135,7 +257,7 @@ public class PaymentRepositoryTest {
             repository.deleteById(nonExistentId);
         });
         assertFalse(repository.existsById(nonExistentId));
-        Payment nonExistentEntity = new Payment(null, "c99", 50.0, "OVO", "PENDING", new Date());
+        Payment nonExistentEntity = new Payment(null, "c99", 50.0, "OVO", "CICILAN", new Date());
 
         assertDoesNotThrow(() -> {
             repository.delete(nonExistentEntity);
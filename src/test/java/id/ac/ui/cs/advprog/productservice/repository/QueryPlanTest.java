@@ -0,0 +1,217 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import id.ac.ui.cs.advprog.productservice.dto.PaymentCursor;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs H2 {@code EXPLAIN} over the SQL Hibernate actually generates for each indexed repository
+ * query and fails when the plan falls back to a table scan. Queries that are scans by design
+ * (findAll, streamAll, the LIKE search and the all-optional findTransactionsWithFilters) are
+ * deliberately not listed here.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "id.ac.ui.cs.advprog.productservice.repository.RecordingStatementInspector")
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    private static final String TABLE_SCAN = "tableScan";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final Date startDate = new Date(0);
+    private final Date endDate = new Date();
+
+    @Test
+    void findByCustomerId_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByCustomerId("customer-1"));
+    }
+
+    @Test
+    void findByStatus_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByStatus(TransactionStatus.PENDING));
+    }
+
+    @Test
+    void findByStatusIn_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByStatusIn(
+                List.of(TransactionStatus.PENDING, TransactionStatus.COMPLETED)));
+    }
+
+    @Test
+    void findOngoingTransactions_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findOngoingTransactions());
+    }
+
+    @Test
+    void findByPaymentMethod_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByPaymentMethod("CASH"));
+    }
+
+    @Test
+    void findByPaymentMethodIn_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByPaymentMethodIn(List.of("CASH", "CARD")));
+    }
+
+    @Test
+    void findByDateRange_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByDateRange(startDate, endDate));
+    }
+
+    @Test
+    void findByCreatedAtAfter_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByCreatedAtAfter(startDate));
+    }
+
+    @Test
+    void findByTotalAmountGreaterThan_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByTotalAmountGreaterThan(100.0));
+    }
+
+    @Test
+    void findByCustomerIdAndStatus_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByCustomerIdAndStatus("customer-1", TransactionStatus.PENDING));
+    }
+
+    @Test
+    void findByCustomerIdAndDateRange_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findByCustomerIdAndDateRange("customer-1", startDate, endDate));
+    }
+
+    @Test
+    void findByIdIn_UsesPrimaryKey() {
+        assertIndexed(() -> transactionRepository.findByIdIn(List.of("transaction-1", "transaction-2")));
+    }
+
+    @Test
+    void findFilteredIdsAfter_ByCustomer_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findFilteredIdsAfter(
+                "customer-1", null, null, null, null, TransactionSortField.CREATED_AT, true, null, 20));
+    }
+
+    @Test
+    void findFilteredIdsAfter_ByDateRange_UsesIndex() {
+        assertIndexed(() -> transactionRepository.findFilteredIdsAfter(
+                null, null, null, startDate, endDate, TransactionSortField.CREATED_AT, true, null, 20));
+    }
+
+    @Test
+    void streamByCustomerId_UsesIndex() {
+        assertIndexed(() -> {
+            try (Stream<?> stream = transactionRepository.streamByCustomerId("customer-1")) {
+                stream.count();
+            }
+        });
+    }
+
+    @Test
+    void streamByStatus_UsesIndex() {
+        assertIndexed(() -> {
+            try (Stream<?> stream = transactionRepository.streamByStatus(TransactionStatus.PENDING)) {
+                stream.count();
+            }
+        });
+    }
+
+    @Test
+    void streamByDateRange_UsesIndex() {
+        assertIndexed(() -> {
+            try (Stream<?> stream = transactionRepository.streamByDateRange(startDate, endDate)) {
+                stream.count();
+            }
+        });
+    }
+
+    @Test
+    void paymentFindByCustomerId_UsesIndex() {
+        assertIndexed(() -> paymentRepository.findByCustomerId("customer-1"));
+    }
+
+    @Test
+    void paymentFindHistoryAfter_UsesIndex() {
+        assertIndexed(() -> paymentRepository.findHistoryAfter(
+                "customer-1", "CICILAN", "OVO", new PaymentCursor(endDate, "payment-1"), 20));
+    }
+
+    @Test
+    void productFindByName_UsesIndex() {
+        assertIndexed(() -> productRepository.findByName("Product 1"));
+    }
+
+    @Test
+    void explain_DetectsTableScan() {
+        // Guards the guard: a query with no usable index must be reported
+        String plan = explainLastSelect(() -> transactionRepository.searchByKeyword("abc"));
+
+        assertTrue(plan.contains(TABLE_SCAN), plan);
+    }
+
+    private void assertIndexed(Runnable query) {
+        String plan = explainLastSelect(query);
+
+        assertFalse(plan.contains(TABLE_SCAN), "Query plan fell back to a full scan:\n" + plan);
+    }
+
+    private String explainLastSelect(Runnable query) {
+        RecordingStatementInspector.clear();
+        query.run();
+        String sql = RecordingStatementInspector.lastSelect();
+
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                bindPlaceholders(statement);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    // H2 plans on the shape of the statement, so any value of the right type will do
+    private static void bindPlaceholders(PreparedStatement statement) throws SQLException {
+        ParameterMetaData metaData = statement.getParameterMetaData();
+        for (int i = 1; i <= metaData.getParameterCount(); i++) {
+            switch (metaData.getParameterType(i)) {
+                case Types.INTEGER, Types.BIGINT, Types.SMALLINT, Types.TINYINT -> statement.setInt(i, 1);
+                case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.DECIMAL, Types.NUMERIC -> statement.setDouble(i, 1.0);
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE -> statement.setTimestamp(i, new Timestamp(0));
+                case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR -> statement.setString(i, "x");
+                default -> statement.setObject(i, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package id.ac.ui.cs.advprog.productservice.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Captures the SQL Hibernate generates so tests can inspect the real statements behind
+ * derived and annotated repository queries.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    static String lastSelect() {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            String sql = STATEMENTS.get(i);
+            if (sql.regionMatches(true, 0, "select", 0, 6)) {
+                return sql;
+            }
+        }
+        throw new IllegalStateException("No SELECT statement was recorded");
+    }
+}
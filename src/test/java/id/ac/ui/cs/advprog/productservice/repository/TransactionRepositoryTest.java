@@ -1,8 +1,13 @@
 package id.ac.ui.cs.advprog.productservice.repository;
 
+import id.ac.ui.cs.advprog.productservice.dto.TransactionCursor;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
 import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.model.TransactionItem;
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +20,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -525,4 +531,151 @@ class TransactionRepositoryTest {
         // Act & Assert
         assertFalse(repository.existsById("non-existent-id"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByCustomerId_ShouldLoadItemsProductsAndPaymentWithTheTransaction() {
+        // Arrange
+        Payment payment = new Payment(null, "customer-1", 200.0, "CASH", "LUNAS", startDate);
+        entityManager.persist(payment);
+        transaction1.setPayment(payment);
+        transaction1.addItem(new TransactionItem(product1, 2));
+        transaction3.addItem(new TransactionItem(product2, 1));
+        repository.save(transaction1);
+        repository.save(transaction3);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Transaction> results = repository.findByCustomerId("customer-1");
+
+        // Assert - the graph is loaded up front, nothing is left for lazy loading
+        assertEquals(2, results.size());
+        for (Transaction transaction : results) {
+            assertTrue(Hibernate.isInitialized(transaction.getItems()));
+            transaction.getItems().forEach(item -> assertTrue(Hibernate.isInitialized(item.getProduct())));
+        }
+        Transaction withPayment = results.stream()
+                .filter(t -> t.getId().equals(transaction1.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(Hibernate.isInitialized(withPayment.getPayment()));
+    }
+
+    @Test
+    void findFilteredIdsAfter_ShouldSeekPastCursorInSortOrder() {
+        // Arrange
+        repository.save(transaction1); // 200.0, startDate
+        repository.save(transaction2); // 200.0, middleDate
+        repository.save(transaction3); // 700.0, endDate
+
+        // Act - first page, newest first
+        List<String> firstPage = repository.findFilteredIdsAfter(
+                null, null, null, null, null, TransactionSortField.CREATED_AT, true, null, 2);
+
+        // Assert
+        assertEquals(List.of("transaction-3", "transaction-2"), firstPage);
+
+        // Act - second page continues strictly after the last row of the first page
+        TransactionCursor cursor = TransactionCursor.after(transaction2, TransactionSortField.CREATED_AT, true);
+        List<String> secondPage = repository.findFilteredIdsAfter(
+                null, null, null, null, null, TransactionSortField.CREATED_AT, true, cursor, 2);
+
+        // Assert
+        assertEquals(List.of("transaction-1"), secondPage);
+    }
+
+    @Test
+    void findFilteredIdsAfter_ShouldBreakTiesOnId() {
+        // Arrange
+        repository.save(transaction1); // 200.0
+        repository.save(transaction2); // 200.0
+        repository.save(transaction3); // 700.0
+
+        // Act
+        TransactionCursor cursor = TransactionCursor.after(transaction1, TransactionSortField.TOTAL_AMOUNT, false);
+        List<String> results = repository.findFilteredIdsAfter(
+                null, null, null, null, null, TransactionSortField.TOTAL_AMOUNT, false, cursor, 10);
+
+        // Assert
+        assertEquals(List.of("transaction-2", "transaction-3"), results);
+    }
+
+    @Test
+    void findFilteredIdsAfter_ShouldApplyFilters() {
+        // Arrange
+        repository.save(transaction1); // customer-1, PENDING, CASH
+        repository.save(transaction2); // customer-2, COMPLETED, CARD
+        repository.save(transaction3); // customer-1, CANCELLED, CASH
+
+        // Act
+        List<String> results = repository.findFilteredIdsAfter(
+                "customer-1", List.of(TransactionStatus.PENDING), List.of("CASH"), null, null,
+                TransactionSortField.STATUS, false, null, 10);
+
+        // Assert
+        assertEquals(List.of("transaction-1"), results);
+    }
+
+    @Test
+    void streamSalesFacts_ShouldSumItemsPerTransaction() {
+        // Arrange
+        transaction1.addItem(new TransactionItem(product1, 2));
+        transaction1.addItem(new TransactionItem(product2, 3));
+        entityManager.persist(transaction1);
+        entityManager.persist(transaction2);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<SalesFact> facts;
+        try (Stream<SalesFact> stream = repository.streamSalesFacts()) {
+            facts = stream.toList();
+        }
+
+        // Assert
+        assertEquals(2, facts.size());
+        SalesFact withItems = facts.stream()
+                .filter(fact -> fact.status() == TransactionStatus.PENDING)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(5, withItems.itemsSold());
+        assertEquals("CASH", withItems.paymentMethod());
+        assertEquals(0, facts.stream()
+                .filter(fact -> fact.status() == TransactionStatus.COMPLETED)
+                .findFirst()
+                .orElseThrow()
+                .itemsSold());
+    }
+
+    @Test
+    void findAllByIdForUpdate_ShouldReturnExistingRowsInIdOrder() {
+        // Arrange
+        repository.save(transaction2);
+        repository.save(transaction1);
+        entityManager.flush();
+
+        // Act
+        List<Transaction> locked = repository.findAllByIdForUpdate(
+                List.of(transaction2.getId(), "missing-id", transaction1.getId()));
+
+        // Assert
+        assertEquals(List.of("transaction-1", "transaction-2"), locked.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    void updateStatus_ShouldOnlyChangeRowsInExpectedStatus() {
+        // Arrange
+        repository.save(transaction1); // PENDING
+        repository.save(transaction2); // COMPLETED
+        entityManager.flush();
+
+        // Act
+        int updated = repository.updateStatus(List.of(transaction1.getId(), transaction2.getId()),
+                List.of(TransactionStatus.PENDING), TransactionStatus.CANCELLED, new Date());
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(TransactionStatus.CANCELLED, repository.findById(transaction1.getId()).orElseThrow().getStatus());
+        assertEquals(TransactionStatus.COMPLETED, repository.findById(transaction2.getId()).orElseThrow().getStatus());
+    }
+}
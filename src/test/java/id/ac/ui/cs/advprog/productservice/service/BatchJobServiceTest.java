@@ -0,0 +1,141 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.BatchResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.JobDTO;
+import id.ac.ui.cs.advprog.productservice.enums.JobStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchJobServiceTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private List<Runnable> queued;
+    private MutableClock clock;
+    private BatchJobService batchJobService;
+
+    @BeforeEach
+    void setUp() {
+        queued = new ArrayList<>();
+        clock = new MutableClock();
+        batchJobService = new BatchJobService(transactionService, queued::add, 2, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    void submit_ReturnsQueuedJobWithoutRunningIt() {
+        JobDTO job = batchJobService.submitComplete(List.of("t-1", "t-2", "t-1"));
+
+        assertEquals(JobStatus.QUEUED, job.getStatus());
+        assertEquals(BatchJobService.BATCH_COMPLETE, job.getType());
+        assertEquals(2, job.getTotal());
+        assertEquals(1, queued.size());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void run_ProcessesInChunksAndReportsProgress() {
+        when(transactionService.batchCompleteTransactions(List.of("t-1", "t-2"))).thenReturn(result(
+                List.of("t-1"), "t-2", "Transaction is CANCELLED"));
+        when(transactionService.batchCompleteTransactions(List.of("t-3"))).thenReturn(result(List.of("t-3"), null, null));
+        JobDTO job = batchJobService.submitComplete(List.of("t-1", "t-2", "t-3"));
+
+        queued.get(0).run();
+
+        JobDTO finished = batchJobService.getJob(job.getId()).orElseThrow();
+        assertEquals(JobStatus.SUCCEEDED, finished.getStatus());
+        assertEquals(3, finished.getCompleted());
+        assertEquals(2, finished.getProcessed());
+        assertEquals("Transaction is CANCELLED", finished.getSkipped().get("t-2"));
+        assertNotNull(finished.getFinishedAt());
+        verify(transactionService, times(2)).batchCompleteTransactions(anyList());
+    }
+
+    @Test
+    void run_FailedChunkIsRecordedAndLaterChunksStillRun() {
+        when(transactionService.batchCancelTransactions(List.of("t-1", "t-2")))
+                .thenThrow(new IllegalStateException("deadlock detected"));
+        when(transactionService.batchCancelTransactions(List.of("t-3"))).thenReturn(result(List.of("t-3"), null, null));
+        JobDTO job = batchJobService.submitCancel(List.of("t-1", "t-2", "t-3"));
+
+        queued.get(0).run();
+
+        JobDTO finished = batchJobService.getJob(job.getId()).orElseThrow();
+        assertEquals(JobStatus.FAILED, finished.getStatus());
+        assertEquals(3, finished.getCompleted());
+        assertEquals(1, finished.getProcessed());
+        assertEquals("Failed: deadlock detected", finished.getSkipped().get("t-1"));
+        assertEquals(1, finished.getErrors().size());
+    }
+
+    @Test
+    void evictExpired_DropsFinishedJobsAfterTtl() {
+        JobDTO finished = batchJobService.submitComplete(List.of());
+        JobDTO stillQueued = batchJobService.submitComplete(List.of());
+        queued.get(0).run();
+
+        clock.advance(Duration.ofMinutes(10));
+        batchJobService.evictExpired();
+
+        assertTrue(batchJobService.getJob(finished.getId()).isEmpty());
+        assertTrue(batchJobService.getJob(stillQueued.getId()).isPresent());
+    }
+
+    @Test
+    void submit_RejectedJobIsNotKept() {
+        BatchJobService saturated = new BatchJobService(transactionService, task -> {
+            throw new RejectedExecutionException("full");
+        }, 2, Duration.ofMinutes(10), clock);
+
+        assertThrows(RejectedExecutionException.class, () -> saturated.submitComplete(List.of("t-1")));
+    }
+
+    private static BatchResultDTO result(List<String> processed, String skippedId, String reason) {
+        BatchResultDTO result = new BatchResultDTO();
+        result.getProcessed().addAll(processed);
+        if (skippedId != null) {
+            result.getSkipped().put(skippedId, reason);
+        }
+        return result;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.BulkTransactionResponseDTO;
+import id.ac.ui.cs.advprog.productservice.dto.BulkTransactionResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.service.InventoryService;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BulkTransactionServiceTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private CustomerTransactionCache customerTransactionCache;
+
+    @Mock
+    private OngoingTransactionRegistry ongoingRegistry;
+
+    @Mock
+    private CustomerBalanceLedger balanceLedger;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Product apple;
+    private Product pear;
+    private Map<UUID, Product> knownProducts;
+
+    @BeforeEach
+    void setUp() {
+        apple = new Product("Apple", "Fruit", 5, 10.0);
+        pear = new Product("Pear", "Fruit", 1, 20.0);
+        knownProducts = new HashMap<>();
+        knownProducts.put(apple.getId(), apple);
+        knownProducts.put(pear.getId(), pear);
+
+        when(inventoryService.lockProducts(anyCollection())).thenAnswer(invocation -> {
+            Map<UUID, Product> locked = new HashMap<>();
+            for (UUID id : invocation.<Collection<UUID>>getArgument(0)) {
+                if (knownProducts.containsKey(id)) {
+                    locked.put(id, knownProducts.get(id));
+                }
+            }
+            return locked;
+        });
+        when(inventoryService.availableStock(any(Product.class)))
+                .thenAnswer(invocation -> invocation.<Product>getArgument(0).getStock());
+        when(inventoryService.reserveAll(anyMap())).thenAnswer(invocation -> {
+            Map<UUID, Boolean> reserved = new HashMap<>();
+            invocation.<Map<UUID, Integer>>getArgument(0).keySet().forEach(id -> reserved.put(id, true));
+            return reserved;
+        });
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void ingest_AdmitsOrdersAgainstLockedStockInRequestOrder() {
+        BulkTransactionResponseDTO response = service(10).ingest(List.of(
+                request("customer-1", 20.0, Map.of(apple.getId().toString(), 2)),
+                request("customer-2", 5.0, Map.of(pear.getId().toString(), 1, apple.getId().toString(), 1)),
+                request("customer-3", 20.0, Map.of(pear.getId().toString(), 1))));
+
+        assertEquals(3, response.getReceived());
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertEquals(TransactionStatus.COMPLETED, response.getResults().get(0).getStatus());
+        assertEquals(TransactionStatus.IN_PROGRESS, response.getResults().get(1).getStatus());
+        assertEquals("Not enough stock for product: Pear", response.getResults().get(2).getError());
+
+        // One lock and one decrement per product for the whole chunk
+        verify(inventoryService, times(1)).lockProducts(anyCollection());
+        verify(inventoryService).reserveAll(Map.of(apple.getId(), 3, pear.getId(), 1));
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        verify(customerTransactionCache).evict("customer-1", "customer-2");
+        verify(salesRollupService, times(2)).record(isNull(), any());
+        verify(ongoingRegistry, times(2)).track(any(Transaction.class));
+        verify(balanceLedger).record(List.of(), List.of(
+                new CustomerBalanceLedger.Contribution("customer-1", 20.0, 20.0),
+                new CustomerBalanceLedger.Contribution("customer-2", 30.0, 5.0)));
+    }
+
+    @Test
+    void ingest_ReportsInvalidRecordsWithoutAbortingTheBatch() {
+        List<TransactionRequestDTO> requests = Arrays.asList(
+                null,
+                request("customer-1", null, Map.of(apple.getId().toString(), 1)),
+                request("customer-1", 10.0, Map.of("not-a-uuid", 1)),
+                request("customer-1", 10.0, Map.of(UUID.randomUUID().toString(), 1)),
+                request("customer-1", 10.0, Map.of(apple.getId().toString(), 0)),
+                request("customer-1", 10.0, Map.of(apple.getId().toString(), 1)));
+
+        BulkTransactionResponseDTO response = service(10).ingest(requests);
+
+        List<BulkTransactionResultDTO> results = response.getResults();
+        assertEquals("Malformed record", results.get(0).getError());
+        assertEquals("amount is required", results.get(1).getError());
+        assertEquals("Product not found: not-a-uuid", results.get(2).getError());
+        assertTrue(results.get(3).getError().startsWith("Product not found: "));
+        assertEquals("productQuantities must contain a positive quantity", results.get(4).getError());
+        assertTrue(results.get(5).isCreated());
+        assertEquals(1, response.getCreated());
+        assertEquals(5, response.getFailed());
+    }
+
+    @Test
+    void ingest_RejectsMalformedPaymentMethod() {
+        TransactionRequestDTO malformed = request("customer-1", 10.0, Map.of(apple.getId().toString(), 1));
+        malformed.setPaymentMethod("<script>");
+
+        BulkTransactionResponseDTO response = service(10).ingest(List.of(malformed));
+
+        assertEquals("Invalid paymentMethod", response.getResults().get(0).getError());
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void ingest_FailedChunkOnlyFailsItsOwnRecords() {
+        when(transactionRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        BulkTransactionResponseDTO response = service(1).ingest(List.of(
+                request("customer-1", 10.0, Map.of(apple.getId().toString(), 1)),
+                request("customer-2", 10.0, Map.of(apple.getId().toString(), 1))));
+
+        assertTrue(response.getResults().get(0).isCreated());
+        assertEquals("Chunk rolled back: connection reset", response.getResults().get(1).getError());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(inventoryService, times(2)).lockProducts(anyCollection());
+    }
+
+    @Test
+    void ingest_RejectsOversizedRequest() {
+        List<TransactionRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            requests.add(request("customer-1", 10.0, Map.of(apple.getId().toString(), 1)));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> service(10).ingest(requests));
+        verifyNoInteractions(inventoryService, transactionRepository);
+    }
+
+    @Test
+    void createAll_ReturnsOneOutcomePerRequestFromASingleTransaction() {
+        List<BulkTransactionService.Outcome> outcomes = service(1).createAll(Arrays.asList(
+                request("customer-1", 20.0, Map.of(pear.getId().toString(), 1)),
+                request("customer-2", 20.0, Map.of(pear.getId().toString(), 1)),
+                request("customer-3", null, Map.of(apple.getId().toString(), 1)),
+                request("customer-4", 20.0, Map.of(UUID.randomUUID().toString(), 1))));
+
+        assertTrue(outcomes.get(0).isCreated());
+        assertEquals("customer-1", outcomes.get(0).transaction().getCustomerId());
+        assertInstanceOf(IllegalStateException.class, outcomes.get(1).error());
+        assertInstanceOf(IllegalArgumentException.class, outcomes.get(2).error());
+        assertInstanceOf(NoSuchElementException.class, outcomes.get(3).error());
+
+        // The chunk size only applies to ingest; a group is always one commit
+        verify(inventoryService, times(1)).lockProducts(anyCollection());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void createAll_FailedCommitFailsEveryRequest() {
+        when(transactionRepository.saveAll(anyList())).thenThrow(new IllegalStateException("connection reset"));
+
+        List<BulkTransactionService.Outcome> outcomes = service(10).createAll(List.of(
+                request("customer-1", 10.0, Map.of(apple.getId().toString(), 1)),
+                request("customer-2", 10.0, Map.of(apple.getId().toString(), 1))));
+
+        assertEquals("connection reset", outcomes.get(0).error().getMessage());
+        assertEquals("connection reset", outcomes.get(1).error().getMessage());
+    }
+
+    private BulkTransactionService service(int chunkSize) {
+        return new BulkTransactionService(inventoryService, transactionRepository, searchIndex,
+                salesRollupService, customerTransactionCache, ongoingRegistry, balanceLedger, entityManager,
+                transactionManager, chunkSize, 10);
+    }
+
+    private static TransactionRequestDTO request(String customerId, Double amount, Map<String, Integer> quantities) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setCustomerId(customerId);
+        request.setAmount(amount);
+        request.setPaymentMethod("CASH");
+        request.setProductQuantities(quantities);
+        return request;
+    }
+}
@@ -0,0 +1,210 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.productservice.dto.CheckoutStatusDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.enums.CheckoutStatus;
+import id.ac.ui.cs.advprog.productservice.model.CheckoutRequest;
+import id.ac.ui.cs.advprog.productservice.repository.CheckoutRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CheckoutIntakeServiceTest {
+
+    @Mock
+    private CheckoutRequestRepository checkoutRequestRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Runnable> handedOver;
+    private CheckoutIntakeService service;
+
+    @BeforeEach
+    void setUp() {
+        handedOver = new ArrayList<>();
+        service = service(2, handedOver::add);
+        when(checkoutRequestRepository.save(any(CheckoutRequest.class))).thenAnswer(invocation -> {
+            CheckoutRequest checkout = invocation.getArgument(0);
+            checkout.setId("checkout-1");
+            return checkout;
+        });
+    }
+
+    @Test
+    void submit_StoresValidRequestAsQueued() {
+        CheckoutStatusDTO checkout = service.submit(request());
+
+        assertEquals("checkout-1", checkout.getId());
+        assertEquals(CheckoutStatus.QUEUED, checkout.getStatus());
+        verify(checkoutRequestRepository).save(argThat(saved -> saved.getPayload().contains("customer-1")));
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void submit_RejectsInvalidRequest() {
+        TransactionRequestDTO request = request();
+        request.setProductQuantities(Map.of("not-a-uuid", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(request));
+        request.setAmount(null);
+        assertThrows(IllegalArgumentException.class, () -> service.submit(request));
+        verify(checkoutRequestRepository, never()).save(any());
+    }
+
+    @Test
+    void dispatch_HandsOverNoMoreThanIdleWorkers() {
+        when(checkoutRequestRepository.findByStatusOrderByCreatedAtAscIdAsc(eq(CheckoutStatus.QUEUED), any(Pageable.class)))
+                .thenReturn(List.of(queued("checkout-1"), queued("checkout-2")));
+        when(checkoutRequestRepository.claim(anyString(), eq(0), any(Date.class))).thenReturn(1);
+
+        service.dispatch();
+        service.dispatch();
+
+        assertEquals(2, handedOver.size());
+        verify(checkoutRequestRepository, times(1))
+                .findByStatusOrderByCreatedAtAscIdAsc(eq(CheckoutStatus.QUEUED), argThat(page -> page.getPageSize() == 2));
+        verify(checkoutRequestRepository, times(2)).requeueStale(any(Date.class), eq(3), any(Date.class));
+        verify(checkoutRequestRepository, times(2)).failStale(any(Date.class), eq(3), anyString(), any(Date.class));
+    }
+
+    @Test
+    void dispatch_SkipsRequestClaimedElsewhere() {
+        when(checkoutRequestRepository.findByStatusOrderByCreatedAtAscIdAsc(eq(CheckoutStatus.QUEUED), any(Pageable.class)))
+                .thenReturn(List.of(queued("checkout-1")));
+        when(checkoutRequestRepository.claim(eq("checkout-1"), eq(0), any(Date.class))).thenReturn(0);
+
+        service.dispatch();
+
+        assertTrue(handedOver.isEmpty());
+    }
+
+    @Test
+    void dispatch_RequeuesWhenWorkersRejectIt() {
+        service = service(2, task -> {
+            throw new RejectedExecutionException("full");
+        });
+        when(checkoutRequestRepository.findByStatusOrderByCreatedAtAscIdAsc(eq(CheckoutStatus.QUEUED), any(Pageable.class)))
+                .thenReturn(List.of(queued("checkout-1")));
+        when(checkoutRequestRepository.claim(eq("checkout-1"), eq(0), any(Date.class))).thenReturn(1);
+
+        service.dispatch();
+
+        verify(checkoutRequestRepository).finish(eq("checkout-1"), eq(1), eq(CheckoutStatus.QUEUED),
+                isNull(), isNull(), any(Date.class));
+    }
+
+    @Test
+    void process_RecordsCreatedTransaction() throws Exception {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setId("transaction-1");
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class))).thenReturn(transaction);
+        when(checkoutRequestRepository.finish(anyString(), anyInt(), any(), any(), any(), any())).thenReturn(1);
+
+        service.process("checkout-1", objectMapper.writeValueAsString(request()), 1);
+
+        verify(checkoutRequestRepository).finish(eq("checkout-1"), eq(1), eq(CheckoutStatus.SUCCEEDED),
+                eq("transaction-1"), isNull(), any(Date.class));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void process_RecordsFailure() throws Exception {
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class)))
+                .thenThrow(new IllegalStateException("Not enough stock for product: Apple"));
+
+        service.process("checkout-1", objectMapper.writeValueAsString(request()), 1);
+
+        verify(checkoutRequestRepository).finish(eq("checkout-1"), eq(1), eq(CheckoutStatus.FAILED),
+                isNull(), eq("Not enough stock for product: Apple"), any(Date.class));
+    }
+
+    @Test
+    void process_RequeuesTransientFailure() throws Exception {
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class)))
+                .thenThrow(new PessimisticLockingFailureException("lock timeout"));
+
+        service.process("checkout-1", objectMapper.writeValueAsString(request()), 2);
+
+        verify(checkoutRequestRepository).finish(eq("checkout-1"), eq(2), eq(CheckoutStatus.QUEUED),
+                isNull(), isNull(), any(Date.class));
+    }
+
+    @Test
+    void process_FailsTransientFailureOnTheLastAttempt() throws Exception {
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class)))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+
+        service.process("checkout-1", objectMapper.writeValueAsString(request()), 3);
+
+        verify(checkoutRequestRepository).finish(eq("checkout-1"), eq(3), eq(CheckoutStatus.FAILED),
+                isNull(), eq("statement timeout"), any(Date.class));
+    }
+
+    @Test
+    void process_LostClaimRollsBackAndRecordsNothing() throws Exception {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setId("transaction-1");
+        when(transactionService.createTransaction(any(TransactionRequestDTO.class))).thenReturn(transaction);
+        when(checkoutRequestRepository.finish(anyString(), anyInt(), any(), any(), any(), any())).thenReturn(0);
+
+        service.process("checkout-1", objectMapper.writeValueAsString(request()), 1);
+
+        verify(transactionManager).rollback(any());
+        verify(checkoutRequestRepository, never()).finish(anyString(), anyInt(), eq(CheckoutStatus.FAILED),
+                any(), any(), any());
+    }
+
+    private CheckoutIntakeService service(int workers, Executor executor) {
+        return new CheckoutIntakeService(checkoutRequestRepository, transactionService, objectMapper,
+                transactionManager, executor, workers, Duration.ofMinutes(5), 3,
+                Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    private static CheckoutRequest queued(String id) {
+        CheckoutRequest checkout = new CheckoutRequest("{}", new Date());
+        checkout.setId(id);
+        return checkout;
+    }
+
+    private static TransactionRequestDTO request() {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setCustomerId("customer-1");
+        request.setAmount(10.0);
+        request.setPaymentMethod("CASH");
+        request.setProductQuantities(Map.of(UUID.randomUUID().toString(), 1));
+        return request;
+    }
+}
@@ -0,0 +1,181 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.CustomerBalanceDTO;
+import id.ac.ui.cs.advprog.productservice.model.CustomerBalance;
+import id.ac.ui.cs.advprog.productservice.repository.CustomerBalanceRepository;
+import id.ac.ui.cs.advprog.productservice.repository.CustomerBalanceSnapshot;
+import id.ac.ui.cs.advprog.productservice.repository.CustomerTotals;
+import id.ac.ui.cs.advprog.productservice.service.CustomerBalanceLedger.Contribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CustomerBalanceLedgerTest {
+
+    @Mock
+    private CustomerBalanceRepository balanceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerBalanceLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new CustomerBalanceLedger(balanceRepository, transactionManager);
+        when(balanceRepository.addTo(anyString(), anyDouble(), anyDouble(), anyLong())).thenReturn(1);
+    }
+
+    @Test
+    void record_AppliesOneNetDeltaPerCustomerInIdOrder() {
+        when(balanceRepository.findSnapshot("customer-b")).thenReturn(Optional.of(snapshot("customer-b", 100, 80, 2, 4)));
+
+        // A transaction moved from customer-b to customer-a with more paid on it
+        ledger.record(List.of(new Contribution("customer-b", 50, 20)),
+                List.of(new Contribution("customer-a", 50, 30), new Contribution("customer-b", 10, 10)));
+
+        InOrder order = inOrder(balanceRepository);
+        order.verify(balanceRepository).addTo("customer-a", 50.0, 30.0, 1L);
+        order.verify(balanceRepository).addTo("customer-b", -40.0, -10.0, 0L);
+        verify(balanceRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void record_SkipsCustomersWhoseBalanceDidNotChange() {
+        ledger.record(new Contribution("customer-1", 200, 50), new Contribution("customer-1", 200, 50));
+
+        verify(balanceRepository, never()).addTo(anyString(), anyDouble(), anyDouble(), anyLong());
+    }
+
+    @Test
+    void record_CreatesTheRowForANewCustomerInItsOwnTransaction() {
+        when(balanceRepository.addTo(eq("customer-1"), anyDouble(), anyDouble(), anyLong())).thenReturn(0, 1);
+        when(balanceRepository.existsById("customer-1")).thenReturn(false);
+
+        ledger.record(null, new Contribution("customer-1", 200, 50));
+
+        verify(balanceRepository).saveAndFlush(argThat(balance -> balance.getCustomerId().equals("customer-1")));
+        verify(balanceRepository, times(2)).addTo("customer-1", 200.0, 50.0, 1L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void getBalance_ServedFromViewAfterWrite() {
+        when(balanceRepository.findSnapshot("customer-1")).thenReturn(Optional.of(snapshot("customer-1", 300, 120, 2, 7)));
+        ledger.record(null, new Contribution("customer-1", 100, 20));
+        clearInvocations(balanceRepository);
+
+        CustomerBalanceDTO balance = ledger.getBalance("customer-1");
+
+        assertEquals(300.0, balance.getTotalSpent());
+        assertEquals(120.0, balance.getTotalPaid());
+        assertEquals(180.0, balance.getOutstandingBalance());
+        assertEquals(2, balance.getTransactionCount());
+        verifyNoInteractions(balanceRepository);
+    }
+
+    @Test
+    void getBalance_KeepsTheNewestRevision() {
+        when(balanceRepository.findSnapshot("customer-1"))
+                .thenReturn(Optional.of(snapshot("customer-1", 300, 300, 2, 7)))
+                .thenReturn(Optional.of(snapshot("customer-1", 200, 100, 1, 6)));
+
+        // Commits can run their after-commit hooks out of order; the older snapshot must not win
+        ledger.record(null, new Contribution("customer-1", 100, 200));
+        ledger.record(null, new Contribution("customer-1", 200, 100));
+
+        assertEquals(0.0, ledger.getBalance("customer-1").getOutstandingBalance());
+    }
+
+    @Test
+    void getBalance_UnknownCustomerIsAllZero() {
+        when(balanceRepository.findSnapshot("nobody")).thenReturn(Optional.empty());
+
+        CustomerBalanceDTO balance = ledger.getBalance("nobody");
+
+        assertEquals("nobody", balance.getCustomerId());
+        assertEquals(0.0, balance.getOutstandingBalance());
+        assertEquals(0, balance.getTransactionCount());
+    }
+
+    @Test
+    void backfill_FillsOnlyAnEmptyLedger() {
+        CustomerTotals totals = snapshot("customer-1", 300, 100, 3, 0);
+        when(balanceRepository.sumTransactionsByCustomer()).thenReturn(List.of(totals));
+        when(balanceRepository.count()).thenReturn(0L, 1L);
+
+        assertEquals(1, ledger.backfill());
+        verify(balanceRepository).saveAll(argThat(balances -> {
+            CustomerBalance balance = ((List<CustomerBalance>) balances).get(0);
+            return balance.getCustomerId().equals("customer-1") && balance.getTotalSpent() == 300
+                    && balance.getTotalPaid() == 100 && balance.getTransactionCount() == 3;
+        }));
+
+        assertEquals(0, ledger.backfill());
+        verify(balanceRepository, times(1)).sumTransactionsByCustomer();
+    }
+
+    @Test
+    void backfill_RunsBeforeTrafficStarts() {
+        when(balanceRepository.count()).thenReturn(0L);
+        when(balanceRepository.sumTransactionsByCustomer()).thenReturn(List.of(snapshot("customer-1", 10, 10, 1, 0)));
+
+        ledger.afterSingletonsInstantiated();
+
+        verify(balanceRepository).saveAll(anyList());
+    }
+
+    @Test
+    void backfill_AnotherInstanceFillingFirstIsNotAnError() {
+        when(balanceRepository.count()).thenReturn(0L);
+        when(balanceRepository.sumTransactionsByCustomer()).thenReturn(List.of(snapshot("customer-1", 10, 10, 1, 0)));
+        when(balanceRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertEquals(0, ledger.backfill());
+    }
+
+    private static CustomerBalanceSnapshot snapshot(String customerId, double spent, double paid, long count, long revision) {
+        return new CustomerBalanceSnapshot() {
+            @Override
+            public String getCustomerId() {
+                return customerId;
+            }
+
+            @Override
+            public Double getTotalSpent() {
+                return spent;
+            }
+
+            @Override
+            public Double getTotalPaid() {
+                return paid;
+            }
+
+            @Override
+            public Long getTransactionCount() {
+                return count;
+            }
+
+            @Override
+            public Long getRevision() {
+                return revision;
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerTransactionCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private MutableClock clock;
+    private CustomerTransactionCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new CustomerTransactionCache(meterRegistry, 2, Duration.ofMinutes(5), clock);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_LoadsOnceThenHits() {
+        List<TransactionDTO> first = cache.get("customer-1", () -> history("t-1"));
+        List<TransactionDTO> second = cache.get("customer-1", () -> history("t-2"));
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals(1.0, count("cache.gets", "result", "hit"));
+        assertEquals(1.0, count("cache.gets", "result", "miss"));
+    }
+
+    @Test
+    void get_ReloadsAfterTtl() {
+        cache.get("customer-1", () -> history("t-1"));
+        clock.advance(Duration.ofMinutes(5));
+
+        List<TransactionDTO> reloaded = cache.get("customer-1", () -> history("t-2"));
+
+        assertEquals("t-2", reloaded.get(0).getId());
+        assertEquals(1.0, count("cache.evictions", "cause", "expired"));
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedBeyondMaxSize() {
+        cache.get("customer-1", () -> history("t-1"));
+        cache.get("customer-2", () -> history("t-2"));
+        cache.get("customer-1", () -> history("unused"));
+        cache.get("customer-3", () -> history("t-3"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1.0, count("cache.evictions", "cause", "size"));
+        cache.get("customer-2", () -> history("t-2b"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void evict_DropsEveryGivenCustomer() {
+        cache.get("customer-1", () -> history("t-1"));
+        cache.get("customer-2", () -> history("t-2"));
+
+        cache.evict("customer-1", "customer-2", null);
+
+        assertEquals(0, cache.size());
+        assertEquals(2.0, count("cache.evictions", "cause", "explicit"));
+        assertEquals(0.0, meterRegistry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void get_DoesNotStoreLoadThatRacedAnEviction() {
+        List<TransactionDTO> stale = cache.get("customer-1", () -> {
+            cache.evict("customer-1");
+            return history("t-old");
+        });
+
+        assertEquals("t-old", stale.get(0).getId());
+        assertEquals(0, cache.size());
+    }
+
+    private List<TransactionDTO> history(String transactionId) {
+        loads.incrementAndGet();
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(transactionId);
+        return List.of(dto);
+    }
+
+    private double count(String name, String tagKey, String tagValue) {
+        return meterRegistry.get(name)
+                .tag("cache", CustomerTransactionCache.CACHE_NAME)
+                .tag(tagKey, tagValue)
+                .counter()
+                .count();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitCheckoutTest {
+
+    @Mock
+    private BulkTransactionService bulkTransactionService;
+
+    private GroupCommitCheckout checkout;
+
+    @AfterEach
+    void tearDown() {
+        if (checkout != null) {
+            checkout.stop();
+        }
+    }
+
+    @Test
+    void submit_WritesConcurrentOrdersAsOneGroup() throws Exception {
+        when(bulkTransactionService.createAll(anyList())).thenAnswer(invocation -> invocation
+                .<List<TransactionRequestDTO>>getArgument(0).stream()
+                .map(request -> BulkTransactionService.Outcome.created(transaction(request.getCustomerId())))
+                .toList());
+        checkout = checkout(3, Duration.ofSeconds(5));
+
+        List<CompletableFuture<TransactionDTO>> results = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            results.add(checkout.submit(request("customer-" + i)));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("customer-" + (i + 1), results.get(i).get(5, TimeUnit.SECONDS).getCustomerId());
+        }
+        verify(bulkTransactionService, times(1)).createAll(argThat(requests -> requests.size() == 3));
+    }
+
+    @Test
+    void submit_FlushesPartialGroupAfterMaxWait() throws Exception {
+        when(bulkTransactionService.createAll(anyList()))
+                .thenReturn(List.of(BulkTransactionService.Outcome.created(transaction("customer-1"))));
+        checkout = checkout(10, Duration.ofMillis(20));
+
+        assertEquals("customer-1", checkout.submit(request("customer-1")).get(5, TimeUnit.SECONDS).getCustomerId());
+    }
+
+    @Test
+    void createTransaction_RejectedOrderFailsAloneWithItsOwnException() throws Exception {
+        when(bulkTransactionService.createAll(anyList())).thenReturn(List.of(
+                BulkTransactionService.Outcome.created(transaction("customer-1")),
+                BulkTransactionService.Outcome.failed(new IllegalStateException("Not enough stock for product: Pear"))));
+        checkout = checkout(2, Duration.ofSeconds(5));
+
+        CompletableFuture<TransactionDTO> first = checkout.submit(request("customer-1"));
+        CompletableFuture<TransactionDTO> second = checkout.submit(request("customer-2"));
+
+        assertEquals("customer-1", first.get(5, TimeUnit.SECONDS).getCustomerId());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    @Test
+    void createTransaction_UnwrapsTheOrdersException() {
+        when(bulkTransactionService.createAll(anyList())).thenReturn(List.of(
+                BulkTransactionService.Outcome.failed(new IllegalArgumentException("amount is required"))));
+        checkout = checkout(1, Duration.ofMillis(1));
+
+        assertThrows(IllegalArgumentException.class, () -> checkout.createTransaction(request("customer-1")));
+    }
+
+    @Test
+    void submit_RejectedWhenDisabled() {
+        checkout = new GroupCommitCheckout(bulkTransactionService, new SimpleMeterRegistry(),
+                false, 10, Duration.ofMillis(5), 1);
+
+        assertFalse(checkout.isEnabled());
+        assertThrows(RejectedExecutionException.class, () -> checkout.submit(request("customer-1")));
+        verifyNoInteractions(bulkTransactionService);
+    }
+
+    private GroupCommitCheckout checkout(int maxBatch, Duration maxWait) {
+        return new GroupCommitCheckout(bulkTransactionService, new SimpleMeterRegistry(), true, maxBatch, maxWait, 1);
+    }
+
+    private static TransactionRequestDTO request(String customerId) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setCustomerId(customerId);
+        return request;
+    }
+
+    private static TransactionDTO transaction(String customerId) {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setCustomerId(customerId);
+        return transaction;
+    }
+}
@@ -0,0 +1,117 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checkout throughput against added latency, one commit per order versus group commit.
+ * Run with {@code ./gradlew functionalTest}; results are printed to stdout.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GroupCommitFunctionalTest {
+
+    private static final int THREADS = 32;
+    private static final int ORDERS_PER_THREAD = 100;
+    private static final int PRODUCTS = 8;
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BulkTransactionService bulkTransactionService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void compareSingleAndGroupCommit() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(productRepository.save(new Product("Group Commit " + i, "Benchmark", INITIAL_STOCK, 10.0)));
+        }
+
+        run("single commit", products, transactionService::createTransaction);
+
+        GroupCommitCheckout checkout = new GroupCommitCheckout(bulkTransactionService, new SimpleMeterRegistry(),
+                true, 32, Duration.ofMillis(5), 2);
+        try {
+            run("group commit (32 / 5ms)", products, checkout::createTransaction);
+        } finally {
+            checkout.stop();
+        }
+
+        for (Product product : products) {
+            int stock = productRepository.findById(product.getId()).orElseThrow().getStock();
+            assertEquals(INITIAL_STOCK - 2 * THREADS * ORDERS_PER_THREAD / PRODUCTS, stock);
+        }
+    }
+
+    private void run(String name, List<Product> products, Consumer<TransactionRequestDTO> checkout) throws Exception {
+        long[][] latencies = new long[THREADS][ORDERS_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    Product product = products.get((thread * ORDERS_PER_THREAD + i) % PRODUCTS);
+                    long begin = System.nanoTime();
+                    checkout.accept(request("customer-" + thread, product));
+                    latencies[thread][i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        pool.shutdown();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%s: %d orders in %.2fs (%.0f orders/s), latency p50 %.2fms p99 %.2fms%n",
+                name, all.length, seconds, all.length / seconds,
+                percentile(all, 0.50) / 1_000_000.0, percentile(all, 0.99) / 1_000_000.0);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static TransactionRequestDTO request(String customerId, Product product) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setCustomerId(customerId);
+        request.setPaymentMethod("CASH");
+        request.setAmount(10.0);
+        request.setProductQuantities(Map.of(product.getId().toString(), 1));
+        return request;
+    }
+}
@@ -0,0 +1,191 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final String SCOPE = "POST /test";
+
+    private MutableClock clock;
+    private IdempotencyStore store;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        store = new IdempotencyStore(new ObjectMapper(), 2, Duration.ofMinutes(10), clock);
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void execute_ReplaysStoredResult() {
+        String first = store.execute(SCOPE, "key-1", Map.of("amount", 10), this::create);
+        String second = store.execute(SCOPE, "key-1", Map.of("amount", 10), this::create);
+
+        assertEquals("result-1", first);
+        assertEquals(first, second);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_WithoutKeyAlwaysRuns() {
+        store.execute(SCOPE, null, Map.of(), this::create);
+        store.execute(SCOPE, " ", Map.of(), this::create);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void execute_RejectsKeyReusedForDifferentRequest() {
+        store.execute(SCOPE, "key-1", Map.of("amount", 10), this::create);
+
+        assertThrows(IdempotencyStore.KeyReuseException.class,
+                () -> store.execute(SCOPE, "key-1", Map.of("amount", 20), this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ScopesAreIndependent() {
+        store.execute(SCOPE, "key-1", Map.of(), this::create);
+        store.execute("POST /other", "key-1", Map.of(), this::create);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_CallersAreIndependent() {
+        authenticateAs("alice");
+        String alices = store.execute(SCOPE, "key-1", Map.of(), this::create);
+        authenticateAs("bob");
+        String bobs = store.execute(SCOPE, "key-1", Map.of(), this::create);
+        authenticateAs("alice");
+
+        assertEquals("result-1", alices);
+        assertEquals("result-2", bobs);
+        assertEquals(alices, store.execute(SCOPE, "key-1", Map.of(), this::create));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_FailureIsNotStored() {
+        assertThrows(IllegalStateException.class, () -> store.execute(SCOPE, "key-1", Map.of(), () -> {
+            throw new IllegalStateException("Not enough stock");
+        }));
+
+        assertEquals("result-1", store.execute(SCOPE, "key-1", Map.of(), this::create));
+    }
+
+    @Test
+    void execute_RunsAgainAfterTtl() {
+        store.execute(SCOPE, "key-1", Map.of(), this::create);
+        clock.advance(Duration.ofMinutes(10));
+
+        assertEquals("result-2", store.execute(SCOPE, "key-1", Map.of(), this::create));
+    }
+
+    @Test
+    void execute_DropsLeastRecentlyUsedBeyondMaxSize() {
+        store.execute(SCOPE, "key-1", Map.of(), this::create);
+        store.execute(SCOPE, "key-2", Map.of(), this::create);
+        store.execute(SCOPE, "key-3", Map.of(), this::create);
+
+        assertEquals(2, store.size());
+        store.execute(SCOPE, "key-1", Map.of(), this::create);
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicatesShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> owner = pool.submit(() -> store.execute(SCOPE, "key-1", Map.of(), () -> {
+                started.countDown();
+                await(release);
+                return create();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> retries = List.of(
+                    pool.submit(() -> store.execute(SCOPE, "key-1", Map.of(), this::create)),
+                    pool.submit(() -> store.execute(SCOPE, "key-1", Map.of(), this::create)));
+            release.countDown();
+
+            assertEquals("result-1", owner.get(5, TimeUnit.SECONDS));
+            for (Future<String> retry : retries) {
+                assertEquals("result-1", retry.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private String create() {
+        return "result-" + executions.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
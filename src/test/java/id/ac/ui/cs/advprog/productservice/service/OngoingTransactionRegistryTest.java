@@ -0,0 +1,127 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OngoingTransactionRegistryTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private MeterRegistry meterRegistry;
+    private OngoingTransactionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new OngoingTransactionRegistry(transactionRepository, meterRegistry);
+    }
+
+    @Test
+    void load_SplitsByStatus() {
+        when(transactionRepository.findOngoingTransactions()).thenReturn(List.of(
+                transaction("t-1", TransactionStatus.PENDING, 1000),
+                transaction("t-2", TransactionStatus.IN_PROGRESS, 2000),
+                transaction("t-3", TransactionStatus.PENDING, 3000)));
+
+        registry.load();
+
+        assertTrue(registry.isReady());
+        assertEquals(List.of("t-1", "t-3"), ids(registry.getByStatus(TransactionStatus.PENDING)));
+        assertEquals(List.of("t-2"), ids(registry.getByStatus(TransactionStatus.IN_PROGRESS)));
+        assertEquals(List.of("t-1", "t-2", "t-3"), ids(registry.getOngoing()));
+        assertEquals(2L, registry.countByStatus().get(TransactionStatus.PENDING));
+        assertEquals(2.0, meterRegistry.get("transactions.ongoing").tag("status", "PENDING").gauge().value());
+    }
+
+    @Test
+    void track_FollowsStateTransitions() {
+        when(transactionRepository.findOngoingTransactions()).thenReturn(List.of());
+        registry.load();
+        Transaction transaction = transaction("t-1", TransactionStatus.PENDING, 1000);
+
+        registry.track(transaction);
+        assertEquals(List.of("t-1"), ids(registry.getByStatus(TransactionStatus.PENDING)));
+
+        transaction.markInProgress();
+        registry.track(transaction);
+        assertTrue(registry.getByStatus(TransactionStatus.PENDING).isEmpty());
+        assertEquals(List.of("t-1"), ids(registry.getByStatus(TransactionStatus.IN_PROGRESS)));
+
+        transaction.cancel();
+        registry.track(transaction);
+        assertTrue(registry.getOngoing().isEmpty());
+        assertTrue(registry.getByStatus(TransactionStatus.CANCELLED).isEmpty());
+    }
+
+    @Test
+    void untrack_RemovesDeletedTransaction() {
+        when(transactionRepository.findOngoingTransactions()).thenReturn(List.of(
+                transaction("t-1", TransactionStatus.PENDING, 1000)));
+        registry.load();
+
+        registry.untrack("t-1");
+
+        assertTrue(registry.getOngoing().isEmpty());
+        assertEquals(0L, registry.countByStatus().get(TransactionStatus.PENDING));
+    }
+
+    @Test
+    void load_KeepsTransitionsCommittedWhileReading() {
+        Transaction completedMeanwhile = transaction("t-1", TransactionStatus.PENDING, 1000);
+        when(transactionRepository.findOngoingTransactions()).thenAnswer(invocation -> {
+            Transaction stale = transaction("t-1", TransactionStatus.PENDING, 1000);
+            completedMeanwhile.complete();
+            registry.track(completedMeanwhile);
+            return List.of(stale);
+        });
+
+        registry.load();
+
+        assertTrue(registry.getOngoing().isEmpty());
+    }
+
+    @Test
+    void load_KeepsTransactionsCreatedWhileReading() {
+        when(transactionRepository.findOngoingTransactions()).thenAnswer(invocation -> {
+            registry.track(transaction("t-2", TransactionStatus.PENDING, 2000));
+            return List.of(transaction("t-1", TransactionStatus.PENDING, 1000));
+        });
+
+        registry.load();
+
+        assertEquals(List.of("t-1", "t-2"), ids(registry.getOngoing()));
+    }
+
+    private static Transaction transaction(String id, TransactionStatus status, long createdAt) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setCustomerId("customer-1");
+        transaction.setPaymentMethod("CASH");
+        transaction.setStatus(status);
+        transaction.setCreatedAt(new Date(createdAt));
+        transaction.setPayment(new Payment("payment-" + id, "customer-1", 0.0, "CASH", "CICILAN", new Date()));
+        return transaction;
+    }
+
+    private static List<String> ids(List<TransactionDTO> transactions) {
+        return transactions.stream().map(TransactionDTO::getId).toList();
+    }
+}
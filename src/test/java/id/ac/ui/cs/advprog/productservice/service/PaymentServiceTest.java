@@ -1,19 +1,26 @@
 package id.ac.ui.cs.advprog.productservice.service;
 
+import id.ac.ui.cs.advprog.productservice.dto.PaymentCursor;
+import id.ac.ui.cs.advprog.productservice.dto.PaymentPageDTO;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
 import id.ac.ui.cs.advprog.productservice.repository.PaymentRepository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +47,19 @@ class PaymentServiceTest {
         verify(paymentRepository).save(payment);
     }
 
+    @Test
+    void testCreatePayments_SavesAllInOneCall() {
+        Payment other = new Payment("p2", "c2", 50.0, "DANA", "LUNAS", new Date());
+        when(paymentRepository.saveAll(List.of(payment, other))).thenReturn(List.of(payment, other));
+
+        List<Payment> result = paymentService.createPayments(List.of(payment, other));
+
+        assertEquals(2, result.size());
+        assertNull(payment.getId());
+        assertNull(other.getId());
+        verify(paymentRepository, never()).save(any());
+    }
+
     @Test
     void testGetPaymentById_success() {
         when(paymentRepository.findById("p1")).thenReturn(Optional.of(payment));
@@ -57,21 +77,79 @@ class PaymentServiceTest {
         assertEquals(payment, result.get(0));
     }
 
+    @Test
+    void testGetPaymentHistory_FetchesOneExtraRowToDetectNextPage() {
+        Payment older = new Payment("p0", "c1", 50.0, "OVO", "CICILAN", new Date(1_000L));
+        when(paymentRepository.findHistoryAfter("c1", "CICILAN", null, null, 2))
+                .thenReturn(List.of(payment, older));
+
+        PaymentPageDTO page = paymentService.getPaymentHistory("c1", "CICILAN", null, null, 1);
+
+        assertEquals(List.of(payment), page.getItems());
+        assertTrue(page.isHasMore());
+        PaymentCursor next = PaymentCursor.decode(page.getNextCursor());
+        assertEquals("p1", next.getId());
+        assertEquals(payment.getCreatedAt(), next.getCreatedAt());
+    }
+
+    @Test
+    void testGetPaymentHistory_LastPageHasNoCursor() {
+        PaymentCursor after = new PaymentCursor(new Date(5_000L), "p9");
+        when(paymentRepository.findHistoryAfter(eq("c1"), isNull(), isNull(), any(PaymentCursor.class), eq(21)))
+                .thenReturn(List.of(payment));
+
+        PaymentPageDTO page = paymentService.getPaymentHistory("c1", null, null, after.encode(), 20);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(paymentRepository).findHistoryAfter(eq("c1"), isNull(), isNull(),
+                argThat(cursor -> cursor.getId().equals("p9") && cursor.getCreatedAt().getTime() == 5_000L), eq(21));
+    }
+
+    @Test
+    void testGetPaymentHistory_RejectsBadSizeAndCursor() {
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentHistory("c1", null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentHistory("c1", null, null, null, 101));
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentHistory("c1", null, null, "garbage", 20));
+        verifyNoInteractions(paymentRepository);
+    }
+
     @Test
     void testUpdatePaymentStatus_success() {
-        when(paymentRepository.findById("p1")).thenReturn(Optional.of(payment));
+        when(paymentRepository.updateStatus("p1", "LUNAS")).thenReturn(1);
 
         assertDoesNotThrow(() -> paymentService.updatePaymentStatus("p1", "LUNAS"));
-        assertEquals("LUNAS", payment.getStatus());
+        verify(paymentRepository, never()).findById(any());
+        verify(paymentRepository, never()).save(any());
     }
 
     @Test
     void testDeletePayment_success() {
-        when(paymentRepository.findById("p1")).thenReturn(Optional.of(payment));
-        doNothing().when(paymentRepository).delete(payment);
+        when(paymentRepository.deletePaymentById("p1")).thenReturn(1);
 
         assertDoesNotThrow(() -> paymentService.deletePayment("p1"));
-        verify(paymentRepository).delete(payment);
+        verify(paymentRepository, never()).findById(any());
+        verify(paymentRepository, never()).delete(any());
+    }
+
+    @Test
+    void testUpdatePaymentStatuses_ChunksSortedDistinctIds() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1200; i > 0; i--) {
+            ids.add(String.format("p%04d", i));
+        }
+        ids.add("p0001");
+        when(paymentRepository.updateStatusIn(anyCollection(), eq("LUNAS")))
+                .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).size());
+
+        assertEquals(1200, paymentService.updatePaymentStatuses(ids, "LUNAS"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(paymentRepository, times(3)).updateStatusIn(chunks.capture(), eq("LUNAS"));
+        assertEquals(List.of(500, 500, 200), chunks.getAllValues().stream().map(Collection::size).toList());
+        assertEquals("p0001", chunks.getAllValues().get(0).iterator().next());
     }
 
 
@@ -87,9 +165,9 @@ class PaymentServiceTest {
     @Test
     void testUpdatePaymentStatus_notFound() {
         String invalidId = "invalid";
-        when(paymentRepository.findById("invalid")).thenReturn(Optional.empty());
+        when(paymentRepository.updateStatus("invalid", "LUNAS")).thenReturn(0);
 
-        Exception exception = assertThrows(RuntimeException.class, () -> {
+        Exception exception = assertThrows(NoSuchElementException.class, () -> {
             paymentService.updatePaymentStatus("invalid", "LUNAS");
         });
         assertEquals("Payment not found with id: " + invalidId, exception.getMessage());
@@ -99,7 +177,7 @@ class PaymentServiceTest {
     void testDeletePayment_notFound() {
         String invalidPaymentId = "invalid";
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        RuntimeException exception = assertThrows(NoSuchElementException.class, () -> {
             paymentService.deletePayment(invalidPaymentId);
         });
 
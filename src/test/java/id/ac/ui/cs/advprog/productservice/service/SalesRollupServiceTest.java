@@ -0,0 +1,192 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.dto.SalesStatsDTO;
+import id.ac.ui.cs.advprog.productservice.enums.SalesGranularity;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.repository.SalesFact;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        salesRollupService = new SalesRollupService(transactionRepository, transactionManager, ZoneOffset.UTC);
+    }
+
+    @Test
+    void record_CreateThenCancelThenDelete() {
+        SalesFact pending = fact("2025-01-02T10:15:00Z", 300.0, TransactionStatus.PENDING, "CASH", 3);
+        SalesFact cancelled = fact("2025-01-02T10:15:00Z", 300.0, TransactionStatus.CANCELLED, "CASH", 3);
+        Date start = date("2025-01-02T00:00:00Z");
+        Date end = date("2025-01-03T00:00:00Z");
+
+        salesRollupService.record(null, pending);
+        SalesStatsDTO created = salesRollupService.getSummary(start, end);
+        assertEquals(1, created.getCount());
+        assertEquals(300.0, created.getRevenue());
+        assertEquals(3, created.getItemsSold());
+        assertEquals(1L, created.getByStatus().get(TransactionStatus.PENDING));
+        assertEquals(1L, created.getByPaymentMethod().get("CASH"));
+
+        salesRollupService.record(pending, cancelled);
+        SalesStatsDTO afterCancel = salesRollupService.getSummary(start, end);
+        assertEquals(1, afterCancel.getCount());
+        assertEquals(0.0, afterCancel.getRevenue());
+        assertEquals(0, afterCancel.getItemsSold());
+        assertNull(afterCancel.getByStatus().get(TransactionStatus.PENDING));
+        assertEquals(1L, afterCancel.getByStatus().get(TransactionStatus.CANCELLED));
+
+        salesRollupService.record(cancelled, null);
+        SalesStatsDTO afterDelete = salesRollupService.getSummary(start, end);
+        assertEquals(0, afterDelete.getCount());
+        assertTrue(afterDelete.getByStatus().isEmpty());
+        assertTrue(afterDelete.getByPaymentMethod().isEmpty());
+    }
+
+    @Test
+    void getSummary_CombinesDailyAndHourlyBuckets() {
+        salesRollupService.record(null, fact("2025-01-01T22:30:00Z", 100.0, TransactionStatus.COMPLETED, "CASH", 1));
+        salesRollupService.record(null, fact("2025-01-01T23:30:00Z", 200.0, TransactionStatus.COMPLETED, "CASH", 2));
+        salesRollupService.record(null, fact("2025-01-02T12:00:00Z", 400.0, TransactionStatus.PENDING, "CARD", 4));
+        salesRollupService.record(null, fact("2025-01-03T00:30:00Z", 800.0, TransactionStatus.COMPLETED, "CARD", 8));
+        salesRollupService.record(null, fact("2025-01-03T01:30:00Z", 1600.0, TransactionStatus.COMPLETED, "CARD", 16));
+
+        SalesStatsDTO summary = salesRollupService.getSummary(
+                date("2025-01-01T23:10:00Z"), date("2025-01-03T00:45:00Z"));
+
+        assertEquals(date("2025-01-01T23:00:00Z"), summary.getStart());
+        assertEquals(date("2025-01-03T01:00:00Z"), summary.getEnd());
+        assertEquals(3, summary.getCount());
+        assertEquals(1400.0, summary.getRevenue());
+        assertEquals(14, summary.getItemsSold());
+        assertEquals(2L, summary.getByPaymentMethod().get("CARD"));
+        assertEquals(1L, summary.getByStatus().get(TransactionStatus.PENDING));
+    }
+
+    @Test
+    void getBuckets_ByHourAndDay() {
+        salesRollupService.record(null, fact("2025-01-01T10:05:00Z", 100.0, TransactionStatus.COMPLETED, "CASH", 1));
+        salesRollupService.record(null, fact("2025-01-01T10:55:00Z", 100.0, TransactionStatus.COMPLETED, "CASH", 1));
+        salesRollupService.record(null, fact("2025-01-01T12:00:00Z", 100.0, TransactionStatus.COMPLETED, "CASH", 1));
+        salesRollupService.record(null, fact("2025-01-02T09:00:00Z", 100.0, TransactionStatus.COMPLETED, "CASH", 1));
+
+        List<SalesStatsDTO> hours = salesRollupService.getBuckets(
+                date("2025-01-01T00:00:00Z"), date("2025-01-02T00:00:00Z"), SalesGranularity.HOUR);
+        assertEquals(2, hours.size());
+        assertEquals(date("2025-01-01T10:00:00Z"), hours.get(0).getStart());
+        assertEquals(date("2025-01-01T11:00:00Z"), hours.get(0).getEnd());
+        assertEquals(2, hours.get(0).getCount());
+        assertEquals(1, hours.get(1).getCount());
+
+        List<SalesStatsDTO> days = salesRollupService.getBuckets(
+                date("2025-01-01T06:00:00Z"), date("2025-01-03T00:00:00Z"), SalesGranularity.DAY);
+        assertEquals(2, days.size());
+        assertEquals(3, days.get(0).getCount());
+        assertEquals(1, days.get(1).getCount());
+    }
+
+    @Test
+    void rebuild_ReplacesBucketsFromRepository() {
+        salesRollupService.record(null, fact("2025-01-01T10:00:00Z", 999.0, TransactionStatus.COMPLETED, "CASH", 9));
+        when(transactionRepository.streamSalesFacts()).thenReturn(Stream.of(
+                fact("2025-01-01T10:00:00Z", 100.0, TransactionStatus.COMPLETED, "CASH", 1),
+                fact("2025-01-01T11:00:00Z", 50.0, TransactionStatus.IN_PROGRESS, "CARD", 2)));
+
+        long rebuilt = salesRollupService.rebuild();
+
+        assertEquals(2, rebuilt);
+        SalesStatsDTO summary = salesRollupService.getSummary(date("2025-01-01T00:00:00Z"), date("2025-01-02T00:00:00Z"));
+        assertEquals(2, summary.getCount());
+        assertEquals(150.0, summary.getRevenue());
+        assertEquals(3, summary.getItemsSold());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void rebuild_SkipsQueuedChangesTheScanAlreadyCounted() {
+        SalesFact seen = fact("tx-1", "2025-01-01T10:00:00Z", 100.0, TransactionStatus.COMPLETED, "CASH", 1);
+        // Committed before the scan's snapshot, but its after-commit hook only ran once the queue was installed
+        when(transactionRepository.streamSalesFacts()).thenAnswer(invocation -> {
+            salesRollupService.record(null, seen);
+            return Stream.of(seen);
+        });
+        when(transactionRepository.findSalesFacts(List.of("tx-1"))).thenReturn(List.of(seen));
+
+        salesRollupService.rebuild();
+
+        assertEquals(1, summaryOfJanuaryFirst().getCount());
+    }
+
+    @Test
+    void rebuild_ReplaysChangesCommittedAfterTheScanInAnyOrder() {
+        SalesFact created = fact("tx-2", "2025-01-01T11:00:00Z", 50.0, TransactionStatus.PENDING, "CARD", 2);
+        SalesFact completed = created.withStatus(TransactionStatus.COMPLETED);
+        SalesFact scanned = fact("tx-3", "2025-01-01T12:00:00Z", 30.0, TransactionStatus.PENDING, "CASH", 1);
+        SalesFact cancelled = scanned.withStatus(TransactionStatus.CANCELLED);
+        when(transactionRepository.streamSalesFacts()).thenAnswer(invocation -> {
+            salesRollupService.record(created, completed);
+            salesRollupService.record(null, created);
+            salesRollupService.record(scanned, cancelled);
+            return Stream.of(scanned);
+        });
+        when(transactionRepository.findSalesFacts(List.of("tx-2", "tx-3"))).thenReturn(List.of(scanned));
+
+        salesRollupService.rebuild();
+
+        SalesStatsDTO summary = summaryOfJanuaryFirst();
+        assertEquals(2, summary.getCount());
+        assertEquals(50.0, summary.getRevenue());
+        assertEquals(1L, summary.getByStatus().get(TransactionStatus.COMPLETED));
+        assertEquals(1L, summary.getByStatus().get(TransactionStatus.CANCELLED));
+        assertNull(summary.getByStatus().get(TransactionStatus.PENDING));
+    }
+
+    @Test
+    void getSummary_RejectsInvalidRange() {
+        Date start = date("2025-01-02T00:00:00Z");
+
+        assertThrows(IllegalArgumentException.class, () -> salesRollupService.getSummary(start, start));
+        assertThrows(IllegalArgumentException.class, () -> salesRollupService.getSummary(null, start));
+    }
+
+    private static SalesFact fact(String createdAt, double total, TransactionStatus status, String method, long items) {
+        return fact("tx-" + createdAt, createdAt, total, status, method, items);
+    }
+
+    private static SalesFact fact(String id, String createdAt, double total, TransactionStatus status, String method,
+                                  long items) {
+        return new SalesFact(id, date(createdAt), total, status, method, items);
+    }
+
+    private SalesStatsDTO summaryOfJanuaryFirst() {
+        return salesRollupService.getSummary(date("2025-01-01T00:00:00Z"), date("2025-01-02T00:00:00Z"));
+    }
+
+    private static Date date(String instant) {
+        return Date.from(Instant.parse(instant));
+    }
+}
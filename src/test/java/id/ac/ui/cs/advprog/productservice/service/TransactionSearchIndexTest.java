@@ -0,0 +1,135 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionSearchKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionSearchIndexTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private TransactionSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionRepository.findAllSearchKeys()).thenReturn(List.of(
+                key("trx-0001", "alice"),
+                key("trx-0002", "alicia"),
+                key("trx-0003", "bob"),
+                key("abc-9999", "carol")
+        ));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void testReadyAfterRebuild() {
+        assertTrue(searchIndex.isReady());
+    }
+
+    @Test
+    void testSearchMatchesIdSubstring() {
+        assertEquals(List.of("trx-0001", "trx-0002", "trx-0003"), searchIndex.search("trx-"));
+        assertEquals(List.of("trx-0002"), searchIndex.search("0002"));
+    }
+
+    @Test
+    void testSearchMatchesCustomerSubstring() {
+        assertEquals(List.of("trx-0001", "trx-0002"), searchIndex.search("lic"));
+        assertEquals(List.of("abc-9999"), searchIndex.search("arol"));
+    }
+
+    @Test
+    void testSearchWithUnknownTrigramMatchesNothing() {
+        assertTrue(searchIndex.search("alob").isEmpty());
+        assertTrue(searchIndex.search("x-00010").isEmpty());
+    }
+
+    @Test
+    void testSearchVerifiesCandidatesAgainstWholeKeyword() {
+        // The id and customerId together hold every trigram of "00010", but neither contains it
+        searchIndex.index("zz-0001", "q010");
+
+        assertTrue(searchIndex.search("00010").isEmpty());
+    }
+
+    @Test
+    void testShortKeywordFallsBackToKeyScan() {
+        assertEquals(List.of("trx-0003"), searchIndex.search("ob"));
+    }
+
+    @Test
+    void testIndexAndUnindexOutsideTransactionApplyImmediately() {
+        searchIndex.index("trx-0004", "dave");
+        assertEquals(List.of("trx-0004"), searchIndex.search("dav"));
+
+        searchIndex.index("trx-0004", "erin");
+        assertTrue(searchIndex.search("dav").isEmpty());
+        assertEquals(List.of("trx-0004"), searchIndex.search("eri"));
+
+        searchIndex.unindex("trx-0004");
+        assertTrue(searchIndex.search("eri").isEmpty());
+        assertTrue(searchIndex.suggestCustomerIds("er", 10).isEmpty());
+    }
+
+    @Test
+    void testSuggestCustomerIdsByPrefix() {
+        assertEquals(List.of("alice", "alicia"), searchIndex.suggestCustomerIds("ali", 10));
+        assertEquals(List.of("alice"), searchIndex.suggestCustomerIds("ali", 1));
+        assertTrue(searchIndex.suggestCustomerIds("zed", 10).isEmpty());
+    }
+
+    @Test
+    void testSuggestCountsTransactionsPerCustomer() {
+        searchIndex.index("trx-0005", "bob");
+        searchIndex.unindex("trx-0003");
+
+        assertEquals(List.of("bob"), searchIndex.suggestCustomerIds("b", 10));
+    }
+
+    @Test
+    void testRebuildKeepsChangesCommittedWhileReading() {
+        when(transactionRepository.findAllSearchKeys()).thenAnswer(invocation -> {
+            searchIndex.unindex("trx-0001");
+            searchIndex.index("trx-0002", "dave");
+            searchIndex.index("trx-0006", "frank");
+            return List.of(key("trx-0001", "alice"), key("trx-0002", "alicia"), key("trx-0003", "bob"));
+        });
+
+        searchIndex.rebuild();
+
+        assertTrue(searchIndex.search("trx-0001").isEmpty());
+        assertEquals(List.of("trx-0002"), searchIndex.search("dav"));
+        assertEquals(List.of("trx-0006"), searchIndex.search("fra"));
+        assertEquals(List.of("trx-0003"), searchIndex.search("bob"));
+        // Gone from the table since the previous rebuild
+        assertTrue(searchIndex.search("abc-9999").isEmpty());
+        assertTrue(searchIndex.suggestCustomerIds("ali", 10).isEmpty());
+    }
+
+    private static TransactionSearchKey key(String id, String customerId) {
+        return new TransactionSearchKey() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public String getCustomerId() {
+                return customerId;
+            }
+        };
+    }
+}
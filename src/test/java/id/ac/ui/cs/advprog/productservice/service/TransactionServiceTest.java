@@ -1,15 +1,21 @@
 package id.ac.ui.cs.advprog.productservice.service;
 
+import id.ac.ui.cs.advprog.productservice.dto.BatchResultDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionCursor;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.productservice.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionRequestDTO;
 import id.ac.ui.cs.advprog.productservice.dto.TransactionUpdateDTO;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionSortField;
 import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
 import id.ac.ui.cs.advprog.productservice.model.Payment;
 import id.ac.ui.cs.advprog.productservice.model.Transaction;
 import id.ac.ui.cs.advprog.productservice.model.TransactionItem;
 import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.productmanagement.service.InventoryService;
 import id.ac.ui.cs.advprog.productservice.productmanagement.service.ProductService;
 import id.ac.ui.cs.advprog.productservice.repository.PaymentRepository;
+import id.ac.ui.cs.advprog.productservice.repository.SalesFact;
 import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,12 +25,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.mockito.junit.jupiter.MockitoSettings;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,6 +48,9 @@ class TransactionServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private InventoryService inventoryService;
+
     @Mock
     private TransactionRepository transactionRepository;
 
@@ -46,6 +60,21 @@ class TransactionServiceTest {
     @Mock
     private PaymentService paymentService;
 
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private CustomerTransactionCache customerTransactionCache;
+
+    @Mock
+    private OngoingTransactionRegistry ongoingRegistry;
+
+    @Mock
+    private CustomerBalanceLedger balanceLedger;
+
     @Mock
     private Executor customTaskExecutor;
 
@@ -61,6 +90,7 @@ class TransactionServiceTest {
     private String transactionId;
     private String customerId;
     private List<TransactionItem> transactionItems;
+    private Map<UUID, Product> knownProducts;
 
     @BeforeEach
     void setUp() {
@@ -97,6 +127,30 @@ class TransactionServiceTest {
         when(productService.getProductById("550e8400-e29b-41d4-a716-446655440001")).thenReturn(Optional.of(product1));
         when(productService.getProductById("550e8400-e29b-41d4-a716-446655440002")).thenReturn(Optional.of(product2));
 
+        knownProducts = new HashMap<>();
+        knownProducts.put(product1.getId(), product1);
+        knownProducts.put(product2.getId(), product2);
+        when(productService.getProductsByIds(anyCollection())).thenAnswer(i -> {
+            Collection<UUID> ids = i.getArgument(0);
+            Map<UUID, Product> found = new HashMap<>();
+            ids.stream().filter(knownProducts::containsKey).forEach(id -> found.put(id, knownProducts.get(id)));
+            return found;
+        });
+
+        when(inventoryService.reserveAll(anyMap())).thenAnswer(i -> {
+            Map<UUID, Integer> quantities = i.getArgument(0);
+            Map<UUID, Boolean> reserved = new LinkedHashMap<>();
+            quantities.keySet().forEach(id -> reserved.put(id, true));
+            return reserved;
+        });
+        when(inventoryService.availableStock(any(Product.class)))
+                .thenAnswer(i -> i.<Product>getArgument(0).getStock());
+
+        when(customerTransactionCache.get(anyString(), any())).thenAnswer(i -> {
+            Supplier<List<TransactionDTO>> loader = i.getArgument(1);
+            return loader.get();
+        });
+
         when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
         when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> {
@@ -113,9 +167,10 @@ class TransactionServiceTest {
         when(transactionRepository.findByStatus(TransactionStatus.PENDING)).thenReturn(transactionList);
         when(transactionRepository.findByPaymentMethod("CASH")).thenReturn(transactionList);
         when(transactionRepository.findByDateRange(any(Date.class), any(Date.class))).thenReturn(transactionList);
-        when(transactionRepository.searchByKeyword("test")).thenReturn(transactionList);
+        when(transactionRepository.searchIdsByKeyword(eq("test"), any(Pageable.class))).thenReturn(List.of(transactionId));
+        when(transactionRepository.findByIdIn(List.of(transactionId))).thenReturn(transactionList);
         when(transactionRepository.findOngoingTransactions()).thenReturn(transactionList);
-        when(transactionRepository.findTransactionsWithFilters(any(), any(), any(), any(), any())).thenReturn(transactionList);
+        when(transactionRepository.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(Sort.class))).thenReturn(transactionList);
 
         requestDTO = new TransactionRequestDTO();
         requestDTO.setCustomerId(customerId);
@@ -149,8 +204,10 @@ class TransactionServiceTest {
         assertEquals("CASH", result.getPaymentMethod());
         assertEquals(TransactionStatus.COMPLETED, result.getStatus());
 
-        verify(productService, times(1)).getProductById("550e8400-e29b-41d4-a716-446655440001");
-        verify(productService, times(1)).editProduct(any(Product.class), eq(true));
+        verify(productService, times(1)).getProductsByIds(Set.of(product1.getId()));
+        verify(productService, never()).getProductById(anyString());
+        verify(inventoryService, times(1)).reserveAll(Map.of(product1.getId(), 2));
+        verify(productService, never()).editProduct(any(Product.class), anyBoolean());
         verify(paymentRepository).save(any(Payment.class));
         verify(transactionRepository).save(any(Transaction.class));
 
@@ -201,9 +258,48 @@ class TransactionServiceTest {
         verify(paymentRepository, never()).save(any(Payment.class));
     }
 
+    @Test
+    void createTransaction_UnknownProductId() {
+        Map<String, Integer> productQuantities = new HashMap<>();
+        productQuantities.put("550e8400-e29b-41d4-a716-446655440001", 1);
+        productQuantities.put("550e8400-e29b-41d4-a716-446655440099", 1);
+        requestDTO.setProductQuantities(productQuantities);
+
+        Exception exception = assertThrows(NoSuchElementException.class, () -> {
+            transactionService.createTransaction(requestDTO);
+        });
+
+        assertTrue(exception.getMessage().contains("550e8400-e29b-41d4-a716-446655440099"));
+        verify(productService, times(1)).getProductsByIds(anyCollection());
+        verify(inventoryService, never()).reserveAll(anyMap());
+    }
+
+    @Test
+    void createTransaction_MissingAmountIsRejectedBeforeAnyWrite() {
+        requestDTO.setAmount(null);
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> transactionService.createTransaction(requestDTO));
+
+        assertEquals("amount is required", exception.getMessage());
+        verify(inventoryService, never()).reserveAll(anyMap());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void createTransaction_OrderWithoutAPositiveQuantityIsRejected() {
+        requestDTO.setProductQuantities(Map.of("550e8400-e29b-41d4-a716-446655440001", 0));
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> transactionService.createTransaction(requestDTO));
+
+        assertEquals("productQuantities must contain a positive quantity", exception.getMessage());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
     @Test
     void createTransaction_InsufficientStock() {
-        when(product1.getStock()).thenReturn(1);
+        when(inventoryService.reserveAll(anyMap())).thenReturn(Map.of(product1.getId(), false));
 
         Map<String, Integer> productQuantities = new HashMap<>();
         productQuantities.put("550e8400-e29b-41d4-a716-446655440001", 2);
@@ -405,7 +501,7 @@ class TransactionServiceTest {
 
         verify(transactionRepository).findById(transactionId);
         verify(transactionRepository).save(any(Transaction.class));
-        verify(productService, atLeastOnce()).editProduct(any(Product.class), eq(true));
+        verify(inventoryService).releaseAll(Map.of(product1.getId(), 2));
     }
 
     @Test
@@ -447,7 +543,7 @@ class TransactionServiceTest {
 
         verify(transactionRepository).findById(transactionId);
         verify(transactionRepository).deleteById(transactionId);
-        verify(productService, atLeastOnce()).editProduct(any(Product.class), eq(true));
+        verify(inventoryService).releaseAll(Map.of(product1.getId(), 2));
     }
 
     @Test
@@ -469,7 +565,7 @@ class TransactionServiceTest {
 
         verify(transactionRepository).findById(transactionId);
         verify(transactionRepository).deleteById(transactionId);
-        verify(productService, never()).editProduct(any(Product.class), eq(true));
+        verify(inventoryService, never()).release(any(), anyInt());
     }
 
     @Test
@@ -479,7 +575,117 @@ class TransactionServiceTest {
         assertNotNull(results);
         assertEquals(1, results.size());
 
-        verify(transactionRepository).searchByKeyword("test");
+        verify(transactionRepository).searchIdsByKeyword("test", PageRequest.of(0, 1000));
+    }
+
+    @Test
+    void searchTransactions_UsesIndexWhenReady() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("test")).thenReturn(List.of(transactionId));
+        when(transactionRepository.findByIdIn(List.of(transactionId))).thenReturn(List.of(transaction));
+
+        List<TransactionDTO> results = transactionService.searchTransactions("test");
+
+        assertEquals(1, results.size());
+        assertEquals(transactionId, results.get(0).getId());
+        verify(transactionRepository, never()).searchIdsByKeyword(anyString(), any());
+    }
+
+    @Test
+    void searchTransactions_LoadsACappedResultInChunks() {
+        List<String> ids = IntStream.range(0, 1500).mapToObj(i -> String.format("tx-%04d", i)).toList();
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("tx")).thenReturn(ids);
+        when(transactionRepository.findByIdIn(anyCollection())).thenReturn(List.of());
+
+        transactionService.searchTransactions("tx");
+
+        verify(transactionRepository).findByIdIn(ids.subList(0, 500));
+        verify(transactionRepository).findByIdIn(ids.subList(500, 1000));
+        verify(transactionRepository, times(2)).findByIdIn(anyCollection());
+    }
+
+    @Test
+    void suggestCustomerIds_DelegatesToIndexWithCappedLimit() {
+        when(searchIndex.suggestCustomerIds("test", 50)).thenReturn(List.of(customerId));
+
+        assertEquals(List.of(customerId), transactionService.suggestCustomerIds("test", 1000));
+        assertTrue(transactionService.suggestCustomerIds("", 10).isEmpty());
+    }
+
+    @Test
+    void createUpdateDelete_KeepSearchIndexCurrent() {
+        TransactionDTO created = transactionService.createTransaction(requestDTO);
+        verify(searchIndex).index(created.getId(), customerId);
+
+        transactionService.updateTransaction(transactionId, updateDTO);
+        verify(searchIndex).index(transactionId, "updated-customer-id");
+
+        transactionService.deleteTransaction(transactionId);
+        verify(searchIndex).unindex(transactionId);
+    }
+
+    @Test
+    void cancelAndDelete_UpdateSalesRollups() {
+        ArgumentCaptor<SalesFact> before = ArgumentCaptor.forClass(SalesFact.class);
+        ArgumentCaptor<SalesFact> after = ArgumentCaptor.forClass(SalesFact.class);
+
+        transactionService.cancelTransaction(transactionId);
+        verify(salesRollupService).record(before.capture(), after.capture());
+        assertEquals(TransactionStatus.PENDING, before.getValue().status());
+        assertEquals(TransactionStatus.CANCELLED, after.getValue().status());
+        assertEquals(2, after.getValue().itemsSold());
+
+        transactionService.deleteTransaction(transactionId);
+        verify(salesRollupService).record(argThat(fact -> fact.status() == TransactionStatus.CANCELLED), isNull());
+    }
+
+    @Test
+    void mutations_EvictCustomerHistory() {
+        transactionService.createTransaction(requestDTO);
+        verify(customerTransactionCache).evict(customerId);
+
+        transactionService.updateTransaction(transactionId, updateDTO);
+        verify(customerTransactionCache).evict(customerId, "updated-customer-id");
+
+        transactionService.cancelTransaction(transactionId);
+        transactionService.deleteTransaction(transactionId);
+        verify(customerTransactionCache, times(2)).evict("updated-customer-id");
+    }
+
+    @Test
+    void mutations_UpdateCustomerBalance() {
+        requestDTO.setAmount(150.0);
+        transactionService.createTransaction(requestDTO);
+        verify(balanceLedger).record(isNull(), eq(new CustomerBalanceLedger.Contribution(customerId, 200.0, 150.0)));
+
+        transactionService.cancelTransaction(transactionId);
+        verify(balanceLedger).record(new CustomerBalanceLedger.Contribution(customerId, 200.0, 200.0),
+                new CustomerBalanceLedger.Contribution(customerId, 0.0, 0.0));
+
+        transactionService.deleteTransaction(transactionId);
+        verify(balanceLedger).record(eq(new CustomerBalanceLedger.Contribution(customerId, 0.0, 0.0)), isNull());
+    }
+
+    @Test
+    void updateTransaction_MovesBalanceOnInstallmentPayment() {
+        payment.setStatus("CICILAN");
+        payment.setAmount(100.0);
+        transaction.setStatus(TransactionStatus.IN_PROGRESS);
+        updateDTO = new TransactionUpdateDTO();
+        updateDTO.setAmount(180.0);
+
+        transactionService.updateTransaction(transactionId, updateDTO);
+
+        verify(balanceLedger).record(new CustomerBalanceLedger.Contribution(customerId, 200.0, 100.0),
+                new CustomerBalanceLedger.Contribution(customerId, 200.0, 180.0));
+    }
+
+    @Test
+    void createTransaction_RecordsSale() {
+        transactionService.createTransaction(requestDTO);
+
+        verify(salesRollupService).record(isNull(), argThat(fact -> fact.totalAmount() > 0 && fact.itemsSold() > 0));
     }
 
     @Test
@@ -528,6 +734,45 @@ class TransactionServiceTest {
         assertTrue(includedIds.contains("in-progress-id"));
     }
 
+    @Test
+    void ongoingQueries_ServedFromRegistryOnceLoaded() {
+        TransactionDTO pending = TransactionDTO.fromTransaction(transaction);
+        when(ongoingRegistry.isReady()).thenReturn(true);
+        when(ongoingRegistry.getOngoing()).thenReturn(List.of(pending));
+        when(ongoingRegistry.getByStatus(TransactionStatus.PENDING)).thenReturn(List.of(pending));
+        when(ongoingRegistry.countByStatus()).thenReturn(Map.of(TransactionStatus.PENDING, 1L));
+
+        assertEquals(List.of(pending), transactionService.getOngoingTransactions());
+        assertEquals(List.of(pending), transactionService.getTransactionsByStatus(TransactionStatus.PENDING));
+        assertEquals(1L, transactionService.countOngoingTransactions().get(TransactionStatus.PENDING));
+        verify(transactionRepository, never()).findOngoingTransactions();
+        verify(transactionRepository, never()).findByStatus(any());
+
+        // Finished statuses are not held in memory
+        transactionService.getTransactionsByStatus(TransactionStatus.COMPLETED);
+        verify(transactionRepository).findByStatus(TransactionStatus.COMPLETED);
+    }
+
+    @Test
+    void countOngoingTransactions_FallsBackToRepositoryBeforeLoad() {
+        when(transactionRepository.countByStatus(TransactionStatus.PENDING)).thenReturn(3L);
+        when(transactionRepository.countByStatus(TransactionStatus.IN_PROGRESS)).thenReturn(4L);
+
+        Map<TransactionStatus, Long> counts = transactionService.countOngoingTransactions();
+
+        assertEquals(3L, counts.get(TransactionStatus.PENDING));
+        assertEquals(4L, counts.get(TransactionStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void stateTransitions_UpdateOngoingRegistry() {
+        transactionService.completeTransaction(transactionId);
+        verify(ongoingRegistry).track(transaction);
+
+        transactionService.deleteTransaction(transactionId);
+        verify(ongoingRegistry).untrack(transactionId);
+    }
+
     @Test
     void filterTransactions_AllFilters() {
         List<Transaction> testTransactions = new ArrayList<>();
@@ -559,7 +804,8 @@ class TransactionServiceTest {
                 eq(Collections.singletonList(TransactionStatus.PENDING)),
                 eq(Collections.singletonList("CASH")),
                 eq(startDate),
-                eq(endDate)
+                eq(endDate),
+                eq(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
         )).thenReturn(testTransactions);
 
         List<TransactionDTO> results = transactionService.filterTransactions(
@@ -577,6 +823,65 @@ class TransactionServiceTest {
         assertEquals("matching-transaction", results.get(0).getId());
     }
 
+    @Test
+    void filterTransactionsPage_FirstPageHasMore() {
+        Transaction second = new Transaction();
+        second.setId("second-id");
+        second.setCustomerId(customerId);
+        second.setPaymentMethod("CASH");
+        second.setPayment(payment);
+
+        when(transactionRepository.findFilteredIdsAfter(
+                isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(TransactionSortField.CREATED_AT), eq(true), isNull(), eq(3)))
+                .thenReturn(List.of(transactionId, "second-id", "third-id"));
+        when(transactionRepository.findByIdIn(List.of(transactionId, "second-id")))
+                .thenReturn(List.of(second, transaction));
+
+        TransactionPageDTO page = transactionService.filterTransactionsPage(
+                null, null, null, null, null, "createdAt", "desc", null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(2, page.getItems().size());
+        assertEquals(transactionId, page.getItems().get(0).getId());
+        assertEquals("second-id", page.getItems().get(1).getId());
+
+        TransactionCursor cursor = TransactionCursor.decode(page.getNextCursor());
+        assertEquals("second-id", cursor.getId());
+        assertEquals(TransactionSortField.CREATED_AT, cursor.getSortField());
+        assertTrue(cursor.isDescending());
+    }
+
+    @Test
+    void filterTransactionsPage_PassesCursorToRepository() {
+        String cursor = TransactionCursor.after(transaction, TransactionSortField.TOTAL_AMOUNT, false).encode();
+        when(transactionRepository.findFilteredIdsAfter(
+                any(), any(), any(), any(), any(), eq(TransactionSortField.TOTAL_AMOUNT), eq(false), any(TransactionCursor.class), eq(11)))
+                .thenReturn(List.of());
+        when(transactionRepository.findByIdIn(List.of())).thenReturn(List.of());
+
+        TransactionPageDTO page = transactionService.filterTransactionsPage(
+                null, null, null, null, null, "totalAmount", "asc", cursor, 10);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getItems().isEmpty());
+    }
+
+    @Test
+    void filterTransactionsPage_RejectsCursorFromAnotherSortOrder() {
+        String cursor = TransactionCursor.after(transaction, TransactionSortField.TOTAL_AMOUNT, false).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.filterTransactionsPage(
+                null, null, null, null, null, "createdAt", "desc", cursor, 10));
+    }
+
+    @Test
+    void filterTransactionsPage_RejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.filterTransactionsPage(
+                null, null, null, null, null, "createdAt", "desc", null, 0));
+    }
+
     @Test
     void confirmTransaction_Success() {
         assertEquals(TransactionStatus.PENDING, transaction.getStatus());
@@ -588,6 +893,7 @@ class TransactionServiceTest {
 
         verify(transactionRepository).findById(transactionId);
         verify(transactionRepository).save(any(Transaction.class));
+        verify(productService).getProductsByIds(List.of(product1.getId()));
     }
 
     @Test
@@ -621,7 +927,7 @@ class TransactionServiceTest {
         TransactionItem insufficientItem = new TransactionItem(lowStockProduct, 5);
         transaction.addItem(insufficientItem);
 
-        when(productService.getProductById("550e8400-e29b-41d4-a716-446655440003")).thenReturn(Optional.of(lowStockProduct));
+        knownProducts.put(lowStockProduct.getId(), lowStockProduct);
 
         Exception exception = assertThrows(IllegalStateException.class, () -> {
             transactionService.confirmTransaction(transactionId);
@@ -630,6 +936,19 @@ class TransactionServiceTest {
         assertTrue(exception.getMessage().contains("Not enough stock"));
     }
 
+    @Test
+    void confirmTransaction_ChecksStockAfterPendingWriteBehind() {
+        // The stock column still says 10 but unflushed reservations already took all but one unit
+        when(inventoryService.availableStock(product1)).thenReturn(1);
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            transactionService.confirmTransaction(transactionId);
+        });
+
+        assertTrue(exception.getMessage().contains("Not enough stock"));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
     @Test
     void getTransactionDetails_Success() throws Exception {
         CompletableFuture<Map<String, Object>> future = transactionService.getTransactionDetails(transactionId);
@@ -670,79 +989,92 @@ class TransactionServiceTest {
     void batchCompleteTransactions_Success() {
         Transaction pendingTransaction = new Transaction();
         pendingTransaction.setId("pending-id");
+        pendingTransaction.setCustomerId("customer-1");
         pendingTransaction.setStatus(TransactionStatus.PENDING);
 
         Transaction completedTransaction = new Transaction();
         completedTransaction.setId("completed-id");
         completedTransaction.setStatus(TransactionStatus.COMPLETED);
 
-        when(transactionRepository.findById("pending-id")).thenReturn(Optional.of(pendingTransaction));
-        when(transactionRepository.findById("completed-id")).thenReturn(Optional.of(completedTransaction));
-
-        List<String> transactionIds = Arrays.asList("pending-id", "completed-id");
-
-        int completedCount = transactionService.batchCompleteTransactions(transactionIds);
-
-        assertEquals(1, completedCount);
+        when(transactionRepository.findAllByIdForUpdate(List.of("completed-id", "missing-id", "pending-id")))
+                .thenReturn(List.of(completedTransaction, pendingTransaction));
+        when(transactionRepository.updateStatus(anyCollection(), anyCollection(), any(), any())).thenReturn(1);
 
-        verify(transactionRepository).findById("pending-id");
-        verify(transactionRepository).findById("completed-id");
+        BatchResultDTO result = transactionService.batchCompleteTransactions(
+                Arrays.asList("pending-id", "completed-id", "missing-id", "pending-id"));
 
-        ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, times(1)).save(transactionCaptor.capture());
+        assertEquals(List.of("pending-id"), result.getProcessed());
+        assertEquals(Map.of("completed-id", "Transaction is COMPLETED", "missing-id", "Transaction not found"),
+                result.getSkipped());
 
-        Transaction savedTransaction = transactionCaptor.getValue();
-        assertEquals("pending-id", savedTransaction.getId());
-        assertEquals(TransactionStatus.COMPLETED, savedTransaction.getStatus());
+        verify(transactionRepository).updateStatus(eq(Set.of("pending-id")),
+                eq(EnumSet.of(TransactionStatus.PENDING)), eq(TransactionStatus.COMPLETED), any(Date.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(salesRollupService).record(
+                argThat(before -> before.status() == TransactionStatus.PENDING),
+                argThat(after -> after.status() == TransactionStatus.COMPLETED));
+        verify(ongoingRegistry).untrack("pending-id");
+        verify(customerTransactionCache).evict("customer-1");
+        verify(inventoryService).releaseAll(Map.of());
     }
 
     @Test
     void batchCancelTransactions_Success() {
         Transaction pendingTransaction = new Transaction();
         pendingTransaction.setId("pending-id");
+        pendingTransaction.setCustomerId("customer-1");
         pendingTransaction.setStatus(TransactionStatus.PENDING);
+        pendingTransaction.addItem(new TransactionItem(product1, 2));
+        pendingTransaction.addItem(new TransactionItem(product2, 1));
 
-        TransactionItem item = new TransactionItem(product1, 2);
-        pendingTransaction.addItem(item);
+        Transaction completedTransaction = new Transaction();
+        completedTransaction.setId("completed-id");
+        completedTransaction.setCustomerId("customer-2");
+        completedTransaction.setStatus(TransactionStatus.COMPLETED);
+        completedTransaction.addItem(new TransactionItem(product1, 3));
 
         Transaction cancelledTransaction = new Transaction();
         cancelledTransaction.setId("cancelled-id");
         cancelledTransaction.setStatus(TransactionStatus.CANCELLED);
 
-        when(transactionRepository.findById("pending-id")).thenReturn(Optional.of(pendingTransaction));
-        when(transactionRepository.findById("cancelled-id")).thenReturn(Optional.of(cancelledTransaction));
-
-        List<String> transactionIds = Arrays.asList("pending-id", "cancelled-id");
-
-        int cancelledCount = transactionService.batchCancelTransactions(transactionIds);
-
-        assertEquals(1, cancelledCount);
-
-        verify(transactionRepository).findById("pending-id");
-        verify(transactionRepository).findById("cancelled-id");
-
-        ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, times(1)).save(transactionCaptor.capture());
-
-        Transaction savedTransaction = transactionCaptor.getValue();
-        assertEquals("pending-id", savedTransaction.getId());
-        assertEquals(TransactionStatus.CANCELLED, savedTransaction.getStatus());
-
-        verify(productService, atLeastOnce()).editProduct(any(Product.class), eq(true));
+        when(transactionRepository.findAllByIdForUpdate(anyList()))
+                .thenReturn(List.of(cancelledTransaction, completedTransaction, pendingTransaction));
+        when(transactionRepository.updateStatus(anyCollection(), anyCollection(), any(), any())).thenReturn(2);
+
+        BatchResultDTO result = transactionService.batchCancelTransactions(
+                Arrays.asList("pending-id", "cancelled-id", "completed-id"));
+
+        assertEquals(List.of("completed-id", "pending-id"), result.getProcessed());
+        assertEquals(Map.of("cancelled-id", "Transaction is CANCELLED"), result.getSkipped());
+
+        verify(transactionRepository).updateStatus(eq(Set.of("completed-id", "pending-id")),
+                argThat(expected -> !expected.contains(TransactionStatus.CANCELLED)),
+                eq(TransactionStatus.CANCELLED), any(Date.class));
+        // Stock returned once per product, not once per item
+        verify(inventoryService).releaseAll(Map.of(product1.getId(), 5, product2.getId(), 1));
+        verify(inventoryService, never()).release(any(), anyInt());
+        verify(customerTransactionCache).evict("customer-2", "customer-1");
+        verify(ongoingRegistry, times(2)).untrack(anyString());
+        verify(balanceLedger).record(
+                List.of(new CustomerBalanceLedger.Contribution("customer-2", 300.0, 0.0),
+                        new CustomerBalanceLedger.Contribution("customer-1", 400.0, 0.0)),
+                List.of(new CustomerBalanceLedger.Contribution("customer-2", 0.0, 0.0),
+                        new CustomerBalanceLedger.Contribution("customer-1", 0.0, 0.0)));
     }
 
     @Test
-    void batchOperations_ErrorHandling() {
-        List<String> transactionIds = Collections.singletonList("error-id");
-
-        when(transactionRepository.findById("error-id")).thenThrow(new RuntimeException("Test exception"));
+    void batchOperations_ConcurrentChangeRollsBack() {
+        Transaction pendingTransaction = new Transaction();
+        pendingTransaction.setId("pending-id");
+        pendingTransaction.setStatus(TransactionStatus.PENDING);
 
-        int completedCount = transactionService.batchCompleteTransactions(transactionIds);
-        int cancelledCount = transactionService.batchCancelTransactions(transactionIds);
+        when(transactionRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of(pendingTransaction));
+        when(transactionRepository.updateStatus(anyCollection(), anyCollection(), any(), any())).thenReturn(0);
 
-        assertEquals(0, completedCount);
-        assertEquals(0, cancelledCount);
+        assertThrows(IllegalStateException.class,
+                () -> transactionService.batchCompleteTransactions(List.of("pending-id")));
 
-        verify(transactionRepository, times(2)).findById("error-id");
+        verify(salesRollupService, never()).record(any(), any());
+        verify(ongoingRegistry, never()).untrack(anyString());
     }
 }
\ No newline at end of file
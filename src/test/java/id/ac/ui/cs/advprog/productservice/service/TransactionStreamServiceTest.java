@@ -0,0 +1,100 @@
+package id.ac.ui.cs.advprog.productservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.productservice.enums.StreamFormat;
+import id.ac.ui.cs.advprog.productservice.enums.TransactionStatus;
+import id.ac.ui.cs.advprog.productservice.model.Payment;
+import id.ac.ui.cs.advprog.productservice.model.Transaction;
+import id.ac.ui.cs.advprog.productservice.model.TransactionItem;
+import id.ac.ui.cs.advprog.productservice.productmanagement.model.Product;
+import id.ac.ui.cs.advprog.productservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class TransactionStreamServiceTest {
+
+    private static final int TRANSACTION_COUNT = TransactionStreamService.CHUNK_SIZE + 5;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TransactionStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        streamService = new TransactionStreamService(
+                transactionRepository, new ObjectMapper(), entityManager.getEntityManager());
+
+        Product product = new Product("Product 1", "Category 1", 1000, 10.0);
+        entityManager.persist(product);
+
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            Payment payment = new Payment(null, "customer-" + (i % 2), 10.0, "CASH", "LUNAS", new Date());
+            entityManager.persist(payment);
+
+            Transaction transaction = new Transaction();
+            transaction.setId(String.format("transaction-%03d", i));
+            transaction.setCustomerId("customer-" + (i % 2));
+            transaction.setPaymentMethod("CASH");
+            transaction.setStatus(i % 2 == 0 ? TransactionStatus.COMPLETED : TransactionStatus.PENDING);
+            transaction.setPayment(payment);
+            transaction.addItem(new TransactionItem(product, 1));
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void writeTransactions_JsonArrayAcrossChunks() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        streamService.writeTransactions(null, null, null, null, null, null, StreamFormat.JSON_ARRAY, out);
+
+        JsonNode array = new ObjectMapper().readTree(out.toByteArray());
+        assertTrue(array.isArray());
+        assertEquals(TRANSACTION_COUNT, array.size());
+        assertEquals("transaction-000", array.get(0).get("id").asText());
+        assertEquals("Product 1", array.get(0).get("items").get(0).get("productName").asText());
+        assertNotNull(array.get(TRANSACTION_COUNT - 1).get("paymentId").asText());
+    }
+
+    @Test
+    void writeTransactions_NdjsonFilteredByStatus() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        streamService.writeTransactions(null, TransactionStatus.PENDING, null, null, null, null, StreamFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\n");
+        assertEquals(TRANSACTION_COUNT / 2, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : lines) {
+            assertEquals("PENDING", mapper.readTree(line).get("status").asText());
+        }
+    }
+
+    @Test
+    void writeTransactions_EmptyResultIsEmptyArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        streamService.writeTransactions("nobody", null, null, null, null, null, StreamFormat.JSON_ARRAY, out);
+
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+}
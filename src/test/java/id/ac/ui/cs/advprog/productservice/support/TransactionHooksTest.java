@@ -0,0 +1,62 @@
+package id.ac.ui.cs.advprog.productservice.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionHooksTest {
+
+    private final List<String> ran = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void afterCommit_RunsImmediatelyOutsideATransaction() {
+        TransactionHooks.afterCommit(() -> ran.add("commit"));
+        TransactionHooks.afterRollback(() -> ran.add("rollback"));
+
+        assertEquals(List.of("commit"), ran);
+    }
+
+    @Test
+    void afterCommit_WaitsForTheCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionHooks.afterCommit(() -> ran.add("commit"));
+        TransactionHooks.afterRollback(() -> ran.add("rollback"));
+        assertTrue(ran.isEmpty());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(List.of("commit"), ran);
+    }
+
+    @Test
+    void afterRollback_RunsOnlyWhenTheTransactionDoesNotCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionHooks.afterCommit(() -> ran.add("commit"));
+        TransactionHooks.afterRollback(() -> ran.add("rollback"));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(List.of("rollback"), ran);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}